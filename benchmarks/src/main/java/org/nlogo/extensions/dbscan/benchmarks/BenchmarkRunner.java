@@ -0,0 +1,48 @@
+package org.nlogo.extensions.dbscan.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the clustering benchmarks and exports the results as JSON (by default to
+ * dbscan-benchmarks-[version].json in the working directory), so that results can
+ * be compared between versions of the extension. Standard JMH command line options
+ * (e.g., -p population=1000 or -rff file.json) can be passed to restrict or redirect runs.
+ *
+ * Benchmarks need to be run from the repository directory, as they use the test model
+ * and the extension built into src/test/resources.
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public class BenchmarkRunner {
+
+    /**
+     * Version of the extension the benchmarks are run against
+     */
+    public static final String VERSION = "0.5";
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(commandLine);
+        if (commandLine.getIncludes().isEmpty()) {
+            builder.include(ClusteringBenchmark.class.getSimpleName());
+        }
+        if (!commandLine.getResult().hasValue()) {
+            builder.result("dbscan-benchmarks-" + VERSION + ".json");
+        }
+        if (!commandLine.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        Options options = builder.build();
+        new Runner(options).run();
+    }
+
+}
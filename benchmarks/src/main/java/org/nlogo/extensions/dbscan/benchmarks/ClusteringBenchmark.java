@@ -0,0 +1,195 @@
+package org.nlogo.extensions.dbscan.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.nlogo.headless.HeadlessWorkspace;
+import org.nlogo.nvm.Procedure;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of the clustering primitives (cluster-by-variable and cluster-by-location)
+ * run in a headless NetLogo workspace, across population sizes, world topologies, agent
+ * types (turtles vs. patches) and distributions of locations and variable values.
+ *
+ * The world is sized so that it contains one patch per agent, which keeps the density of
+ * turtles (and the expected neighbourhood size) constant across population sizes. Patches
+ * always form the full lattice, such that the distribution only affects their variable values.
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClusteringBenchmark {
+
+    /**
+     * Extension folder containing the extension built by the extension module
+     */
+    public static final String EXTENSIONS_FOLDER = System.getProperty("user.dir")
+            + "/src/test/resources/extensions";
+
+    /**
+     * Test model of the extension module (topology is changed during setup)
+     */
+    public static final String MODEL = System.getProperty("user.dir")
+            + "/src/test/resources/java-netlogo-clustering-test-v6-torus.nlogo";
+
+    /**
+     * Minimum number of members of a cluster
+     */
+    private static final int MIN_MEMBERS = 4;
+
+    /**
+     * Maximum distance of neighbouring agents (locations)
+     */
+    private static final double MAX_LOCATION_DISTANCE = 1;
+
+    /**
+     * Maximum distance of neighbouring agents (variable values); values are spread over a
+     * range proportional to the population size (see {@link #VALUE_DENSITY})
+     */
+    private static final double MAX_VALUE_DISTANCE = 0.25;
+
+    /**
+     * Number of agents per unit of the variable value range
+     */
+    private static final int VALUE_DENSITY = 10;
+
+    /**
+     * Number of cluster centres for clustered distribution
+     */
+    private static final int CENTRES = 10;
+
+    /**
+     * Random seed used to populate the world
+     */
+    private static final int SEED = 5239942;
+
+    @Param({"1000", "10000", "100000"})
+    public int population;
+
+    @Param({"torus", "box", "vertical-cylinder", "horizontal-cylinder"})
+    public String topology;
+
+    @Param({"turtles", "patches"})
+    public String agents;
+
+    /**
+     * Uniform: random locations and values;
+     * clustered: locations and values normally distributed around a few centres;
+     * degenerate: collinear locations and few distinct values (many ties).
+     */
+    @Param({"uniform", "clustered", "degenerate"})
+    public String distribution;
+
+    private HeadlessWorkspace workspace;
+    private Procedure clusterByVariable;
+    private Procedure clusterByLocation;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        System.setProperty("netlogo.extensions.dir", EXTENSIONS_FOLDER);
+        workspace = HeadlessWorkspace.newInstance();
+        workspace.open(MODEL, false);
+
+        final int size = (int) Math.ceil(Math.sqrt(population));
+        workspace.command("clear-all");
+        workspace.command("random-seed " + SEED);
+        workspace.command("resize-world 0 " + (size - 1) + " 0 " + (size - 1));
+        workspace.command("__change-topology " + wrapsX(topology) + " " + wrapsY(topology));
+
+        final String set = "turtles".equals(agents) ? "agents" : "patches";
+        final String variable = "turtles".equals(agents) ? "wealth" : "resource";
+        if ("turtles".equals(agents)) {
+            workspace.command("set clusters n-values " + CENTRES + " [ (list random-xcor random-ycor) ]");
+            workspace.command("create-agents " + population + " [ " + location(distribution) + " ]");
+        }
+        workspace.command("ask " + set + " [ set " + variable + " " + value(distribution, population) + " ]");
+
+        clusterByVariable = workspace.compileReporter("dbscan:cluster-by-variable " + set + " \"" + variable
+                + "\" " + MIN_MEMBERS + " " + MAX_VALUE_DISTANCE);
+        clusterByLocation = workspace.compileReporter("dbscan:cluster-by-location " + set + " "
+                + MIN_MEMBERS + " " + MAX_LOCATION_DISTANCE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        workspace.dispose();
+    }
+
+    @Benchmark
+    public Object clusterByVariable() {
+        return workspace.runCompiledReporter(workspace.defaultOwner(), clusterByVariable);
+    }
+
+    @Benchmark
+    public Object clusterByLocation() {
+        return workspace.runCompiledReporter(workspace.defaultOwner(), clusterByLocation);
+    }
+
+    private static boolean wrapsX(final String topology) {
+        return "torus".equals(topology) || "horizontal-cylinder".equals(topology);
+    }
+
+    private static boolean wrapsY(final String topology) {
+        return "torus".equals(topology) || "vertical-cylinder".equals(topology);
+    }
+
+    /**
+     * Turtle command placing a turtle according to the given distribution.
+     */
+    private static String location(final String distribution) {
+        switch (distribution) {
+            case "uniform":
+                return "setxy random-xcor random-ycor";
+            case "clustered":
+                // Centres are held in the (otherwise unused) clusters global; locations are
+                // clamped to the world to remain valid for non-wrapping topologies
+                return "let c one-of clusters"
+                        + " setxy (max list min-pxcor (min list max-pxcor (item 0 c + random-normal 0 (world-width / 50))))"
+                        + " (max list min-pycor (min list max-pycor (item 1 c + random-normal 0 (world-height / 50))))";
+            case "degenerate":
+                return "setxy random-xcor 0";
+            default:
+                throw new IllegalArgumentException("Unknown distribution: " + distribution);
+        }
+    }
+
+    /**
+     * Reporter of a variable value according to the given distribution.
+     */
+    private static String value(final String distribution, final int population) {
+        final int range = Math.max(1, population / VALUE_DENSITY);
+        switch (distribution) {
+            case "uniform":
+                return "random-float " + range;
+            case "clustered":
+                return "(random " + CENTRES + " + 0.5) * " + ((double) range / CENTRES)
+                        + " + random-normal 0 " + ((double) range / CENTRES / 20);
+            case "degenerate":
+                return "random 3";
+            default:
+                throw new IllegalArgumentException("Unknown distribution: " + distribution);
+        }
+    }
+
+}
@@ -0,0 +1,117 @@
+package org.nlogo.extensions.dbscan;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.nlogo.api.Agent;
+import org.nlogo.core.ExtensionObject;
+
+/**
+ * Clustering result as reported by dbscan:last-result. Holds the cluster label of each
+ * clustered agent, so that the cluster of an agent and the size of a cluster can be looked
+ * up in constant time instead of searching the nested lists reported by the clustering
+ * reporters. The index of agents (used by cluster-of) and the agentsets of clusters (used by
+ * members) are only built when first requested.
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public final class ClusterAssignment implements ExtensionObject {
+
+    private final ClusteringResult result;
+    private final int[] labels;
+    private Map<Agent, Integer> indices = null;
+    private org.nlogo.agent.AgentSet[] members = null;
+
+    /**
+     * Instantiates assignment of the agents of the given result.
+     *
+     * @param result Clustering result (not referring to arrays that are reused, see {@link ClusteringResult#copy()})
+     */
+    public ClusterAssignment(final ClusteringResult result) {
+        this.result = result;
+        this.labels = result.labels();
+    }
+
+    /**
+     * Determines the cluster of the given agent. Border agents belonging to several
+     * clusters are assigned to the first of them.
+     *
+     * @param agent Agent
+     * @return Cluster number, {@link ClusteringResult#NOISE} for noise, or null if the agent has not been clustered
+     */
+    public synchronized Integer clusterOf(final Agent agent) {
+        if (indices == null) {
+            indices = new IdentityHashMap<>(result.size());
+            for (int i = 0; i < result.size(); i++) {
+                indices.put(result.agent(i), i);
+            }
+        }
+        final Integer index = indices.get(agent);
+        return index == null ? null : labels[index];
+    }
+
+    public int clusterCount() {
+        return result.clusters().size();
+    }
+
+    /**
+     * Determines the number of members of the given cluster.
+     *
+     * @param cluster Cluster number (0 to number of clusters - 1)
+     * @return Number of members
+     */
+    public int clusterSize(final int cluster) {
+        return result.clusters().get(cluster).length;
+    }
+
+    /**
+     * Reports the members of the given cluster as agentset (built on first request).
+     *
+     * @param cluster Cluster number (0 to number of clusters - 1)
+     * @return Agentset of members
+     */
+    public synchronized org.nlogo.agent.AgentSet members(final int cluster) {
+        if (members == null) {
+            members = new org.nlogo.agent.AgentSet[clusterCount()];
+        }
+        if (members[cluster] == null) {
+            members[cluster] = result.toAgentSet(cluster);
+        }
+        return members[cluster];
+    }
+
+    /**
+     * Indicates whether the given cluster number refers to a cluster of this assignment.
+     *
+     * @param cluster Cluster number
+     * @return true if cluster exists
+     */
+    public boolean isCluster(final double cluster) {
+        return cluster >= 0 && cluster < clusterCount() && cluster == Math.floor(cluster);
+    }
+
+    @Override
+    public String dump(final boolean readable, final boolean exporting, final boolean reference) {
+        return "result of " + result.size() + " agents (clusters: " + clusterCount() + ")";
+    }
+
+    @Override
+    public String getExtensionName() {
+        return "dbscan";
+    }
+
+    @Override
+    public String getNLTypeName() {
+        return "result";
+    }
+
+    @Override
+    public boolean recursivelyEqual(final Object o) {
+        return this == o;
+    }
+
+}
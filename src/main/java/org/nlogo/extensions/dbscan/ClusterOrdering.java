@@ -0,0 +1,80 @@
+package org.nlogo.extensions.dbscan;
+
+import java.util.List;
+
+import org.nlogo.api.Agent;
+import org.nlogo.core.ExtensionObject;
+import org.nlogo.extensions.dbscan.engine.OPTICSOrdering;
+
+/**
+ * OPTICS cluster ordering of agents by location as reported by dbscan:optics. Retains the
+ * agents and their coordinates (in snapshot order) along with the ordering, so that
+ * clusterings for different maximum distances can be extracted without accessing the
+ * agents' locations again.
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public final class ClusterOrdering implements ExtensionObject {
+
+    private final Agent[] agents;
+    private final double[] xs;
+    private final double[] ys;
+    private final OPTICSOrdering ordering;
+
+    /**
+     * Instantiates cluster ordering.
+     *
+     * @param agents Ordered agents (in snapshot order)
+     * @param xs x coordinates of agents (in snapshot order)
+     * @param ys y coordinates of agents (in snapshot order)
+     * @param ordering Ordering of snapshot indices
+     */
+    public ClusterOrdering(final Agent[] agents, final double[] xs, final double[] ys, final OPTICSOrdering ordering) {
+        this.agents = agents;
+        this.xs = xs;
+        this.ys = ys;
+        this.ordering = ordering;
+    }
+
+    /**
+     * Extracts the DBSCAN clustering for the given maximum distance.
+     *
+     * @param maxDistance Maximum distance between neighbouring agents (at most the one of the ordering)
+     * @return Clustering result
+     */
+    public ClusteringResult extract(final double maxDistance) {
+        final boolean[] core = new boolean[agents.length];
+        final List<int[]> clusters = ordering.extract(maxDistance, core);
+        return new ClusteringResult(agents, agents.length, clusters, core, xs, ys);
+    }
+
+    public double maxDistance() {
+        return ordering.maxDistance();
+    }
+
+    @Override
+    public String dump(final boolean readable, final boolean exporting, final boolean reference) {
+        return "ordering of " + agents.length + " agents (minimum number of elements: " +
+                ordering.minNumberOfElements() + ", maximum distance: " + ordering.maxDistance() + ")";
+    }
+
+    @Override
+    public String getExtensionName() {
+        return "dbscan";
+    }
+
+    @Override
+    public String getNLTypeName() {
+        return "ordering";
+    }
+
+    @Override
+    public boolean recursivelyEqual(final Object o) {
+        return this == o;
+    }
+
+}
@@ -0,0 +1,260 @@
+package org.nlogo.extensions.dbscan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.nlogo.api.Agent;
+import org.nlogo.api.LogoListBuilder;
+import org.nlogo.core.ExtensionObject;
+import org.nlogo.core.LogoList;
+import org.nlogo.extensions.dbscan.engine.IntList;
+
+/**
+ * Cluster tracker as reported by dbscan:make-tracker. Assigns persistent identifiers to the
+ * clusters of successive clusterings (e.g., one per tick) by matching each clustering to the
+ * previously tracked one based on the core agents the clusters share. The overlaps are counted
+ * in a sparse contingency table (holding only pairs of clusters sharing core agents), using a
+ * hash map from each core agent to the identifier of its previous cluster, so that tracking
+ * requires time linear in the number of clustered agents.
+ *
+ * A cluster continues the previous cluster it shares most core agents with, unless another
+ * cluster shares more core agents with that previous cluster, in which case it continues the
+ * remaining previous cluster it shares most core agents with. Border agents (which may belong
+ * to several clusters) only break ties between equal numbers of shared core agents, so that
+ * clusters sharing nothing but border agents with remaining previous clusters continue them.
+ * Other clusters receive new identifiers. Tracking reports births (new clusters sharing no core
+ * agents with previous clusters), deaths (previous clusters neither continued nor sharing core
+ * agents with current clusters), merges (clusters sharing core agents with several previous
+ * clusters) and splits (previous clusters sharing core agents with several current clusters).
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public final class ClusterTracker implements ExtensionObject {
+
+    // Identifier of the previous cluster of each core agent
+    private Map<Agent, Integer> previousCoreIds = new IdentityHashMap<>();
+    private Map<Agent, Integer> previousIds = new IdentityHashMap<>();
+    // Identifiers of further previous clusters of border agents (belonging to several clusters)
+    private Map<Agent, IntList> previousBorderIds = new IdentityHashMap<>();
+    private int[] previousClusterIds = new int[0];
+    private LogoList events = LogoList.Empty();
+    private int nextId = 0;
+    private int trackings = 0;
+
+    /**
+     * Matches the given clustering to the previously tracked one and determines the
+     * persistent identifier of each cluster.
+     *
+     * @param result Clustering result
+     * @return Identifier of each cluster (in cluster order)
+     */
+    public synchronized int[] track(final ClusteringResult result) {
+        final List<int[]> clusters = result.clusters();
+        final int count = clusters.size();
+
+        // Sparse contingency tables: number of core agents (and of all agents, counting each of their
+        // clusters) each cluster shares with previous clusters (by identifier)
+        final List<Map<Integer, Integer>> overlaps = new ArrayList<>(count);
+        final List<Map<Integer, Integer>> memberOverlaps = new ArrayList<>(count);
+        for (int[] cluster: clusters) {
+            final Map<Integer, Integer> overlap = new HashMap<>();
+            final Map<Integer, Integer> memberOverlap = new HashMap<>();
+            for (int member: cluster) {
+                final Agent agent = result.agent(member);
+                final Integer previous = previousIds.get(agent);
+                if (previous != null) {
+                    memberOverlap.merge(previous, 1, Integer::sum);
+                    final IntList border = previousBorderIds.get(agent);
+                    for (int i = 0; border != null && i < border.size(); i++) {
+                        memberOverlap.merge(border.get(i), 1, Integer::sum);
+                    }
+                    final Integer previousCore = result.isCore(member) ? previousCoreIds.get(agent) : null;
+                    if (previousCore != null) {
+                        overlap.merge(previousCore, 1, Integer::sum);
+                    }
+                }
+            }
+            overlaps.add(overlap);
+            memberOverlaps.add(memberOverlap);
+        }
+
+        // Previous cluster sharing most core agents (then most agents, then lowest identifier) with each cluster
+        final int[] best = new int[count];
+        for (int c = 0; c < count; c++) {
+            best[c] = -1;
+            for (Integer id: memberOverlaps.get(c).keySet()) {
+                if (best[c] < 0 || precedes(overlaps.get(c), memberOverlaps.get(c), id, best[c])) {
+                    best[c] = id;
+                }
+            }
+        }
+
+        // Each previous cluster is continued by the cluster sharing most agents with it among those it is best for
+        final Map<Integer, Integer> successors = new HashMap<>();
+        for (int c = 0; c < count; c++) {
+            if (best[c] >= 0) {
+                final Integer successor = successors.get(best[c]);
+                if (successor == null || shares(overlaps.get(c), memberOverlaps.get(c), best[c],
+                        overlaps.get(successor), memberOverlaps.get(successor))) {
+                    successors.put(best[c], c);
+                }
+            }
+        }
+        final int[] ids = new int[count];
+        Arrays.fill(ids, -1);
+        for (Map.Entry<Integer, Integer> successor: successors.entrySet()) {
+            ids[successor.getValue()] = successor.getKey();
+        }
+        // Other clusters continue the unclaimed previous cluster they share most agents with, if any
+        final boolean[] born = new boolean[count];
+        for (int c = 0; c < count; c++) {
+            if (ids[c] >= 0) {
+                continue;
+            }
+            for (Integer id: memberOverlaps.get(c).keySet()) {
+                if (!successors.containsKey(id)
+                        && (ids[c] < 0 || precedes(overlaps.get(c), memberOverlaps.get(c), id, ids[c]))) {
+                    ids[c] = id;
+                }
+            }
+            if (ids[c] >= 0) {
+                successors.put(ids[c], c);
+            } else {
+                ids[c] = nextId++;
+                born[c] = true;
+            }
+        }
+
+        // Clusters sharing core agents with each previous cluster
+        final Map<Integer, List<Integer>> descendants = new HashMap<>();
+        for (int c = 0; c < count; c++) {
+            for (Integer previous: overlaps.get(c).keySet()) {
+                descendants.computeIfAbsent(previous, id -> new ArrayList<>()).add(ids[c]);
+            }
+        }
+
+        LogoListBuilder trackedEvents = new LogoListBuilder();
+        for (int c = 0; c < count; c++) {
+            if (born[c] && overlaps.get(c).isEmpty()) {
+                trackedEvents.add(event("birth", ids[c], null));
+            } else if (overlaps.get(c).size() > 1) {
+                final int[] merged = overlaps.get(c).keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+                trackedEvents.add(event("merge", ids[c], merged));
+            }
+        }
+        for (int previous: previousClusterIds) {
+            final List<Integer> split = descendants.get(previous);
+            if (split == null) {
+                if (!successors.containsKey(previous)) {
+                    trackedEvents.add(event("death", previous, null));
+                }
+            } else if (split.size() > 1) {
+                trackedEvents.add(event("split", previous, split.stream().mapToInt(Integer::intValue).toArray()));
+            }
+        }
+
+        // Retain identifiers of each agent's clusters for the next tracking
+        final Map<Agent, Integer> currentCoreIds = new IdentityHashMap<>(result.size());
+        final Map<Agent, Integer> currentIds = new IdentityHashMap<>(result.size());
+        final Map<Agent, IntList> currentBorderIds = new IdentityHashMap<>();
+        for (int c = 0; c < count; c++) {
+            for (int member: clusters.get(c)) {
+                final Agent agent = result.agent(member);
+                if (currentIds.putIfAbsent(agent, ids[c]) != null) {
+                    currentBorderIds.computeIfAbsent(agent, border -> new IntList(2)).add(ids[c]);
+                } else if (result.isCore(member)) {
+                    currentCoreIds.put(agent, ids[c]);
+                }
+            }
+        }
+        previousCoreIds = currentCoreIds;
+        previousIds = currentIds;
+        previousBorderIds = currentBorderIds;
+        previousClusterIds = Arrays.copyOf(ids, count);
+        events = trackedEvents.toLogoList();
+        trackings++;
+        return ids;
+    }
+
+    /**
+     * Indicates whether a cluster shares more core agents (or as many core agents, but more agents)
+     * with the given previous cluster than with the other one, or as many and the given previous
+     * cluster has the lower identifier.
+     */
+    private static boolean precedes(final Map<Integer, Integer> overlap, final Map<Integer, Integer> memberOverlap,
+            final int id, final int otherId) {
+        final int core = overlap.getOrDefault(id, 0);
+        final int otherCore = overlap.getOrDefault(otherId, 0);
+        if (core != otherCore) {
+            return core > otherCore;
+        }
+        final int members = memberOverlap.getOrDefault(id, 0);
+        final int otherMembers = memberOverlap.getOrDefault(otherId, 0);
+        return members != otherMembers ? members > otherMembers : id < otherId;
+    }
+
+    /**
+     * Indicates whether a cluster shares more core agents (or as many core agents, but more agents)
+     * with the given previous cluster than another cluster does.
+     */
+    private static boolean shares(final Map<Integer, Integer> overlap, final Map<Integer, Integer> memberOverlap,
+            final int id, final Map<Integer, Integer> otherOverlap, final Map<Integer, Integer> otherMemberOverlap) {
+        final int core = overlap.getOrDefault(id, 0);
+        final int otherCore = otherOverlap.getOrDefault(id, 0);
+        return core != otherCore ? core > otherCore
+                : memberOverlap.getOrDefault(id, 0) > otherMemberOverlap.getOrDefault(id, 0);
+    }
+
+    private static LogoList event(final String type, final int id, final int[] related) {
+        LogoListBuilder event = new LogoListBuilder();
+        event.add(type);
+        event.add(Double.valueOf(id));
+        if (related != null) {
+            LogoListBuilder relatedIds = new LogoListBuilder();
+            for (int relatedId: related) {
+                relatedIds.add(Double.valueOf(relatedId));
+            }
+            event.add(relatedIds.toLogoList());
+        }
+        return event.toLogoList();
+    }
+
+    /**
+     * Reports the events of the most recent tracking as list of lists: [&quot;birth&quot; id],
+     * [&quot;death&quot; id], [&quot;merge&quot; id [previous ids]] and [&quot;split&quot; previous-id [ids]].
+     *
+     * @return List of events
+     */
+    public synchronized LogoList events() {
+        return events;
+    }
+
+    @Override
+    public String dump(final boolean readable, final boolean exporting, final boolean reference) {
+        return "tracker (trackings: " + trackings + ", clusters: " + previousClusterIds.length + ")";
+    }
+
+    @Override
+    public String getExtensionName() {
+        return "dbscan";
+    }
+
+    @Override
+    public String getNLTypeName() {
+        return "tracker";
+    }
+
+    @Override
+    public boolean recursivelyEqual(final Object o) {
+        return this == o;
+    }
+
+}
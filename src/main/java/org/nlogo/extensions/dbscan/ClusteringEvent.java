@@ -0,0 +1,106 @@
+package org.nlogo.extensions.dbscan;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event describing a single clustering operation (see {@link ClusteringStats}). Recorded
+ * if a flight recording is running with the event enabled, e.g., when starting NetLogo with
+ * -XX:StartFlightRecording.
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+@Name("org.nlogo.extensions.dbscan.Clustering")
+@Label("DBSCAN Clustering")
+@Category({"NetLogo", "DBSCAN"})
+@Description("Clustering operation of the NetLogo DBSCAN extension")
+final class ClusteringEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Agents")
+    int agents;
+
+    @Label("Snapshot")
+    @Timespan
+    long snapshotNanos;
+
+    @Label("Index")
+    @Timespan
+    long indexNanos;
+
+    @Label("Clustering")
+    @Timespan
+    long clusteringNanos;
+
+    @Label("Region Queries")
+    @Description("Time spent in neighbourhood lookups (summed across threads, -1 unless profiling)")
+    @Timespan
+    long regionQueryNanos;
+
+    @Label("Conversion")
+    @Timespan
+    long conversionNanos;
+
+    @Label("Region Query Count")
+    long regionQueries;
+
+    @Label("Distance Evaluations")
+    long distanceEvaluations;
+
+    @Label("Core Points")
+    int corePoints;
+
+    @Label("Clusters")
+    int clusters;
+
+    /**
+     * Begins an event if the event is enabled (i.e., recorded).
+     *
+     * @return Event, or null if disabled
+     */
+    static Object start() {
+        final ClusteringEvent event = new ClusteringEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the given event and commits it with the given statistics (if it passes the recording's thresholds).
+     *
+     * @param begun Event returned by {@link #start()}
+     * @param stats Completed statistics
+     */
+    static void complete(final Object begun, final ClusteringStats stats) {
+        final ClusteringEvent event = (ClusteringEvent) begun;
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.operation = stats.operation();
+        event.agents = stats.agents();
+        event.snapshotNanos = stats.snapshotNanos();
+        event.indexNanos = stats.indexNanos();
+        event.clusteringNanos = stats.clusteringNanos();
+        event.regionQueryNanos = stats.regionQueryNanos();
+        event.conversionNanos = stats.conversionNanos();
+        event.regionQueries = stats.regionQueries();
+        event.distanceEvaluations = stats.distanceEvaluations();
+        event.corePoints = stats.corePoints();
+        event.clusters = stats.clusters();
+        event.commit();
+    }
+
+}
@@ -0,0 +1,386 @@
+package org.nlogo.extensions.dbscan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.nlogo.api.Agent;
+import org.nlogo.api.AgentException;
+import org.nlogo.api.AgentSet;
+import org.nlogo.api.ExtensionException;
+import org.nlogo.api.Link;
+import org.nlogo.api.LogoException;
+import org.nlogo.api.LogoListBuilder;
+import org.nlogo.api.Patch;
+import org.nlogo.core.AgentKind;
+import org.nlogo.core.AgentKindJ;
+import org.nlogo.core.LogoList;
+import org.nlogo.core.Program;
+
+/**
+ * Result of a clustering operation: the clustered agents (in snapshot order), the
+ * clusters, each holding the snapshot indices of its members, the core point flags
+ * determined by the same clustering run and, for clusterings by location, the agents'
+ * coordinates in the snapshot. Clusters are numbered in the order they are
+ * reported (starting at 0), which is the order of the nested list returned by the
+ * clustering reporters.
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public final class ClusteringResult {
+
+    /**
+     * Label of agents not belonging to any cluster.
+     */
+    public static final int NOISE = -1;
+
+    private final Agent[] agents;
+    private final int size;
+    private final List<int[]> clusters;
+    private final boolean[] core;
+    private final double[] xs;
+    private final double[] ys;
+
+    /**
+     * Instantiates result.
+     *
+     * @param agents Clustered agents (in snapshot order)
+     * @param clusters Clusters holding snapshot indices of members
+     * @param core Core point flags (in snapshot order)
+     */
+    public ClusteringResult(final Agent[] agents, final List<int[]> clusters, final boolean[] core) {
+        this(agents, agents.length, clusters, core);
+    }
+
+    /**
+     * Instantiates result for the first agents of the given (possibly larger, reused) arrays.
+     *
+     * @param agents Clustered agents (in snapshot order)
+     * @param size Number of clustered agents (entries of agents and core arrays)
+     * @param clusters Clusters holding snapshot indices of members
+     * @param core Core point flags (in snapshot order)
+     */
+    public ClusteringResult(final Agent[] agents, final int size, final List<int[]> clusters, final boolean[] core) {
+        this(agents, size, clusters, core, null, null);
+    }
+
+    /**
+     * Instantiates result of a clustering by location, retaining the coordinates the agents
+     * have been clustered by (e.g., for cluster summaries).
+     *
+     * @param agents Clustered agents (in snapshot order)
+     * @param size Number of clustered agents (entries of agents, core and coordinate arrays)
+     * @param clusters Clusters holding snapshot indices of members
+     * @param core Core point flags (in snapshot order)
+     * @param xs x coordinates of agents (in snapshot order)
+     * @param ys y coordinates of agents (in snapshot order)
+     */
+    public ClusteringResult(final Agent[] agents, final int size, final List<int[]> clusters, final boolean[] core,
+            final double[] xs, final double[] ys) {
+        this.agents = agents;
+        this.size = size;
+        this.clusters = clusters;
+        this.core = core;
+        this.xs = xs;
+        this.ys = ys;
+    }
+
+    /**
+     * Combines the results of separately clustered groups of agents into one result holding
+     * the agents and clusters of all groups (in group order), and their coordinates if all
+     * results hold coordinates.
+     *
+     * @param results Results of groups
+     * @return Combined result
+     */
+    public static ClusteringResult combine(final List<ClusteringResult> results) {
+        int size = 0;
+        boolean locations = true;
+        for (ClusteringResult result: results) {
+            size += result.size;
+            locations &= result.hasLocations();
+        }
+        final Agent[] agents = new Agent[size];
+        final boolean[] core = new boolean[size];
+        final double[] xs = locations ? new double[size] : null;
+        final double[] ys = locations ? new double[size] : null;
+        final List<int[]> clusters = new ArrayList<>();
+        int offset = 0;
+        for (ClusteringResult result: results) {
+            System.arraycopy(result.agents, 0, agents, offset, result.size);
+            System.arraycopy(result.core, 0, core, offset, result.size);
+            if (locations) {
+                System.arraycopy(result.xs, 0, xs, offset, result.size);
+                System.arraycopy(result.ys, 0, ys, offset, result.size);
+            }
+            for (int[] cluster: result.clusters) {
+                final int[] shifted = new int[cluster.length];
+                for (int i = 0; i < cluster.length; i++) {
+                    shifted[i] = cluster[i] + offset;
+                }
+                clusters.add(shifted);
+            }
+            offset += result.size;
+        }
+        return new ClusteringResult(agents, size, clusters, core, xs, ys);
+    }
+
+    /**
+     * Converts clusters to nested list of agents.
+     *
+     * @return List of clusters, each a list of agents
+     */
+    public LogoList toLogoList() {
+        LogoListBuilder list = new LogoListBuilder();
+        for (int[] cluster: clusters) {
+            LogoListBuilder internalBuilder = new LogoListBuilder();
+            for (int member: cluster) {
+                internalBuilder.add(agents[member]);
+            }
+            list.add(internalBuilder.toLogoList());
+        }
+        return list.toLogoList();
+    }
+
+    /**
+     * Converts clusters to a list of agentsets, which are built directly from the members'
+     * indices (in snapshot order).
+     *
+     * @return List of clusters, each an agentset
+     */
+    public LogoList toAgentSets() {
+        LogoListBuilder list = new LogoListBuilder();
+        for (int c = 0; c < clusters.size(); c++) {
+            list.add(toAgentSet(c));
+        }
+        return list.toLogoList();
+    }
+
+    /**
+     * Converts the given cluster to an agentset. The kind of agentset is determined by the
+     * cluster's members, as combined results (see {@link #combine(List)}) may hold clusters of
+     * different kinds (e.g., of turtles and of patches).
+     *
+     * @param cluster Cluster number
+     * @return Agentset of cluster members
+     */
+    public org.nlogo.agent.AgentSet toAgentSet(final int cluster) {
+        final int[] indices = clusters.get(cluster);
+        final Agent first = agents[indices[0]];
+        final AgentKind kind = first instanceof org.nlogo.api.Turtle ? AgentKindJ.Turtle()
+                : first instanceof Patch ? AgentKindJ.Patch() : AgentKindJ.Link();
+        final org.nlogo.agent.Agent[] members = new org.nlogo.agent.Agent[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            members[i] = (org.nlogo.agent.Agent) agents[indices[i]];
+        }
+        return org.nlogo.agent.AgentSet.fromArray(kind, members);
+    }
+
+    /**
+     * Copies the result, so that it remains valid if the arrays it refers to are reused
+     * (see {@link ClusteringSession}).
+     *
+     * @return Copy of result
+     */
+    public ClusteringResult copy() {
+        return new ClusteringResult(Arrays.copyOf(agents, size), size, clusters, Arrays.copyOf(core, size),
+                hasLocations() ? Arrays.copyOf(xs, size) : null, hasLocations() ? Arrays.copyOf(ys, size) : null);
+    }
+
+    /**
+     * Converts agents not belonging to any cluster (noise) to a list.
+     *
+     * @return List of agents (in snapshot order)
+     */
+    public LogoList noiseToLogoList() {
+        final int[] labels = labels();
+        LogoListBuilder list = new LogoListBuilder();
+        for (int i = 0; i < size; i++) {
+            if (labels[i] == NOISE) {
+                list.add(agents[i]);
+            }
+        }
+        return list.toLogoList();
+    }
+
+    /**
+     * Converts the core points of each cluster to a nested list.
+     *
+     * @return List of clusters, each a list of its core agents
+     */
+    public LogoList corePointsToLogoList() {
+        LogoListBuilder list = new LogoListBuilder();
+        for (int[] cluster: clusters) {
+            LogoListBuilder internalBuilder = new LogoListBuilder();
+            for (int member: cluster) {
+                if (core[member]) {
+                    internalBuilder.add(agents[member]);
+                }
+            }
+            list.add(internalBuilder.toLogoList());
+        }
+        return list.toLogoList();
+    }
+
+    /**
+     * Converts the number of core points of each cluster to a list.
+     *
+     * @return List of core point counts (in cluster order)
+     */
+    public LogoList coreCountsToLogoList() {
+        LogoListBuilder list = new LogoListBuilder();
+        for (int[] cluster: clusters) {
+            int count = 0;
+            for (int member: cluster) {
+                if (core[member]) {
+                    count++;
+                }
+            }
+            list.add(Double.valueOf(count));
+        }
+        return list.toLogoList();
+    }
+
+    /**
+     * Determines the cluster label of each agent. Border agents belonging to several
+     * clusters are labelled with the first of them.
+     *
+     * @return Cluster number per agent (in snapshot order), {@link #NOISE} for agents not belonging to any cluster
+     */
+    public int[] labels() {
+        final int[] labels = new int[size];
+        Arrays.fill(labels, NOISE);
+        for (int c = clusters.size() - 1; c >= 0; c--) {
+            for (int member: clusters.get(c)) {
+                labels[member] = c;
+            }
+        }
+        return labels;
+    }
+
+    /**
+     * Writes the cluster label of each agent (see {@link #labels()}) into the given variable.
+     *
+     * @param field Upper-case name of turtle/link/breed or patch variable
+     * @param program Program of the model (used to resolve variable indices)
+     * @throws ExtensionException if variable does not exist or cannot be set
+     * @throws LogoException if variable cannot be set
+     */
+    public void writeLabels(final String field, final Program program) throws ExtensionException, LogoException {
+        final int[] labels = labels();
+        // Numbers are shared across agents with the same label
+        final Double[] values = new Double[clusters.size() + 1];
+        for (int c = NOISE; c < clusters.size(); c++) {
+            values[c + 1] = Double.valueOf(c);
+        }
+        final boolean patches = size > 0 && agents[0] instanceof Patch;
+        final int patchFieldIndex = patches ? program.patchesOwn().toList().indexOf(field) : -1;
+        if (patches && patchFieldIndex < 0) {
+            throw new ExtensionException(DBSCANExtensionErrors.errorVariableCouldNotBeFound(field));
+        }
+        // Variable index per breed; agentsets usually contain a single breed, hence the last resolved one is cached
+        Map<AgentSet, Integer> breedFieldIndices = new IdentityHashMap<>();
+        AgentSet lastBreed = null;
+        int lastFieldIndex = -1;
+        for (int i = 0; i < size; i++) {
+            org.nlogo.agent.Agent agent = (org.nlogo.agent.Agent) agents[i];
+            try {
+                if (patchFieldIndex >= 0) {
+                    agent.setPatchVariable(patchFieldIndex, values[labels[i] + 1]);
+                } else {
+                    AgentSet breed = VariableSnapshot.breedOf(agent);
+                    if (breed != lastBreed || lastFieldIndex < 0) {
+                        Integer fieldIndex = breedFieldIndices.get(breed);
+                        if (fieldIndex == null) {
+                            fieldIndex = VariableSnapshot.resolveFieldIndex(program, breed, agent instanceof Link, field);
+                            breedFieldIndices.put(breed, fieldIndex);
+                        }
+                        lastBreed = breed;
+                        lastFieldIndex = fieldIndex;
+                    }
+                    agent.setVariable(lastFieldIndex, values[labels[i] + 1]);
+                }
+            } catch (AgentException e) {
+                throw new ExtensionException(e.getClass().getName() +
+                        " when setting variable " + field + " of " + agent + ". Message: " + e.getMessage());
+            }
+        }
+    }
+
+    public List<int[]> clusters() {
+        return clusters;
+    }
+
+    /**
+     * Returns the agent at the given index.
+     *
+     * @param index Index of agent in snapshot
+     * @return Agent
+     */
+    public Agent agent(final int index) {
+        return agents[index];
+    }
+
+    /**
+     * Indicates whether the agent at the given index is a core point.
+     *
+     * @param index Index of agent in snapshot
+     * @return true if agent is a core point
+     */
+    public boolean isCore(final int index) {
+        return core[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Indicates whether the result holds the coordinates the agents have been clustered by.
+     *
+     * @return true for results of clusterings by location
+     */
+    public boolean hasLocations() {
+        return xs != null;
+    }
+
+    /**
+     * Returns the x coordinates of the agents at the time of clustering (see {@link #hasLocations()}).
+     *
+     * @return x coordinates (in snapshot order)
+     */
+    public double[] xs() {
+        return xs;
+    }
+
+    /**
+     * Returns the y coordinates of the agents at the time of clustering (see {@link #hasLocations()}).
+     *
+     * @return y coordinates (in snapshot order)
+     */
+    public double[] ys() {
+        return ys;
+    }
+
+    /**
+     * Determines the number of core points.
+     *
+     * @return Number of agents that are core points
+     */
+    public int coreCount() {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (core[i]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+}
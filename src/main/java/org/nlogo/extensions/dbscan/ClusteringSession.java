@@ -0,0 +1,137 @@
+package org.nlogo.extensions.dbscan;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.nlogo.api.Agent;
+import org.nlogo.api.AgentSet;
+import org.nlogo.api.ExtensionException;
+import org.nlogo.core.ExtensionObject;
+import org.nlogo.extensions.dbscan.engine.DBSCANEngine;
+import org.nlogo.extensions.dbscan.engine.InstrumentedRegionQuery;
+import org.nlogo.extensions.dbscan.engine.LocationRegionQuery;
+import org.nlogo.extensions.dbscan.engine.WorldTopology;
+
+/**
+ * Clustering session as reported by dbscan:make-session. Clusters agents by location with
+ * fixed parameters while retaining the agent and coordinate arrays, the grid index, the
+ * region query and the working arrays of the clustering between calls. Arrays are only
+ * reallocated if the number of clustered agents exceeds their size, so that clustering a
+ * population of stable size (e.g., every tick) mainly allocates the reported clusters.
+ *
+ * Results of a session refer to its arrays and are hence only valid until the session's
+ * next clustering.
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public final class ClusteringSession implements ExtensionObject {
+
+    private final int minNumberOfElements;
+    private final double maxDistance;
+    private final LocationRegionQuery query = new LocationRegionQuery();
+    private InstrumentedRegionQuery instrumented = null;
+    private final DBSCANEngine engine = new DBSCANEngine();
+    private Agent[] agents = new Agent[0];
+    private double[] xs = new double[0];
+    private double[] ys = new double[0];
+    private boolean[] core = new boolean[0];
+    private int clusterings = 0;
+
+    /**
+     * Instantiates session.
+     *
+     * @param minNumberOfElements Minimum number of points in a neighbourhood to constitute a core point
+     * @param maxDistance Maximum distance between neighbouring agents
+     */
+    public ClusteringSession(final int minNumberOfElements, final double maxDistance) {
+        this.minNumberOfElements = minNumberOfElements;
+        this.maxDistance = maxDistance;
+    }
+
+    /**
+     * Clusters the agents of the given agentset by location (see dbscan:cluster-by-location).
+     *
+     * @param inputValues Agentset (turtles or patches); must not be empty
+     * @param topology World topology
+     * @param strictMath Indicates whether distances are to be compared using StrictMath
+     * @param stats Statistics receiving the timings and counters of the clustering
+     * @return Clustering result (valid until the next clustering of this session)
+     * @throws ExtensionException if the agentset contains null values
+     */
+    public ClusteringResult cluster(final AgentSet inputValues, final WorldTopology topology,
+            final boolean strictMath, final ClusteringStats stats) throws ExtensionException {
+
+        // Read agent coordinates into retained arrays (grown if population has grown)
+        final int capacity = inputValues.count();
+        if (agents.length < capacity) {
+            final int length = Math.max(capacity, agents.length + (agents.length >> 1));
+            agents = new Agent[length];
+            xs = new double[length];
+            ys = new double[length];
+            core = new boolean[length];
+        }
+        int size = 0;
+        for (Agent agent: inputValues.agents()) {
+            if (agent == null) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_NULL_INPUT_DATA);
+            }
+            agents[size] = agent;
+            LocationSnapshot.readLocation(agent, size, xs, ys);
+            size++;
+        }
+        if (size == 0) {
+            throw new ExtensionException(DBSCANExtensionErrors.ERROR_NULL_INPUT_DATA);
+        }
+        // Release agents of previous (larger) populations
+        Arrays.fill(agents, size, agents.length, null);
+        Arrays.fill(core, 0, size, false);
+        stats.snapshotTaken();
+
+        query.update(xs, ys, size, maxDistance, topology, strictMath);
+        stats.indexBuilt();
+        if (instrumented == null || instrumented.isTimed() != stats.isProfiling()) {
+            instrumented = new InstrumentedRegionQuery(query, stats.isProfiling());
+        } else {
+            instrumented.reset();
+        }
+        final List<int[]> clusters = engine.run(instrumented, minNumberOfElements, core);
+        stats.clustered();
+        stats.query(instrumented);
+        clusterings++;
+        return new ClusteringResult(agents, size, clusters, core, xs, ys);
+    }
+
+    public int minNumberOfElements() {
+        return minNumberOfElements;
+    }
+
+    public double maxDistance() {
+        return maxDistance;
+    }
+
+    @Override
+    public String dump(final boolean readable, final boolean exporting, final boolean reference) {
+        return "session (minimum number of elements: " + minNumberOfElements + ", maximum distance: " +
+                maxDistance + ", clusterings: " + clusterings + ")";
+    }
+
+    @Override
+    public String getExtensionName() {
+        return "dbscan";
+    }
+
+    @Override
+    public String getNLTypeName() {
+        return "session";
+    }
+
+    @Override
+    public boolean recursivelyEqual(final Object o) {
+        return this == o;
+    }
+
+}
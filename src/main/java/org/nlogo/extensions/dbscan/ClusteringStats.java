@@ -0,0 +1,217 @@
+package org.nlogo.extensions.dbscan;
+
+import org.nlogo.api.LogoListBuilder;
+import org.nlogo.core.LogoList;
+import org.nlogo.extensions.dbscan.engine.InstrumentedRegionQuery;
+
+/**
+ * Timings and counters of a single clustering operation as reported by dbscan:last-stats.
+ * Phases are timed by marking their ends in sequence (snapshot, index, clustering, conversion),
+ * so that a phase an operation does not have separately (e.g., building an index) takes no
+ * time. Counters that an operation does not collect (e.g., region queries of sort-based
+ * clustering) are -1. Completed statistics are also committed as JFR event (see
+ * {@link ClusteringEvent}), which is recorded if a flight recording with the event enabled
+ * is running.
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public final class ClusteringStats {
+
+    private static final double NANOS_PER_MILLISECOND = 1e6;
+
+    // JFR is not available in all runtimes (module jdk.jfr); events are disabled on first failure
+    private static volatile boolean eventsAvailable = true;
+
+    private final String operation;
+    private final boolean profiling;
+    // Typed as Object so that this class does not depend on JFR being available
+    private final Object event;
+    private long mark;
+    private long snapshotNanos = 0;
+    private long indexNanos = 0;
+    private long clusteringNanos = 0;
+    private long conversionNanos = 0;
+    private long regionQueryNanos = -1;
+    private long regionQueries = -1;
+    private long distanceEvaluations = -1;
+    private int agents = 0;
+    private int corePoints = 0;
+    private int clusters = 0;
+
+    /**
+     * Starts timing a clustering operation.
+     *
+     * @param operation Name of the primitive performing the operation
+     * @param profiling Indicates whether neighbourhood lookups are timed (see {@link #query(InstrumentedRegionQuery)})
+     */
+    public ClusteringStats(final String operation, final boolean profiling) {
+        this.operation = operation;
+        this.profiling = profiling;
+        this.event = beginEvent();
+        this.mark = System.nanoTime();
+    }
+
+    private static Object beginEvent() {
+        if (!eventsAvailable) {
+            return null;
+        }
+        try {
+            return ClusteringEvent.start();
+        } catch (LinkageError e) {
+            eventsAvailable = false;
+            return null;
+        }
+    }
+
+    private long lap() {
+        final long now = System.nanoTime();
+        final long nanos = now - mark;
+        mark = now;
+        return nanos;
+    }
+
+    /**
+     * Marks the end of reading agent data.
+     */
+    public void snapshotTaken() {
+        snapshotNanos += lap();
+    }
+
+    /**
+     * Marks the end of building the neighbourhood index.
+     */
+    public void indexBuilt() {
+        indexNanos += lap();
+    }
+
+    /**
+     * Marks the end of clustering (neighbourhood lookups and cluster expansion).
+     */
+    public void clustered() {
+        clusteringNanos += lap();
+    }
+
+    /**
+     * Adds the counters (and timings if profiling) of the given region query (e.g., of
+     * several groups clustered separately).
+     *
+     * @param query Region query used for clustering
+     */
+    public void query(final InstrumentedRegionQuery query) {
+        regionQueries = Math.max(regionQueries, 0) + query.lookups();
+        distanceEvaluations = Math.max(distanceEvaluations, 0) + Math.max(query.distanceEvaluations(), 0);
+        if (query.nanos() >= 0) {
+            regionQueryNanos = Math.max(regionQueryNanos, 0) + query.nanos();
+        }
+    }
+
+    /**
+     * Marks the end of converting the result (e.g., to lists or labels) and completes the statistics.
+     *
+     * @param result Result of the clustering operation
+     * @return This (completed) statistics
+     */
+    public ClusteringStats completed(final ClusteringResult result) {
+        conversionNanos += lap();
+        agents = result.size();
+        clusters = result.clusters().size();
+        corePoints = result.coreCount();
+        if (event != null) {
+            ClusteringEvent.complete(event, this);
+        }
+        return this;
+    }
+
+    public String operation() {
+        return operation;
+    }
+
+    public boolean isProfiling() {
+        return profiling;
+    }
+
+    public int agents() {
+        return agents;
+    }
+
+    public long snapshotNanos() {
+        return snapshotNanos;
+    }
+
+    public long indexNanos() {
+        return indexNanos;
+    }
+
+    public long clusteringNanos() {
+        return clusteringNanos;
+    }
+
+    /**
+     * Returns the time spent in neighbourhood lookups (summed across threads for parallel clustering).
+     *
+     * @return Time in nanoseconds, or -1 if not profiling or not applicable
+     */
+    public long regionQueryNanos() {
+        return regionQueryNanos;
+    }
+
+    public long conversionNanos() {
+        return conversionNanos;
+    }
+
+    public long regionQueries() {
+        return regionQueries;
+    }
+
+    public long distanceEvaluations() {
+        return distanceEvaluations;
+    }
+
+    public int corePoints() {
+        return corePoints;
+    }
+
+    public int clusters() {
+        return clusters;
+    }
+
+    /**
+     * Converts the statistics to a list of name-value pairs (e.g., for table:from-list).
+     * Times are reported in milliseconds.
+     *
+     * @return List of pairs
+     */
+    public LogoList toLogoList() {
+        final long expansionNanos = regionQueryNanos < 0 ? -1 : Math.max(0, clusteringNanos - regionQueryNanos);
+        LogoListBuilder list = new LogoListBuilder();
+        list.add(pair("operation", operation));
+        list.add(pair("agents", Double.valueOf(agents)));
+        list.add(pair("snapshot-ms", millis(snapshotNanos)));
+        list.add(pair("index-ms", millis(indexNanos)));
+        list.add(pair("clustering-ms", millis(clusteringNanos)));
+        list.add(pair("region-query-ms", millis(regionQueryNanos)));
+        list.add(pair("expansion-ms", millis(expansionNanos)));
+        list.add(pair("conversion-ms", millis(conversionNanos)));
+        list.add(pair("region-queries", Double.valueOf(regionQueries)));
+        list.add(pair("distance-evaluations", Double.valueOf(distanceEvaluations)));
+        list.add(pair("core-points", Double.valueOf(corePoints)));
+        list.add(pair("clusters", Double.valueOf(clusters)));
+        return list.toLogoList();
+    }
+
+    private static Double millis(final long nanos) {
+        return Double.valueOf(nanos < 0 ? -1 : nanos / NANOS_PER_MILLISECOND);
+    }
+
+    private static LogoList pair(final String name, final Object value) {
+        LogoListBuilder pair = new LogoListBuilder();
+        pair.add(name);
+        pair.add(value);
+        return pair.toLogoList();
+    }
+
+}
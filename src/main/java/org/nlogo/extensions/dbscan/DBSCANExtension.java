@@ -1,32 +1,45 @@
 package org.nlogo.extensions.dbscan;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
-import org.christopherfrantz.dbscan.DBSCANClusterer;
-import org.christopherfrantz.dbscan.DBSCANClusteringException;
-import org.nlogo.agent.Agent;
 import org.nlogo.agent.Patch;
+import org.nlogo.api.Agent;
 import org.nlogo.api.AgentSet;
 import org.nlogo.api.Argument;
+import org.nlogo.api.Command;
 import org.nlogo.api.Context;
 import org.nlogo.api.DefaultClassManager;
 import org.nlogo.api.ExtensionException;
+import org.nlogo.api.ExtensionManager;
+import org.nlogo.api.Link;
 import org.nlogo.api.LogoException;
 import org.nlogo.api.LogoListBuilder;
 import org.nlogo.api.PrimitiveManager;
 import org.nlogo.api.Reporter;
+import org.nlogo.core.LogoList;
 import org.nlogo.core.Syntax;
 import org.nlogo.core.SyntaxJ;
 import org.nlogo.core.WorldDimensions;
-import org.nlogo.extensions.dbscan.metrics.DistanceMetricNetLogoAgentVariable;
-import org.nlogo.extensions.dbscan.metrics.DistanceMetricNetLogoPatchLocation;
-import org.nlogo.extensions.dbscan.metrics.DistanceMetricNetLogoPatchVariable;
-import org.nlogo.extensions.dbscan.metrics.DistanceMetricNetLogoAgentLocationBox;
-import org.nlogo.extensions.dbscan.metrics.DistanceMetricNetLogoAgentLocationHorizontalCylinder;
-import org.nlogo.extensions.dbscan.metrics.DistanceMetricNetLogoAgentLocationTorus;
-import org.nlogo.extensions.dbscan.metrics.DistanceMetricNetLogoAgentLocationVerticalCylinder;
+import org.nlogo.extensions.dbscan.engine.ClusterSummaries;
+import org.nlogo.extensions.dbscan.engine.DBSCANEngine;
+import org.nlogo.extensions.dbscan.engine.HierarchicalLocationDBSCAN;
+import org.nlogo.extensions.dbscan.engine.IncrementalLocationDBSCAN;
+import org.nlogo.extensions.dbscan.engine.InstrumentedRegionQuery;
+import org.nlogo.extensions.dbscan.engine.KDistances;
+import org.nlogo.extensions.dbscan.engine.LocationRegionQuery;
+import org.nlogo.extensions.dbscan.engine.NetworkRegionQuery;
+import org.nlogo.extensions.dbscan.engine.OPTICSOrdering;
+import org.nlogo.extensions.dbscan.engine.ParallelDBSCAN;
+import org.nlogo.extensions.dbscan.engine.PatchLatticeDBSCAN;
+import org.nlogo.extensions.dbscan.engine.SortedValueDBSCAN;
+import org.nlogo.extensions.dbscan.engine.VectorMetric;
+import org.nlogo.extensions.dbscan.engine.VectorRegionQuery;
+import org.nlogo.extensions.dbscan.engine.WorldTopology;
 
 /**
  * NetLogo extension for clustering based on DBSCAN by agent/patch variables or coordinates.
@@ -39,10 +52,157 @@ import org.nlogo.extensions.dbscan.metrics.DistanceMetricNetLogoAgentLocationVer
  */
 public class DBSCANExtension extends DefaultClassManager {
 
+    private final DBSCANExtensionState state = new DBSCANExtensionState();
+
     @Override
     public void load(PrimitiveManager primitiveManager) throws ExtensionException {
-        primitiveManager.addPrimitive("cluster-by-variable", new DbscanNetLogoVariableClusterer());
-        primitiveManager.addPrimitive("cluster-by-location", new DbscanNetLogoCoordinateClusterer());
+        primitiveManager.addPrimitive("cluster-by-variable", new DbscanNetLogoVariableClusterer(state));
+        primitiveManager.addPrimitive("cluster-by-location", new DbscanNetLogoCoordinateClusterer(state));
+        primitiveManager.addPrimitive("cluster-by-variable-as-agentsets", new DbscanNetLogoVariableClusterer(state, true));
+        primitiveManager.addPrimitive("cluster-by-location-as-agentsets", new DbscanNetLogoCoordinateClusterer(state, true));
+        primitiveManager.addPrimitive("cluster-by-network", new DbscanNetworkClusterer(state));
+        primitiveManager.addPrimitive("cluster-by-variables", new DbscanNetLogoVectorClusterer(state));
+        primitiveManager.addPrimitive("cluster-hierarchical", new DbscanHierarchicalCoordinateClusterer(state));
+        primitiveManager.addPrimitive("cluster-groups-by-location", new DbscanGroupedCoordinateClusterer(state));
+        primitiveManager.addPrimitive("label-by-variable", new DbscanNetLogoVariableLabeller(state));
+        primitiveManager.addPrimitive("label-by-location", new DbscanNetLogoCoordinateLabeller(state));
+        primitiveManager.addPrimitive("optics", new DbscanOpticsOrdering());
+        primitiveManager.addPrimitive("extract-clusters", new DbscanExtractClusters(state));
+        primitiveManager.addPrimitive("k-distances", new DbscanKDistances(false));
+        primitiveManager.addPrimitive("suggest-eps", new DbscanKDistances(true));
+        primitiveManager.addPrimitive("make-session", new DbscanMakeSession());
+        primitiveManager.addPrimitive("cluster", new DbscanSessionClusterer(state));
+        primitiveManager.addPrimitive("make-tracker", new DbscanMakeTracker());
+        primitiveManager.addPrimitive("track", new DbscanTrack(state));
+        primitiveManager.addPrimitive("tracker-events", new DbscanTrackerEvents());
+        primitiveManager.addPrimitive("last-noise", new DbscanLastNoise(state));
+        primitiveManager.addPrimitive("last-core-points", new DbscanLastCorePoints(state));
+        primitiveManager.addPrimitive("last-core-counts", new DbscanLastCoreCounts(state));
+        primitiveManager.addPrimitive("last-stats", new DbscanLastStats(state));
+        primitiveManager.addPrimitive("cluster-summaries", new DbscanClusterSummaries(state));
+        primitiveManager.addPrimitive("last-result", new DbscanLastResult(state));
+        primitiveManager.addPrimitive("cluster-of", new DbscanClusterOf());
+        primitiveManager.addPrimitive("cluster-size", new DbscanClusterSize());
+        primitiveManager.addPrimitive("members", new DbscanMembers());
+        primitiveManager.addPrimitive("cluster-count", new DbscanClusterCount());
+        primitiveManager.addPrimitive("set-parallelism", new DbscanSetParallelism(state));
+        primitiveManager.addPrimitive("set-incremental", new DbscanSetIncremental(state));
+        primitiveManager.addPrimitive("set-strict-math", new DbscanSetStrictMath(state));
+        primitiveManager.addPrimitive("set-profiling", new DbscanSetProfiling(state));
+    }
+
+    @Override
+    public void clearAll() {
+        state.clear();
+    }
+
+    @Override
+    public void unload(ExtensionManager em) throws ExtensionException {
+        state.shutdown();
+    }
+
+    /**
+     * Sets the number of threads used for clustering (1 performs clustering sequentially).
+     * 
+     * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+     */
+    public static class DbscanSetParallelism implements Command {
+
+        private final DBSCANExtensionState state;
+
+        public DbscanSetParallelism(final DBSCANExtensionState state) {
+            this.state = state;
+        }
+
+        @Override
+        public Syntax getSyntax() {
+            // Inputs: number of threads
+            return SyntaxJ.commandSyntax(new int[] {Syntax.NumberType()});
+        }
+
+        @Override
+        public void perform(final Argument[] args, final Context ctx)
+                throws ExtensionException, LogoException {
+            state.setParallelism(args[0].getIntValue());
+        }
+    }
+
+    /**
+     * Enables or disables incremental clustering by location across successive calls (e.g., ticks).
+     * 
+     * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+     */
+    public static class DbscanSetIncremental implements Command {
+
+        private final DBSCANExtensionState state;
+
+        public DbscanSetIncremental(final DBSCANExtensionState state) {
+            this.state = state;
+        }
+
+        @Override
+        public Syntax getSyntax() {
+            // Inputs: incremental mode on/off
+            return SyntaxJ.commandSyntax(new int[] {Syntax.BooleanType()});
+        }
+
+        @Override
+        public void perform(final Argument[] args, final Context ctx)
+                throws ExtensionException, LogoException {
+            state.setIncremental(args[0].getBooleanValue());
+        }
+    }
+
+    /**
+     * Enables or disables strict math (StrictMath-based distance computation) for clustering by location.
+     * 
+     * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+     */
+    public static class DbscanSetStrictMath implements Command {
+
+        private final DBSCANExtensionState state;
+
+        public DbscanSetStrictMath(final DBSCANExtensionState state) {
+            this.state = state;
+        }
+
+        @Override
+        public Syntax getSyntax() {
+            // Inputs: strict math on/off
+            return SyntaxJ.commandSyntax(new int[] {Syntax.BooleanType()});
+        }
+
+        @Override
+        public void perform(final Argument[] args, final Context ctx)
+                throws ExtensionException, LogoException {
+            state.setStrictMath(args[0].getBooleanValue());
+        }
+    }
+
+    /**
+     * Enables or disables timing of neighbourhood lookups (reported by dbscan:last-stats).
+     * 
+     * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+     */
+    public static class DbscanSetProfiling implements Command {
+
+        private final DBSCANExtensionState state;
+
+        public DbscanSetProfiling(final DBSCANExtensionState state) {
+            this.state = state;
+        }
+
+        @Override
+        public Syntax getSyntax() {
+            // Inputs: profiling on/off
+            return SyntaxJ.commandSyntax(new int[] {Syntax.BooleanType()});
+        }
+
+        @Override
+        public void perform(final Argument[] args, final Context ctx)
+                throws ExtensionException, LogoException {
+            state.setProfiling(args[0].getBooleanValue());
+        }
     }
 
     /**
@@ -52,6 +212,24 @@ public class DBSCANExtension extends DefaultClassManager {
      */
     public static class DbscanNetLogoVariableClusterer implements Reporter {
 
+        private final DBSCANExtensionState state;
+        private final boolean asAgentSets;
+
+        public DbscanNetLogoVariableClusterer(final DBSCANExtensionState state) {
+            this(state, false);
+        }
+
+        /**
+         * Instantiates reporter.
+         *
+         * @param state Extension state
+         * @param asAgentSets Indicates whether clusters are reported as agentsets (as opposed to lists of agents)
+         */
+        public DbscanNetLogoVariableClusterer(final DBSCANExtensionState state, final boolean asAgentSets) {
+            this.state = state;
+            this.asAgentSets = asAgentSets;
+        }
+
         @Override
         public Syntax getSyntax() {
             // Inputs: values to be clustered, property to be clustered on, minimum number of elements, maximum distance
@@ -63,6 +241,28 @@ public class DBSCANExtension extends DefaultClassManager {
         @Override
         public Object report(final Argument[] args, final Context ctx)
                 throws ExtensionException, LogoException {
+            ClusteringStats stats = new ClusteringStats(asAgentSets ? "cluster-by-variable-as-agentsets" : "cluster-by-variable",
+                    state.isProfiling());
+            ClusteringResult result = cluster(args, ctx, state, stats);
+            // Convert generated lists of clusters to nested LogoList (or list of agentsets)
+            LogoList clusters = asAgentSets ? result.toAgentSets() : result.toLogoList();
+            state.setLastStats(stats.completed(result));
+            return clusters;
+        }
+
+        /**
+         * Performs the clustering based on the reporter's arguments (further trailing arguments are ignored).
+         *
+         * @param args Arguments of reporter
+         * @param ctx Context of reporter
+         * @param state Extension state
+         * @param stats Statistics receiving the timings and counters of the clustering
+         * @return Clustering result
+         * @throws ExtensionException if arguments are invalid
+         * @throws LogoException if agents cannot be accessed
+         */
+        static ClusteringResult cluster(final Argument[] args, final Context ctx, final DBSCANExtensionState state,
+                final ClusteringStats stats) throws ExtensionException, LogoException {
 
             AgentSet inputValues = null;
             String field = null;
@@ -102,18 +302,14 @@ public class DBSCANExtension extends DefaultClassManager {
                 throw new ExtensionException(DBSCANExtensionErrors.ERROR_NEGATIVE_MAXIMUM_DISTANCE_OF_ELEMENTS);
             }
 
-            // Convert input AgentSet to Collection
-            Iterator<?> it = inputValues.agents().iterator();
-
             // Check for patches
-            boolean patches = false;
+            Iterator<?> it = inputValues.agents().iterator();
             int fieldIndex = -1;
             Object first = it.hasNext() ? it.next() : null;
             if (first == null) {
                 throw new ExtensionException(DBSCANExtensionErrors.ERROR_NULL_INPUT_DATA);
             }
             if (first.getClass().equals(Patch.class)) {
-                patches = true;
                 // if you modify the assignment of fieldIndex (and want to maintain NetLogo 5 compatibility), 
                 // review the corresponding token in the maven-replacer plugin in pom-v5.xml
                 fieldIndex = ctx.world().program().patchesOwn().toList().indexOf(field.toUpperCase());
@@ -129,41 +325,179 @@ public class DBSCANExtension extends DefaultClassManager {
                 }
             }
 
-            // Add all agents/patches (including first element) to collection
-            Collection<Agent> inputCollection = new ArrayList<>();
-            inputCollection.add((Agent)first);
-            while (it.hasNext()) {
-                inputCollection.add((Agent) it.next());
-            }
+            // Read variable values of all agents/patches once into primitive array
+            VariableSnapshot snapshot = VariableSnapshot.of(inputValues, field.toUpperCase(), fieldIndex,
+                    ctx.world().program());
+            stats.snapshotTaken();
+
+            // Perform one-dimensional (sort-based) clustering on snapshot (neighbourhoods are determined in parallel
+            // if parallelism has been set); will at least return empty list (not be null)
+            boolean[] core = new boolean[snapshot.size()];
+            List<int[]> tmpList = SortedValueDBSCAN.cluster(snapshot.values(), snapshot.size(), 
+                    maxDistance, minNumberOfElements, state.pool(), core);
+            stats.clustered();
+
+            // Retain result (e.g., for access to noise and core points)
+            ClusteringResult result = new ClusteringResult(snapshot.agents(), tmpList, core);
+            state.setLastResult(result);
+            return result;
+        }
+    }
+
+    /**
+     * Clusters agents (turtles, patches) based on multiple variables using a numeric
+     * distance metric (Euclidean by default, Manhattan, Chebyshev).
+     * 
+     * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+     */
+    public static class DbscanNetLogoVectorClusterer implements Reporter {
+
+        private final DBSCANExtensionState state;
 
-            // Perform clustering
-            ArrayList<ArrayList<Agent>> tmpList = null;
+        public DbscanNetLogoVectorClusterer(final DBSCANExtensionState state) {
+            this.state = state;
+        }
+
+        @Override
+        public Syntax getSyntax() {
+            // Inputs: values to be clustered, properties to be clustered on, minimum number of elements, maximum distance,
+            // optional distance metric
+            int[] input = new int[] {Syntax.AgentsetType(), Syntax.ListType(), Syntax.NumberType(), Syntax.NumberType(),
+                    Syntax.StringType() | Syntax.RepeatableType()};
+            int ret = Syntax.ListType();
+            return SyntaxJ.reporterSyntax(input, ret, 4);
+        }
+
+        @Override
+        public Object report(final Argument[] args, final Context ctx)
+                throws ExtensionException, LogoException {
+            ClusteringStats stats = new ClusteringStats("cluster-by-variables", state.isProfiling());
+            ClusteringResult result = cluster(args, ctx, state, stats);
+            // Convert generated lists of clusters to nested LogoList
+            LogoList clusters = result.toLogoList();
+            state.setLastStats(stats.completed(result));
+            return clusters;
+        }
+
+        /**
+         * Performs the clustering based on the reporter's arguments.
+         *
+         * @param args Arguments of reporter
+         * @param ctx Context of reporter
+         * @param state Extension state
+         * @param stats Statistics receiving the timings and counters of the clustering
+         * @return Clustering result
+         * @throws ExtensionException if arguments are invalid
+         * @throws LogoException if agents cannot be accessed
+         */
+        static ClusteringResult cluster(final Argument[] args, final Context ctx, final DBSCANExtensionState state,
+                final ClusteringStats stats) throws ExtensionException, LogoException {
+
+            AgentSet inputValues = null;
+            LogoList fieldList = null;
+            int minNumberOfElements = Integer.MIN_VALUE; // default to invalid value
+            double maxDistance = Integer.MIN_VALUE; // default to invalid value
+            String metricName = VectorMetric.EUCLIDEAN.metricName();
 
             try {
-                DBSCANClusterer<Agent> clusterer = new DBSCANClusterer<Agent>(
-                        inputCollection, minNumberOfElements, maxDistance, 
-                        (patches ? 
-                            // For patches, use patch-specific access methods 
-                            new DistanceMetricNetLogoPatchVariable(fieldIndex) : 
-                            // ... treat all others as non-patch agents. 
-                            new DistanceMetricNetLogoAgentVariable(field.toUpperCase()))); 
-                // will at least return empty list (not be null)
-                tmpList = clusterer.performClustering();
-            } catch (DBSCANClusteringException e) {
-                throw new ExtensionException(e);
+                inputValues = args[0].getAgentSet();
+                fieldList = args[1].getList();
+                minNumberOfElements = args[2].getIntValue();
+                maxDistance = args[3].getDoubleValue();
+                if (args.length > 4) {
+                    metricName = args[4].getString();
+                }
+            } catch (Exception e) {
+                throw new ExtensionException(e.getMessage());
             }
 
-            // Convert generated lists of clusters to nested LogoList
-            LogoListBuilder list = new LogoListBuilder();
+            if (args.length > 5) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_MULTIPLE_METRICS);
+            }
+
+            if (inputValues == null || inputValues.isEmpty()) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_MISSING_INPUT_DATA);
+            }
+
+            if (fieldList == null || fieldList.size() == 0) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_MISSING_CLUSTER_VARIABLE);
+            }
 
-            for (ArrayList<Agent> intList: tmpList) {
-                LogoListBuilder internalBuilder = new LogoListBuilder();
-                for (Agent agent: intList) {
-                    internalBuilder.add(agent);
+            String[] fields = new String[fieldList.size()];
+            for (int k = 0; k < fields.length; k++) {
+                Object field = fieldList.get(k);
+                if (!(field instanceof String) || ((String) field).isEmpty()) {
+                    throw new ExtensionException(DBSCANExtensionErrors.errorInvalidClusterVariable(field));
                 }
-                list.add(internalBuilder.toLogoList());
+                fields[k] = ((String) field).toUpperCase();
             }
-            return list.toLogoList();
+
+            if (minNumberOfElements == Integer.MIN_VALUE) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_MISSING_MINIMUM_NUMBER_OF_ELEMENTS);
+            }
+
+            if (minNumberOfElements <= 1) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_INVALID_MINIMUM_NUMBER_OF_ELEMENTS);
+            }
+
+            if (maxDistance == Integer.MIN_VALUE) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_MISSING_MAXIMUM_DISTANCE_OF_ELEMENTS);
+            }
+
+            if (maxDistance < 0) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_NEGATIVE_MAXIMUM_DISTANCE_OF_ELEMENTS);
+            }
+
+            VectorMetric metric = VectorMetric.of(metricName);
+            if (metric == null) {
+                throw new ExtensionException(DBSCANExtensionErrors.errorUnknownMetric(metricName));
+            }
+
+            // Check for patches
+            Iterator<?> it = inputValues.agents().iterator();
+            int[] fieldIndices = null;
+            Object first = it.hasNext() ? it.next() : null;
+            if (first == null) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_NULL_INPUT_DATA);
+            }
+            if (first.getClass().equals(Patch.class)) {
+                fieldIndices = new int[fields.length];
+                for (int k = 0; k < fields.length; k++) {
+                    fieldIndices[k] = ctx.world().program().patchesOwn().toList().indexOf(fields[k]);
+                    if (fieldIndices[k] < 0) {
+                        throw new ExtensionException(DBSCANExtensionErrors.errorVariableCouldNotBeFound(fields[k]));
+                    }
+                }
+            }
+
+            // Read variable values of all agents/patches once into contiguous primitive array
+            VectorSnapshot snapshot = VectorSnapshot.of(inputValues, fields, fieldIndices, ctx.world().program());
+            stats.snapshotTaken();
+
+            List<int[]> tmpList;
+            boolean[] core = new boolean[snapshot.size()];
+            ForkJoinPool pool = state.pool();
+            if (snapshot.dimensions() == 1) {
+                // All metrics coincide for a single variable, hence use sort-based clustering
+                tmpList = SortedValueDBSCAN.cluster(snapshot.values(), snapshot.size(),
+                        maxDistance, minNumberOfElements, pool, core);
+                stats.clustered();
+            } else {
+                // Neighbourhoods are looked up via k-d tree (for low dimensions); will at least return empty list
+                VectorRegionQuery index = new VectorRegionQuery(snapshot.values(), snapshot.dimensions(),
+                        snapshot.size(), maxDistance, metric);
+                stats.indexBuilt();
+                InstrumentedRegionQuery query = new InstrumentedRegionQuery(index, stats.isProfiling());
+                tmpList = pool == null ? DBSCANEngine.cluster(query, minNumberOfElements, core)
+                        : ParallelDBSCAN.cluster(query, minNumberOfElements, pool, core);
+                stats.clustered();
+                stats.query(query);
+            }
+
+            // Retain result (e.g., for access to noise and core points)
+            ClusteringResult result = new ClusteringResult(snapshot.agents(), tmpList, core);
+            state.setLastResult(result);
+            return result;
         }
     }
 
@@ -175,6 +509,24 @@ public class DBSCANExtension extends DefaultClassManager {
      */
     public static class DbscanNetLogoCoordinateClusterer implements Reporter {
 
+        private final DBSCANExtensionState state;
+        private final boolean asAgentSets;
+
+        public DbscanNetLogoCoordinateClusterer(final DBSCANExtensionState state) {
+            this(state, false);
+        }
+
+        /**
+         * Instantiates reporter.
+         *
+         * @param state Extension state
+         * @param asAgentSets Indicates whether clusters are reported as agentsets (as opposed to lists of agents)
+         */
+        public DbscanNetLogoCoordinateClusterer(final DBSCANExtensionState state, final boolean asAgentSets) {
+            this.state = state;
+            this.asAgentSets = asAgentSets;
+        }
+
         @Override
         public Syntax getSyntax() {
             // Inputs: values to be clustered, minimum number of elements, maximum distance
@@ -186,6 +538,28 @@ public class DBSCANExtension extends DefaultClassManager {
         @Override
         public Object report(final Argument[] args, final Context ctx)
                 throws ExtensionException, LogoException {
+            ClusteringStats stats = new ClusteringStats(asAgentSets ? "cluster-by-location-as-agentsets" : "cluster-by-location",
+                    state.isProfiling());
+            ClusteringResult result = cluster(args, ctx, state, stats);
+            // Convert generated lists of clusters to nested LogoList (or list of agentsets)
+            LogoList clusters = asAgentSets ? result.toAgentSets() : result.toLogoList();
+            state.setLastStats(stats.completed(result));
+            return clusters;
+        }
+
+        /**
+         * Performs the clustering based on the reporter's arguments (further trailing arguments are ignored).
+         *
+         * @param args Arguments of reporter
+         * @param ctx Context of reporter
+         * @param state Extension state
+         * @param stats Statistics receiving the timings and counters of the clustering
+         * @return Clustering result
+         * @throws ExtensionException if arguments are invalid
+         * @throws LogoException if agents cannot be accessed
+         */
+        static ClusteringResult cluster(final Argument[] args, final Context ctx, final DBSCANExtensionState state,
+                final ClusteringStats stats) throws ExtensionException, LogoException {
 
             AgentSet inputValues = null;
             int minNumberOfElements = Integer.MIN_VALUE;
@@ -223,67 +597,1145 @@ public class DBSCANExtension extends DefaultClassManager {
                 throw new ExtensionException(DBSCANExtensionErrors.ERROR_MODEL_CONTEXT_INACCESSIBLE);
             }
 
-            // Convert input AgentSet to Collection
-            Iterator<?> it = inputValues.agents().iterator();
+            // Read agent coordinates once into primitive arrays
+            LocationSnapshot snapshot = LocationSnapshot.of(inputValues);
+            stats.snapshotTaken();
 
-            // Check for patches
-            boolean patches = false;
-            Object first = it.hasNext() ? it.next() : null;
-            if (first == null) {
-                throw new ExtensionException(DBSCANExtensionErrors.ERROR_NULL_INPUT_DATA);
+            // Retrieve world dimensions to determine topology - access to world() has been checked above
+            WorldDimensions dim = ctx.world().getDimensions();
+
+            // Perform clustering on snapshot; neighbourhood lookup considers the topology (for turtles and patches)
+            WorldTopology topology = WorldTopology.of(dim);
+            List<int[]> tmpList;
+            boolean[] core = new boolean[snapshot.size()];
+            if (state.isIncremental()) {
+                // Update clustering of previous call based on added, removed and moved agents
+                IncrementalLocationDBSCAN clustering = state.incrementalLocation(maxDistance, minNumberOfElements,
+                        topology, snapshot.isPatches());
+                tmpList = clustering.cluster(snapshot.ids(), snapshot.xs(), snapshot.ys(), snapshot.size(), core);
+                stats.clustered();
+            } else if (snapshot.isPatches()
+                    && PatchLatticeDBSCAN.isSuitable(snapshot.xs(), snapshot.ys(), snapshot.size(), maxDistance, topology)) {
+                // Patches are located on the integer lattice: neighbourhoods are scanned via a lattice stencil
+                tmpList = PatchLatticeDBSCAN.cluster(snapshot.xs(), snapshot.ys(), snapshot.size(),
+                        maxDistance, minNumberOfElements, topology, core);
+                stats.clustered();
+            } else {
+                LocationRegionQuery index = new LocationRegionQuery(snapshot.xs(), snapshot.ys(), snapshot.size(),
+                        maxDistance, topology, state.isStrictMath());
+                stats.indexBuilt();
+
+                // Region queries only operate on the snapshot and can hence be run on pool threads if parallelism
+                // has been set. Will at least return empty list (not be null)
+                ForkJoinPool pool = state.pool();
+                InstrumentedRegionQuery query = new InstrumentedRegionQuery(index, stats.isProfiling());
+                tmpList = pool == null ? DBSCANEngine.cluster(query, minNumberOfElements, core)
+                        : ParallelDBSCAN.cluster(query, minNumberOfElements, pool, core);
+                stats.clustered();
+                stats.query(query);
             }
-            if (first.getClass().equals(Patch.class)) {
-                patches = true;
+
+            // Retain result (e.g., for access to noise and core points)
+            ClusteringResult result = new ClusteringResult(snapshot.agents(), snapshot.size(), tmpList, core,
+                    snapshot.xs(), snapshot.ys());
+            state.setLastResult(result);
+            return result;
+        }
+    }
+
+    /**
+     * Clusters turtles by the number of links (hops) between them in a network.
+     * 
+     * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+     */
+    public static class DbscanNetworkClusterer implements Reporter {
+
+        private final DBSCANExtensionState state;
+
+        public DbscanNetworkClusterer(final DBSCANExtensionState state) {
+            this.state = state;
+        }
+
+        @Override
+        public Syntax getSyntax() {
+            // Inputs: turtles to be clustered, links of network, minimum number of elements, maximum number of hops
+            int[] input = new int[] {Syntax.AgentsetType(), Syntax.AgentsetType(), Syntax.NumberType(), Syntax.NumberType()};
+            int ret = Syntax.ListType();
+            return SyntaxJ.reporterSyntax(input, ret);
+        }
+
+        @Override
+        public Object report(final Argument[] args, final Context ctx)
+                throws ExtensionException, LogoException {
+
+            AgentSet inputValues = null;
+            AgentSet links = null;
+            int minNumberOfElements = Integer.MIN_VALUE;
+            int maxHops = Integer.MIN_VALUE;
+
+            try {
+                inputValues = args[0].getAgentSet();
+                links = args[1].getAgentSet();
+                minNumberOfElements = args[2].getIntValue();
+                maxHops = args[3].getIntValue();
+            } catch (Exception e) {
+                throw new ExtensionException(e.getMessage());
             }
 
-            // Add all agents/patches (including first element) to collection
-            Collection<org.nlogo.api.Agent> inputCollection = new ArrayList<>();
-            inputCollection.add((org.nlogo.api.Agent)first);
-            while (it.hasNext()) {
-                inputCollection.add((org.nlogo.api.Agent) it.next());
+            if (inputValues == null || inputValues.isEmpty()) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_MISSING_INPUT_DATA);
             }
 
-            // Perform clustering
-            ArrayList<ArrayList<org.nlogo.api.Agent>> tmpList = null;
-            
-            // Retrieve world dimensions to determine topology - access to world() has been checked above
-            WorldDimensions dim = ctx.world().getDimensions();
+            if (links == null) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_INVALID_NETWORK_LINKS);
+            }
 
-            try {
-                DBSCANClusterer<org.nlogo.api.Agent> clusterer = new DBSCANClusterer<org.nlogo.api.Agent>(
-                        inputCollection, minNumberOfElements, maxDistance, 
-                        ( patches ? 
-                            // For patches, use patch-specific coordinate fields
-                            new DistanceMetricNetLogoPatchLocation() :
-                            // ... treat all others as non-patch agents, and consider topologies
-                            // Torus
-                            (dim.wrappingAllowedInX() && dim.wrappingAllowedInY() ? new DistanceMetricNetLogoAgentLocationTorus(dim.width(), dim.height()) :
-                            // Vertical Cylinder
-                            (dim.wrappingAllowedInX() ? new DistanceMetricNetLogoAgentLocationVerticalCylinder(dim.width()) :
-                            // Horizontal Cylinder
-                            (dim.wrappingAllowedInY() ? new DistanceMetricNetLogoAgentLocationHorizontalCylinder(dim.height()) :
-                            // Box
-                            new DistanceMetricNetLogoAgentLocationBox())))
-                        )
-                    );
-                // will at least return empty list (not be null)
-                tmpList = clusterer.performClustering();
-            } catch (DBSCANClusteringException e) {
-                throw new ExtensionException(e);
+            if (minNumberOfElements == Integer.MIN_VALUE) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_MISSING_MINIMUM_NUMBER_OF_ELEMENTS);
             }
 
-            // Convert generated lists of clusters to nested LogoList
-            LogoListBuilder list = new LogoListBuilder();
+            if (minNumberOfElements <= 1) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_INVALID_MINIMUM_NUMBER_OF_ELEMENTS);
+            }
 
-            for (ArrayList<org.nlogo.api.Agent> intList: tmpList) {
-                LogoListBuilder internalBuilder = new LogoListBuilder();
-                for (org.nlogo.api.Agent agent: intList) {
-                    internalBuilder.add(agent);
-                }
-                list.add(internalBuilder.toLogoList());
+            if (maxHops == Integer.MIN_VALUE) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_MISSING_MAXIMUM_DISTANCE_OF_ELEMENTS);
             }
-            return list.toLogoList();
+
+            if (maxHops < 0) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_NEGATIVE_MAXIMUM_HOPS);
+            }
+
+            // Read turtles and links between them once
+            ClusteringStats stats = new ClusteringStats("cluster-by-network", state.isProfiling());
+            NetworkSnapshot snapshot = NetworkSnapshot.of(inputValues, links);
+            stats.snapshotTaken();
+
+            // Build adjacency arrays; neighbourhoods are determined by breadth-first search bounded by the maximum hops
+            NetworkRegionQuery network = new NetworkRegionQuery(snapshot.ends1(), snapshot.ends2(), snapshot.links(),
+                    snapshot.size(), maxHops);
+            stats.indexBuilt();
+
+            // Searches share the query's visited marks, hence the network is clustered sequentially
+            boolean[] core = new boolean[snapshot.size()];
+            InstrumentedRegionQuery query = new InstrumentedRegionQuery(network, stats.isProfiling());
+            List<int[]> tmpList = DBSCANEngine.cluster(query, minNumberOfElements, core);
+            stats.clustered();
+            stats.query(query);
+
+            // Retain result (e.g., for access to noise and core points)
+            ClusteringResult result = new ClusteringResult(snapshot.agents(), tmpList, core);
+            state.setLastResult(result);
+            LogoList clusters = result.toLogoList();
+            state.setLastStats(stats.completed(result));
+            return clusters;
+        }
+    }
+
+    /**
+     * Clusters several groups of agents (turtles, patches) separately based on coordinates, with groups
+     * given as list of agentsets or determined by a variable of the agents of a single agentset.
+     * 
+     * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+     */
+    public static class DbscanGroupedCoordinateClusterer implements Reporter {
+
+        private final DBSCANExtensionState state;
+
+        public DbscanGroupedCoordinateClusterer(final DBSCANExtensionState state) {
+            this.state = state;
+        }
+
+        @Override
+        public Syntax getSyntax() {
+            // Inputs: list of agentsets or agentset, minimum number of elements, maximum distance,
+            // optional grouping variable (for agentset)
+            int[] input = new int[] {Syntax.ListType() | Syntax.AgentsetType(), Syntax.NumberType(), Syntax.NumberType(),
+                    Syntax.StringType() | Syntax.RepeatableType()};
+            int ret = Syntax.ListType();
+            return SyntaxJ.reporterSyntax(input, ret, 3);
+        }
+
+        @Override
+        public Object report(final Argument[] args, final Context ctx)
+                throws ExtensionException, LogoException {
+
+            Object groups = null;
+            int minNumberOfElements = Integer.MIN_VALUE;
+            double maxDistance = Integer.MIN_VALUE;
+            String field = null;
+
+            try {
+                groups = args[0].get();
+                minNumberOfElements = args[1].getIntValue();
+                maxDistance = args[2].getDoubleValue();
+                if (args.length > 3) {
+                    field = args[3].getString();
+                }
+            } catch (Exception e) {
+                throw new ExtensionException(e.getMessage());
+            }
+
+            if (args.length > 4) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_MULTIPLE_GROUPING_VARIABLES);
+            }
+
+            if (groups == null) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_MISSING_INPUT_DATA);
+            }
+
+            if (minNumberOfElements == Integer.MIN_VALUE) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_MISSING_MINIMUM_NUMBER_OF_ELEMENTS);
+            }
+
+            if (minNumberOfElements <= 1) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_INVALID_MINIMUM_NUMBER_OF_ELEMENTS);
+            }
+
+            if (maxDistance == Integer.MIN_VALUE) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_MISSING_MAXIMUM_DISTANCE_OF_ELEMENTS);
+            }
+
+            if (maxDistance < 0) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_NEGATIVE_MAXIMUM_DISTANCE_OF_ELEMENTS);
+            }
+
+            if (ctx == null || ctx.world() == null) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_MODEL_CONTEXT_INACCESSIBLE);
+            }
+
+            // Read agent locations of all groups once
+            ClusteringStats stats = new ClusteringStats("cluster-groups-by-location", state.isProfiling());
+            GroupedLocationSnapshot snapshot;
+            if (groups instanceof AgentSet) {
+                AgentSet inputValues = (AgentSet) groups;
+                if (inputValues.isEmpty()) {
+                    throw new ExtensionException(DBSCANExtensionErrors.ERROR_MISSING_INPUT_DATA);
+                }
+                if (field == null || field.isEmpty()) {
+                    throw new ExtensionException(DBSCANExtensionErrors.ERROR_MISSING_GROUPING_VARIABLE);
+                }
+                int fieldIndex = -1;
+                if (inputValues.agents().iterator().next() instanceof Patch) {
+                    fieldIndex = ctx.world().program().patchesOwn().toList().indexOf(field.toUpperCase());
+                    if (fieldIndex < 0) {
+                        throw new ExtensionException(DBSCANExtensionErrors.errorVariableCouldNotBeFound(field.toUpperCase()));
+                    }
+                }
+                snapshot = GroupedLocationSnapshot.byVariable(inputValues, field.toUpperCase(), fieldIndex,
+                        ctx.world().program());
+            } else {
+                if (field != null) {
+                    throw new ExtensionException(DBSCANExtensionErrors.ERROR_GROUPING_VARIABLE_FOR_LIST);
+                }
+                List<AgentSet> agentSets = new ArrayList<>();
+                for (Object group: (LogoList) groups) {
+                    if (!(group instanceof AgentSet)) {
+                        throw new ExtensionException(DBSCANExtensionErrors.errorInvalidAgentSetGroup(group));
+                    }
+                    agentSets.add((AgentSet) group);
+                }
+                snapshot = GroupedLocationSnapshot.ofAgentSets(agentSets);
+            }
+            stats.snapshotTaken();
+
+            // Build grid index per group; groups are clustered independently of each other
+            WorldTopology topology = WorldTopology.of(ctx.world().getDimensions());
+            InstrumentedRegionQuery[] queries = new InstrumentedRegionQuery[snapshot.groups()];
+            for (int g = 0; g < queries.length; g++) {
+                queries[g] = new InstrumentedRegionQuery(new LocationRegionQuery(snapshot.xs(g), snapshot.ys(g),
+                        snapshot.size(g), maxDistance, topology, state.isStrictMath()), stats.isProfiling());
+            }
+            stats.indexBuilt();
+
+            // Cluster groups sequentially (reusing the engine's arrays) or groups in parallel if parallelism has been set
+            ClusteringResult[] results = new ClusteringResult[queries.length];
+            ForkJoinPool pool = state.pool();
+            if (pool == null) {
+                DBSCANEngine engine = new DBSCANEngine();
+                for (int g = 0; g < queries.length; g++) {
+                    boolean[] core = new boolean[snapshot.size(g)];
+                    results[g] = new ClusteringResult(snapshot.agents(g), snapshot.size(g),
+                            engine.run(queries[g], minNumberOfElements, core), core, snapshot.xs(g), snapshot.ys(g));
+                }
+            } else {
+                List<ForkJoinTask<?>> tasks = new ArrayList<>();
+                for (int g = 0; g < queries.length; g++) {
+                    final int group = g;
+                    final int min = minNumberOfElements;
+                    tasks.add(pool.submit(() -> {
+                        boolean[] core = new boolean[snapshot.size(group)];
+                        results[group] = new ClusteringResult(snapshot.agents(group), snapshot.size(group),
+                                DBSCANEngine.cluster(queries[group], min, core), core, snapshot.xs(group),
+                                snapshot.ys(group));
+                    }));
+                }
+                for (ForkJoinTask<?> task: tasks) {
+                    task.join();
+                }
+            }
+            stats.clustered();
+            for (InstrumentedRegionQuery query: queries) {
+                stats.query(query);
+            }
+
+            // Retain result of all groups (e.g., for access to noise and core points)
+            ClusteringResult result = ClusteringResult.combine(Arrays.asList(results));
+            state.setLastResult(result);
+
+            // One list of clusters per group; for groups determined by a variable preceded by the group's value
+            LogoListBuilder list = new LogoListBuilder();
+            for (int g = 0; g < results.length; g++) {
+                if (snapshot.isGroupedByVariable()) {
+                    LogoListBuilder pair = new LogoListBuilder();
+                    pair.add(snapshot.groupValue(g));
+                    pair.add(results[g].toLogoList());
+                    list.add(pair.toLogoList());
+                } else {
+                    list.add(results[g].toLogoList());
+                }
+            }
+            LogoList clusters = list.toLogoList();
+            state.setLastStats(stats.completed(result));
+            return clusters;
+        }
+    }
+
+    /**
+     * Clusters agents (turtles, patches) based on coordinates without a maximum distance
+     * (hierarchical density-based clustering, HDBSCAN*).
+     * 
+     * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+     */
+    public static class DbscanHierarchicalCoordinateClusterer implements Reporter {
+
+        private final DBSCANExtensionState state;
+
+        public DbscanHierarchicalCoordinateClusterer(final DBSCANExtensionState state) {
+            this.state = state;
+        }
+
+        @Override
+        public Syntax getSyntax() {
+            // Inputs: values to be clustered, minimum cluster size
+            int[] input = new int[] {Syntax.AgentsetType(), Syntax.NumberType()};
+            int ret = Syntax.ListType();
+            return SyntaxJ.reporterSyntax(input, ret);
+        }
+
+        @Override
+        public Object report(final Argument[] args, final Context ctx)
+                throws ExtensionException, LogoException {
+
+            AgentSet inputValues = null;
+            int minClusterSize = Integer.MIN_VALUE;
+
+            try {
+                inputValues = args[0].getAgentSet();
+                minClusterSize = args[1].getIntValue();
+            } catch (Exception e) {
+                throw new ExtensionException(e.getMessage());
+            }
+
+            if (inputValues == null || inputValues.isEmpty()) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_MISSING_INPUT_DATA);
+            }
+
+            if (minClusterSize == Integer.MIN_VALUE) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_MISSING_MINIMUM_NUMBER_OF_ELEMENTS);
+            }
+
+            if (minClusterSize <= 1) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_INVALID_MINIMUM_NUMBER_OF_ELEMENTS);
+            }
+
+            if (ctx == null || ctx.world() == null) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_MODEL_CONTEXT_INACCESSIBLE);
+            }
+
+            // Read agent coordinates once; topology is considered as by cluster-by-location
+            ClusteringStats stats = new ClusteringStats("cluster-hierarchical", state.isProfiling());
+            LocationSnapshot snapshot = LocationSnapshot.of(inputValues);
+            stats.snapshotTaken();
+            WorldTopology topology = WorldTopology.of(ctx.world().getDimensions());
+            List<int[]> tmpList = HierarchicalLocationDBSCAN.cluster(snapshot.xs(), snapshot.ys(), snapshot.size(),
+                    minClusterSize, topology);
+
+            // There are no border points: all cluster members are core points at the density level of their cluster
+            boolean[] core = new boolean[snapshot.size()];
+            for (int[] cluster: tmpList) {
+                for (int member: cluster) {
+                    core[member] = true;
+                }
+            }
+            stats.clustered();
+            ClusteringResult result = new ClusteringResult(snapshot.agents(), snapshot.size(), tmpList, core,
+                    snapshot.xs(), snapshot.ys());
+            state.setLastResult(result);
+            LogoList clusters = result.toLogoList();
+            state.setLastStats(stats.completed(result));
+            return clusters;
+        }
+    }
+
+    /**
+     * Clusters agents (turtles, patches) based on variables and stores the cluster number of
+     * each agent (-1 for noise) in the given variable.
+     * 
+     * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+     */
+    public static class DbscanNetLogoVariableLabeller implements Command {
+
+        private final DBSCANExtensionState state;
+
+        public DbscanNetLogoVariableLabeller(final DBSCANExtensionState state) {
+            this.state = state;
+        }
+
+        @Override
+        public Syntax getSyntax() {
+            // Inputs: values to be clustered, property to be clustered on, minimum number of elements, maximum distance,
+            // variable to store cluster numbers in
+            return SyntaxJ.commandSyntax(new int[] {Syntax.AgentsetType(), Syntax.StringType(), Syntax.NumberType(),
+                    Syntax.NumberType(), Syntax.StringType()});
+        }
+
+        @Override
+        public void perform(final Argument[] args, final Context ctx)
+                throws ExtensionException, LogoException {
+            String labelField = args[4].getString();
+            if (labelField == null || labelField.isEmpty()) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_MISSING_LABEL_VARIABLE);
+            }
+            ClusteringStats stats = new ClusteringStats("label-by-variable", state.isProfiling());
+            ClusteringResult result = DbscanNetLogoVariableClusterer.cluster(args, ctx, state, stats);
+            result.writeLabels(labelField.toUpperCase(), ctx.world().program());
+            state.setLastStats(stats.completed(result));
+        }
+    }
+
+    /**
+     * Clusters agents (turtles, patches) based on coordinates and stores the cluster number of
+     * each agent (-1 for noise) in the given variable.
+     * 
+     * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+     */
+    public static class DbscanNetLogoCoordinateLabeller implements Command {
+
+        private final DBSCANExtensionState state;
+
+        public DbscanNetLogoCoordinateLabeller(final DBSCANExtensionState state) {
+            this.state = state;
+        }
+
+        @Override
+        public Syntax getSyntax() {
+            // Inputs: values to be clustered, minimum number of elements, maximum distance,
+            // variable to store cluster numbers in
+            return SyntaxJ.commandSyntax(new int[] {Syntax.AgentsetType(), Syntax.NumberType(), Syntax.NumberType(),
+                    Syntax.StringType()});
+        }
+
+        @Override
+        public void perform(final Argument[] args, final Context ctx)
+                throws ExtensionException, LogoException {
+            String labelField = args[3].getString();
+            if (labelField == null || labelField.isEmpty()) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_MISSING_LABEL_VARIABLE);
+            }
+            ClusteringStats stats = new ClusteringStats("label-by-location", state.isProfiling());
+            ClusteringResult result = DbscanNetLogoCoordinateClusterer.cluster(args, ctx, state, stats);
+            result.writeLabels(labelField.toUpperCase(), ctx.world().program());
+            state.setLastStats(stats.completed(result));
+        }
+    }
+
+    /**
+     * Computes the OPTICS cluster ordering of agents (turtles, patches) based on coordinates,
+     * from which clusterings for different maximum distances can be extracted.
+     * 
+     * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+     */
+    public static class DbscanOpticsOrdering implements Reporter {
+
+        @Override
+        public Syntax getSyntax() {
+            // Inputs: values to be ordered, minimum number of elements, (largest) maximum distance
+            int[] input = new int[] {Syntax.AgentsetType(), Syntax.NumberType(), Syntax.NumberType()};
+            int ret = Syntax.WildcardType();
+            return SyntaxJ.reporterSyntax(input, ret);
+        }
+
+        @Override
+        public Object report(final Argument[] args, final Context ctx)
+                throws ExtensionException, LogoException {
+
+            AgentSet inputValues = null;
+            int minNumberOfElements = Integer.MIN_VALUE;
+            double maxDistance = Integer.MIN_VALUE;
+
+            try {
+                inputValues = args[0].getAgentSet();
+                minNumberOfElements = args[1].getIntValue();
+                maxDistance = args[2].getDoubleValue();
+            } catch (Exception e) {
+                throw new ExtensionException(e.getMessage());
+            }
+
+            if (inputValues == null || inputValues.isEmpty()) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_MISSING_INPUT_DATA);
+            }
+
+            if (minNumberOfElements == Integer.MIN_VALUE) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_MISSING_MINIMUM_NUMBER_OF_ELEMENTS);
+            }
+
+            if (minNumberOfElements <= 1) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_INVALID_MINIMUM_NUMBER_OF_ELEMENTS);
+            }
+
+            if (maxDistance == Integer.MIN_VALUE) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_MISSING_MAXIMUM_DISTANCE_OF_ELEMENTS);
+            }
+
+            if (maxDistance < 0) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_NEGATIVE_MAXIMUM_DISTANCE_OF_ELEMENTS);
+            }
+
+            if (ctx == null || ctx.world() == null) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_MODEL_CONTEXT_INACCESSIBLE);
+            }
+
+            // Read agent coordinates once; the ordering is computed with the same grid-based neighbourhood
+            // lookup and topology as cluster-by-location
+            LocationSnapshot snapshot = LocationSnapshot.of(inputValues);
+            WorldTopology topology = WorldTopology.of(ctx.world().getDimensions());
+            OPTICSOrdering ordering = OPTICSOrdering.of(snapshot.xs(), snapshot.ys(), snapshot.size(),
+                    maxDistance, minNumberOfElements, topology);
+            return new ClusterOrdering(snapshot.agents(), snapshot.xs(), snapshot.ys(), ordering);
+        }
+    }
+
+    /**
+     * Extracts the clusters for a given maximum distance from a cluster ordering computed by dbscan:optics.
+     * 
+     * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+     */
+    public static class DbscanExtractClusters implements Reporter {
+
+        private final DBSCANExtensionState state;
+
+        public DbscanExtractClusters(final DBSCANExtensionState state) {
+            this.state = state;
+        }
+
+        @Override
+        public Syntax getSyntax() {
+            // Inputs: cluster ordering, maximum distance
+            int[] input = new int[] {Syntax.WildcardType(), Syntax.NumberType()};
+            int ret = Syntax.ListType();
+            return SyntaxJ.reporterSyntax(input, ret);
+        }
+
+        @Override
+        public Object report(final Argument[] args, final Context ctx)
+                throws ExtensionException, LogoException {
+
+            Object ordering = args[0].get();
+            if (!(ordering instanceof ClusterOrdering)) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_INVALID_CLUSTER_ORDERING);
+            }
+            ClusterOrdering clusterOrdering = (ClusterOrdering) ordering;
+
+            double maxDistance = args[1].getDoubleValue();
+            if (maxDistance < 0) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_NEGATIVE_MAXIMUM_DISTANCE_OF_ELEMENTS);
+            }
+            if (maxDistance > clusterOrdering.maxDistance()) {
+                throw new ExtensionException(DBSCANExtensionErrors.errorExtractionDistanceExceedsOrdering(
+                        maxDistance, clusterOrdering.maxDistance()));
+            }
+
+            // Retain result (e.g., for access to noise and core points)
+            ClusteringStats stats = new ClusteringStats("extract-clusters", state.isProfiling());
+            ClusteringResult result = clusterOrdering.extract(maxDistance);
+            stats.clustered();
+            state.setLastResult(result);
+            LogoList clusters = result.toLogoList();
+            state.setLastStats(stats.completed(result));
+            return clusters;
+        }
+    }
+
+    /**
+     * Reports the sorted distances of agents (turtles, patches) to their k-th nearest neighbours, or
+     * the maximum distance suggested by the knee of these distances.
+     * 
+     * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+     */
+    public static class DbscanKDistances implements Reporter {
+
+        private final boolean suggest;
+
+        /**
+         * Instantiates reporter.
+         *
+         * @param suggest Indicates whether the suggested maximum distance (as opposed to all k-distances) is reported
+         */
+        public DbscanKDistances(final boolean suggest) {
+            this.suggest = suggest;
+        }
+
+        @Override
+        public Syntax getSyntax() {
+            // Inputs: agents, rank of neighbour
+            int[] input = new int[] {Syntax.AgentsetType(), Syntax.NumberType()};
+            int ret = suggest ? Syntax.NumberType() : Syntax.ListType();
+            return SyntaxJ.reporterSyntax(input, ret);
+        }
+
+        @Override
+        public Object report(final Argument[] args, final Context ctx)
+                throws ExtensionException, LogoException {
+
+            AgentSet inputValues = null;
+            int k = Integer.MIN_VALUE;
+
+            try {
+                inputValues = args[0].getAgentSet();
+                k = args[1].getIntValue();
+            } catch (Exception e) {
+                throw new ExtensionException(e.getMessage());
+            }
+
+            if (inputValues == null || inputValues.isEmpty()) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_MISSING_INPUT_DATA);
+            }
+
+            if (ctx == null || ctx.world() == null) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_MODEL_CONTEXT_INACCESSIBLE);
+            }
+
+            // Nearest neighbours are determined on the location snapshot with the topology of cluster-by-location
+            LocationSnapshot snapshot = LocationSnapshot.of(inputValues);
+            if (k < 1 || k >= snapshot.size()) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_INVALID_NEIGHBOUR_RANK);
+            }
+            WorldTopology topology = WorldTopology.of(ctx.world().getDimensions());
+            double[] distances = KDistances.of(snapshot.xs(), snapshot.ys(), snapshot.size(), k, topology);
+            if (suggest) {
+                return Double.valueOf(KDistances.knee(distances));
+            }
+            LogoListBuilder list = new LogoListBuilder();
+            for (double distance: distances) {
+                list.add(Double.valueOf(distance));
+            }
+            return list.toLogoList();
+        }
+    }
+
+    /**
+     * Creates a clustering session that clusters agents by location with fixed parameters while
+     * retaining its arrays across calls (e.g., ticks).
+     * 
+     * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+     */
+    public static class DbscanMakeSession implements Reporter {
+
+        @Override
+        public Syntax getSyntax() {
+            // Inputs: minimum number of elements, maximum distance
+            int[] input = new int[] {Syntax.NumberType(), Syntax.NumberType()};
+            int ret = Syntax.WildcardType();
+            return SyntaxJ.reporterSyntax(input, ret);
+        }
+
+        @Override
+        public Object report(final Argument[] args, final Context ctx)
+                throws ExtensionException, LogoException {
+
+            int minNumberOfElements = args[0].getIntValue();
+            double maxDistance = args[1].getDoubleValue();
+
+            if (minNumberOfElements <= 1) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_INVALID_MINIMUM_NUMBER_OF_ELEMENTS);
+            }
+
+            if (maxDistance < 0) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_NEGATIVE_MAXIMUM_DISTANCE_OF_ELEMENTS);
+            }
+
+            return new ClusteringSession(minNumberOfElements, maxDistance);
+        }
+    }
+
+    /**
+     * Clusters agents (turtles, patches) by location using a clustering session created by dbscan:make-session.
+     * 
+     * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+     */
+    public static class DbscanSessionClusterer implements Reporter {
+
+        private final DBSCANExtensionState state;
+
+        public DbscanSessionClusterer(final DBSCANExtensionState state) {
+            this.state = state;
+        }
+
+        @Override
+        public Syntax getSyntax() {
+            // Inputs: clustering session, values to be clustered
+            int[] input = new int[] {Syntax.WildcardType(), Syntax.AgentsetType()};
+            int ret = Syntax.ListType();
+            return SyntaxJ.reporterSyntax(input, ret);
+        }
+
+        @Override
+        public Object report(final Argument[] args, final Context ctx)
+                throws ExtensionException, LogoException {
+
+            Object session = args[0].get();
+            if (!(session instanceof ClusteringSession)) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_INVALID_SESSION);
+            }
+
+            AgentSet inputValues = args[1].getAgentSet();
+            if (inputValues == null || inputValues.isEmpty()) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_MISSING_INPUT_DATA);
+            }
+
+            if (ctx == null || ctx.world() == null) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_MODEL_CONTEXT_INACCESSIBLE);
+            }
+
+            // Cluster with the session's retained arrays (sequentially, as cluster-by-location without parallelism)
+            WorldTopology topology = WorldTopology.of(ctx.world().getDimensions());
+            ClusteringStats stats = new ClusteringStats("cluster", state.isProfiling());
+            ClusteringResult result = ((ClusteringSession) session).cluster(inputValues, topology, state.isStrictMath(),
+                    stats);
+
+            // Retain result (e.g., for access to noise and core points)
+            state.setLastResult(result);
+            LogoList clusters = result.toLogoList();
+            state.setLastStats(stats.completed(result));
+            return clusters;
+        }
+    }
+
+    /**
+     * Creates a cluster tracker that assigns persistent identifiers to clusters across clusterings.
+     * 
+     * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+     */
+    public static class DbscanMakeTracker implements Reporter {
+
+        @Override
+        public Syntax getSyntax() {
+            return SyntaxJ.reporterSyntax(Syntax.WildcardType());
+        }
+
+        @Override
+        public Object report(final Argument[] args, final Context ctx)
+                throws ExtensionException, LogoException {
+            return new ClusterTracker();
+        }
+    }
+
+    /**
+     * Matches the most recent clustering to the one previously tracked by a cluster tracker and
+     * reports the persistent identifier of each cluster.
+     * 
+     * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+     */
+    public static class DbscanTrack implements Reporter {
+
+        private final DBSCANExtensionState state;
+
+        public DbscanTrack(final DBSCANExtensionState state) {
+            this.state = state;
+        }
+
+        @Override
+        public Syntax getSyntax() {
+            // Input: cluster tracker
+            int[] input = new int[] {Syntax.WildcardType()};
+            int ret = Syntax.ListType();
+            return SyntaxJ.reporterSyntax(input, ret);
+        }
+
+        @Override
+        public Object report(final Argument[] args, final Context ctx)
+                throws ExtensionException, LogoException {
+
+            int[] ids = trackerOf(args[0]).track(state.getLastResult());
+            LogoListBuilder list = new LogoListBuilder();
+            for (int id: ids) {
+                list.add(Double.valueOf(id));
+            }
+            return list.toLogoList();
+        }
+    }
+
+    /**
+     * Reports the births, deaths, merges and splits of clusters determined by the most recent tracking of a cluster tracker.
+     * 
+     * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+     */
+    public static class DbscanTrackerEvents implements Reporter {
+
+        @Override
+        public Syntax getSyntax() {
+            // Input: cluster tracker
+            int[] input = new int[] {Syntax.WildcardType()};
+            int ret = Syntax.ListType();
+            return SyntaxJ.reporterSyntax(input, ret);
+        }
+
+        @Override
+        public Object report(final Argument[] args, final Context ctx)
+                throws ExtensionException, LogoException {
+            return trackerOf(args[0]).events();
+        }
+    }
+
+    private static ClusterTracker trackerOf(final Argument argument) throws ExtensionException, LogoException {
+        Object tracker = argument.get();
+        if (!(tracker instanceof ClusterTracker)) {
+            throw new ExtensionException(DBSCANExtensionErrors.ERROR_INVALID_TRACKER);
+        }
+        return (ClusterTracker) tracker;
+    }
+
+    /**
+     * Reports the agents that did not belong to any cluster (noise) in the most recent clustering.
+     * 
+     * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+     */
+    public static class DbscanLastNoise implements Reporter {
+
+        private final DBSCANExtensionState state;
+
+        public DbscanLastNoise(final DBSCANExtensionState state) {
+            this.state = state;
+        }
+
+        @Override
+        public Syntax getSyntax() {
+            return SyntaxJ.reporterSyntax(Syntax.ListType());
+        }
+
+        @Override
+        public Object report(final Argument[] args, final Context ctx)
+                throws ExtensionException, LogoException {
+            return state.getLastResult().noiseToLogoList();
+        }
+    }
+
+    /**
+     * Reports the core points of each cluster of the most recent clustering.
+     * 
+     * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+     */
+    public static class DbscanLastCorePoints implements Reporter {
+
+        private final DBSCANExtensionState state;
+
+        public DbscanLastCorePoints(final DBSCANExtensionState state) {
+            this.state = state;
+        }
+
+        @Override
+        public Syntax getSyntax() {
+            return SyntaxJ.reporterSyntax(Syntax.ListType());
+        }
+
+        @Override
+        public Object report(final Argument[] args, final Context ctx)
+                throws ExtensionException, LogoException {
+            return state.getLastResult().corePointsToLogoList();
+        }
+    }
+
+    /**
+     * Reports the number of core points of each cluster of the most recent clustering.
+     * 
+     * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+     */
+    public static class DbscanLastCoreCounts implements Reporter {
+
+        private final DBSCANExtensionState state;
+
+        public DbscanLastCoreCounts(final DBSCANExtensionState state) {
+            this.state = state;
+        }
+
+        @Override
+        public Syntax getSyntax() {
+            return SyntaxJ.reporterSyntax(Syntax.ListType());
+        }
+
+        @Override
+        public Object report(final Argument[] args, final Context ctx)
+                throws ExtensionException, LogoException {
+            return state.getLastResult().coreCountsToLogoList();
+        }
+    }
+
+    /**
+     * Reports timings and counters of the most recent clustering as list of name-value pairs.
+     * 
+     * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+     */
+    public static class DbscanLastStats implements Reporter {
+
+        private final DBSCANExtensionState state;
+
+        public DbscanLastStats(final DBSCANExtensionState state) {
+            this.state = state;
+        }
+
+        @Override
+        public Syntax getSyntax() {
+            return SyntaxJ.reporterSyntax(Syntax.ListType());
+        }
+
+        @Override
+        public Object report(final Argument[] args, final Context ctx)
+                throws ExtensionException, LogoException {
+            return state.getLastStats().toLogoList();
+        }
+    }
+
+    /**
+     * Reports the size, centroid and bounding extent (and optionally mean and variance of a
+     * variable) of each cluster of the most recent clustering, based on the locations agents
+     * have been clustered by.
+     * 
+     * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+     */
+    public static class DbscanClusterSummaries implements Reporter {
+
+        private final DBSCANExtensionState state;
+
+        public DbscanClusterSummaries(final DBSCANExtensionState state) {
+            this.state = state;
+        }
+
+        @Override
+        public Syntax getSyntax() {
+            // Input: optional variable to be summarised
+            int[] input = new int[] {Syntax.StringType() | Syntax.RepeatableType()};
+            int ret = Syntax.ListType();
+            return SyntaxJ.reporterSyntax(input, ret, 0);
+        }
+
+        @Override
+        public Object report(final Argument[] args, final Context ctx)
+                throws ExtensionException, LogoException {
+
+            String field = null;
+
+            try {
+                if (args.length > 0) {
+                    field = args[0].getString();
+                }
+            } catch (Exception e) {
+                throw new ExtensionException(e.getMessage());
+            }
+
+            if (args.length > 1) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_MULTIPLE_SUMMARY_VARIABLES);
+            }
+
+            if (field != null && field.isEmpty()) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_MISSING_CLUSTER_VARIABLE);
+            }
+
+            if (ctx == null || ctx.world() == null) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_MODEL_CONTEXT_INACCESSIBLE);
+            }
+
+            // Combined results may hold clusters of different kinds, hence all members are checked
+            ClusteringResult result = state.getLastResult();
+            for (int[] cluster: result.clusters()) {
+                for (int member: cluster) {
+                    if (result.agent(member) instanceof Link) {
+                        throw new ExtensionException(DBSCANExtensionErrors.ERROR_SUMMARIES_OF_LINKS);
+                    }
+                }
+            }
+
+            // Summarise the locations agents have been clustered by; results of clusterings by other
+            // criteria (e.g., variables) hold no locations, which are then read for cluster members only
+            double[] xs = result.xs();
+            double[] ys = result.ys();
+            if (!result.hasLocations()) {
+                xs = new double[result.size()];
+                ys = new double[result.size()];
+                for (int[] cluster: result.clusters()) {
+                    for (int member: cluster) {
+                        LocationSnapshot.readLocation(result.agent(member), member, xs, ys);
+                    }
+                }
+            }
+            double[] values = field == null ? null
+                    : VariableSnapshot.ofMembers(result, field.toUpperCase(), ctx.world().program());
+
+            WorldTopology topology = WorldTopology.of(ctx.world().getDimensions());
+            LogoListBuilder list = new LogoListBuilder();
+            for (int[] cluster: result.clusters()) {
+                LogoListBuilder summary = new LogoListBuilder();
+                for (double value: ClusterSummaries.of(cluster, xs, ys, values, topology)) {
+                    summary.add(Double.valueOf(value));
+                }
+                list.add(summary.toLogoList());
+            }
+            return list.toLogoList();
+        }
+    }
+
+    /**
+     * Reports the most recent clustering as result object, which provides constant-time lookups
+     * of the cluster of an agent and the size of a cluster (see dbscan:cluster-of, dbscan:cluster-size).
+     * 
+     * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+     */
+    public static class DbscanLastResult implements Reporter {
+
+        private final DBSCANExtensionState state;
+
+        public DbscanLastResult(final DBSCANExtensionState state) {
+            this.state = state;
+        }
+
+        @Override
+        public Syntax getSyntax() {
+            return SyntaxJ.reporterSyntax(Syntax.WildcardType());
+        }
+
+        @Override
+        public Object report(final Argument[] args, final Context ctx)
+                throws ExtensionException, LogoException {
+            // Copied, as results of clustering sessions refer to arrays reused by their next clustering
+            return new ClusterAssignment(state.getLastResult().copy());
+        }
+    }
+
+    /**
+     * Reports the cluster number of an agent in a result reported by dbscan:last-result (-1 for noise).
+     * 
+     * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+     */
+    public static class DbscanClusterOf implements Reporter {
+
+        @Override
+        public Syntax getSyntax() {
+            // Inputs: clustering result, agent
+            int[] input = new int[] {Syntax.WildcardType(), Syntax.AgentType()};
+            int ret = Syntax.NumberType();
+            return SyntaxJ.reporterSyntax(input, ret);
+        }
+
+        @Override
+        public Object report(final Argument[] args, final Context ctx)
+                throws ExtensionException, LogoException {
+
+            ClusterAssignment assignment = assignmentOf(args[0]);
+            Agent agent = args[1].getAgent();
+            Integer cluster = assignment.clusterOf(agent);
+            if (cluster == null) {
+                throw new ExtensionException(DBSCANExtensionErrors.errorAgentNotClustered(agent));
+            }
+            return Double.valueOf(cluster);
+        }
+    }
+
+    /**
+     * Reports the number of members of a cluster in a result reported by dbscan:last-result.
+     * 
+     * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+     */
+    public static class DbscanClusterSize implements Reporter {
+
+        @Override
+        public Syntax getSyntax() {
+            // Inputs: clustering result, cluster number
+            int[] input = new int[] {Syntax.WildcardType(), Syntax.NumberType()};
+            int ret = Syntax.NumberType();
+            return SyntaxJ.reporterSyntax(input, ret);
+        }
+
+        @Override
+        public Object report(final Argument[] args, final Context ctx)
+                throws ExtensionException, LogoException {
+
+            ClusterAssignment assignment = assignmentOf(args[0]);
+            return Double.valueOf(assignment.clusterSize(clusterNumberOf(assignment, args[1])));
+        }
+    }
+
+    /**
+     * Reports the members of a cluster in a result reported by dbscan:last-result as agentset.
+     * 
+     * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+     */
+    public static class DbscanMembers implements Reporter {
+
+        @Override
+        public Syntax getSyntax() {
+            // Inputs: clustering result, cluster number
+            int[] input = new int[] {Syntax.WildcardType(), Syntax.NumberType()};
+            int ret = Syntax.AgentsetType();
+            return SyntaxJ.reporterSyntax(input, ret);
+        }
+
+        @Override
+        public Object report(final Argument[] args, final Context ctx)
+                throws ExtensionException, LogoException {
+
+            ClusterAssignment assignment = assignmentOf(args[0]);
+            return assignment.members(clusterNumberOf(assignment, args[1]));
+        }
+    }
+
+    /**
+     * Reports the number of clusters in a result reported by dbscan:last-result.
+     * 
+     * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+     */
+    public static class DbscanClusterCount implements Reporter {
+
+        @Override
+        public Syntax getSyntax() {
+            // Input: clustering result
+            int[] input = new int[] {Syntax.WildcardType()};
+            int ret = Syntax.NumberType();
+            return SyntaxJ.reporterSyntax(input, ret);
+        }
+
+        @Override
+        public Object report(final Argument[] args, final Context ctx)
+                throws ExtensionException, LogoException {
+            return Double.valueOf(assignmentOf(args[0]).clusterCount());
+        }
+    }
+
+    private static ClusterAssignment assignmentOf(final Argument argument) throws ExtensionException, LogoException {
+        Object assignment = argument.get();
+        if (!(assignment instanceof ClusterAssignment)) {
+            throw new ExtensionException(DBSCANExtensionErrors.ERROR_INVALID_RESULT);
+        }
+        return (ClusterAssignment) assignment;
+    }
+
+    private static int clusterNumberOf(final ClusterAssignment assignment, final Argument argument)
+            throws ExtensionException, LogoException {
+        double cluster = argument.getDoubleValue();
+        if (!assignment.isCluster(cluster)) {
+            throw new ExtensionException(DBSCANExtensionErrors.errorInvalidClusterNumber(argument.get(),
+                    assignment.clusterCount()));
         }
+        return (int) cluster;
     }
 
 }
@@ -14,6 +14,7 @@ public final class DBSCANExtensionErrors {
     public static final String ERROR_MISSING_INPUT_DATA = "Clustering input data (e.g., turtles, patches) has not been provided (or is empty).";
     public static final String ERROR_NULL_INPUT_DATA = "Clustering input data (e.g., turtles, patches) contains null values.";
     public static final String ERROR_MISSING_CLUSTER_VARIABLE = "Cluster variable has not been specified.";
+    public static final String ERROR_MISSING_LABEL_VARIABLE = "Variable to store cluster numbers in has not been specified.";
     public static final String ERROR_INVALID_MINIMUM_NUMBER_OF_ELEMENTS = "Minimum number of cluster elements cannot be smaller than 2.";
     public static final String ERROR_MISSING_MINIMUM_NUMBER_OF_ELEMENTS = "Minimum number of cluster elements has not been specified.";
     public static final String ERROR_NEGATIVE_MAXIMUM_DISTANCE_OF_ELEMENTS = "Maximum distance of cluster variable values cannot be negative.";
@@ -21,9 +22,58 @@ public final class DBSCANExtensionErrors {
     public static final String ERROR_MODEL_CONTEXT_INACCESSIBLE = "NetLogo model context could not be accessed.";
     public static final String ERROR_CLUSTER_PATCHES_NOT_SUPPORTED_IN_NETLOGO_5 = "Clustering of patches by variables is not supported for NetLogo 5 version of the DBSCAN extension. " +
             "Upgrade to NetLogo 6 or higher to use this feature.";
+    public static final String ERROR_MISSING_GROUPING_VARIABLE = "Grouping variable has not been specified (required when clustering groups of an agentset).";
+    public static final String ERROR_GROUPING_VARIABLE_FOR_LIST = "Grouping variable cannot be specified when clustering a list of agentsets.";
+    public static final String ERROR_MULTIPLE_GROUPING_VARIABLES = "Only a single grouping variable can be specified.";
+    public static final String ERROR_MULTIPLE_METRICS = "Only a single distance metric can be specified.";
+    public static final String ERROR_NO_PREVIOUS_CLUSTERING = "No clustering has been performed (since the last clear-all).";
+    public static final String ERROR_INVALID_CLUSTER_ORDERING = "Input is not a cluster ordering (as reported by dbscan:optics).";
+    public static final String ERROR_INVALID_SESSION = "Input is not a clustering session (as reported by dbscan:make-session).";
+    public static final String ERROR_INVALID_RESULT = "Input is not a clustering result (as reported by dbscan:last-result).";
+    public static final String ERROR_INVALID_TRACKER = "Input is not a cluster tracker (as reported by dbscan:make-tracker).";
+    public static final String ERROR_SUMMARIES_OF_LINKS = "Cluster summaries require clusters of turtles or patches (links have no location).";
+    public static final String ERROR_MULTIPLE_SUMMARY_VARIABLES = "Only a single variable can be summarised.";
+    public static final String ERROR_NETWORK_OF_NON_TURTLES = "Clustering by network requires turtles (as nodes of the network).";
+    public static final String ERROR_INVALID_NETWORK_LINKS = "Network links have not been provided as agentset of links (e.g., a link breed).";
+    public static final String ERROR_NEGATIVE_MAXIMUM_HOPS = "Maximum number of hops between cluster elements cannot be negative.";
+    public static final String ERROR_INVALID_NEIGHBOUR_RANK = "Number of neighbours k must be at least 1 and smaller than the number of agents.";
+    public static final String ERROR_INVALID_PARALLELISM = "Parallelism must be between 1 and " + DBSCANExtensionState.MAX_PARALLELISM + ".";
+
+    public static final String errorInvalidAgentSetGroup(Object group) {
+        return "Group " + group + " is not an agentset.";
+    }
+
+    public static final String errorInvalidClusterNumber(Object cluster, int clusters) {
+        return "Cluster " + cluster + " does not exist (clusters are numbered from 0 to " + (clusters - 1) + ").";
+    }
+
+    public static final String errorAgentNotClustered(Object agent) {
+        return "Agent " + agent + " has not been clustered.";
+    }
 
     public static final String errorVariableCouldNotBeFound(String variable) {
         return "Patch variable " + variable + " could not be found.";
     }
 
+    public static final String errorBreedVariableCouldNotBeFound(String breed, String variable) {
+        return breed + " breed does not own variable " + variable;
+    }
+
+    public static final String errorInvalidClusterVariable(Object variable) {
+        return "Cluster variable " + variable + " is not a valid variable name.";
+    }
+
+    public static final String errorUnknownMetric(String metric) {
+        return "Unknown distance metric " + metric + " (supported metrics: euclidean, manhattan, chebyshev).";
+    }
+
+    public static final String errorExtractionDistanceExceedsOrdering(double distance, double orderingDistance) {
+        return "Maximum distance " + distance + " exceeds the maximum distance the cluster ordering has been computed for (" +
+                orderingDistance + ").";
+    }
+
+    public static final String errorNonNumericVariableValue(String variable, Object agent, Object value) {
+        return "Variable " + variable + " of " + agent + " does not hold a numeric value (value: " + value + ").";
+    }
+
 }
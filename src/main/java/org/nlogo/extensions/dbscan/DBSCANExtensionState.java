@@ -0,0 +1,211 @@
+package org.nlogo.extensions.dbscan;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.nlogo.api.ExtensionException;
+import org.nlogo.extensions.dbscan.engine.IncrementalLocationDBSCAN;
+import org.nlogo.extensions.dbscan.engine.WorldTopology;
+
+/**
+ * Extension-wide state shared by the primitives of the DBSCAN extension
+ * (e.g., the degree of parallelism used for clustering, or clustering state
+ * retained across ticks in incremental mode).
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public final class DBSCANExtensionState {
+
+    /**
+     * Maximum parallelism supported by {@link ForkJoinPool}.
+     */
+    public static final int MAX_PARALLELISM = 0x7fff;
+
+    private int parallelism = 1;
+    private ForkJoinPool pool;
+
+    private boolean strictMath = false;
+
+    private ClusteringResult lastResult;
+    private ClusteringStats lastStats;
+    private boolean profiling = false;
+
+    private boolean incremental = false;
+    private IncrementalLocationDBSCAN incrementalLocation;
+    private boolean incrementalPatches;
+
+    /**
+     * Sets the number of threads used for clustering. A parallelism of 1 (default)
+     * performs clustering sequentially on the calling thread.
+     *
+     * @param parallelism Number of threads
+     * @throws ExtensionException if parallelism is out of range
+     */
+    public synchronized void setParallelism(final int parallelism) throws ExtensionException {
+        if (parallelism < 1 || parallelism > MAX_PARALLELISM) {
+            throw new ExtensionException(DBSCANExtensionErrors.ERROR_INVALID_PARALLELISM);
+        }
+        if (parallelism != this.parallelism) {
+            shutdown();
+            this.parallelism = parallelism;
+        }
+    }
+
+    public synchronized int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Returns the pool used for parallel clustering (created on first use).
+     *
+     * @return Fork-join pool, or null if clustering is to be performed sequentially
+     */
+    public synchronized ForkJoinPool pool() {
+        if (parallelism <= 1) {
+            return null;
+        }
+        if (pool == null) {
+            pool = new ForkJoinPool(parallelism);
+        }
+        return pool;
+    }
+
+    /**
+     * Enables or disables strict math for clustering by location. In strict mode, distances
+     * are computed using StrictMath (as by the extension's distance metrics) for every comparison,
+     * instead of comparing squared distances. Both yield identical results; strict mode
+     * guarantees this by construction (e.g., when comparing results across platforms).
+     *
+     * @param strictMath Indicates whether distances are to be computed using StrictMath
+     */
+    public synchronized void setStrictMath(final boolean strictMath) {
+        this.strictMath = strictMath;
+    }
+
+    public synchronized boolean isStrictMath() {
+        return strictMath;
+    }
+
+    /**
+     * Enables or disables profiling of clustering operations. When profiling, the time spent in
+     * neighbourhood lookups is measured separately from the remaining clustering time (which
+     * slows down clustering with cheap lookups noticeably).
+     *
+     * @param profiling Indicates whether neighbourhood lookups are to be timed
+     */
+    public synchronized void setProfiling(final boolean profiling) {
+        this.profiling = profiling;
+    }
+
+    public synchronized boolean isProfiling() {
+        return profiling;
+    }
+
+    /**
+     * Enables or disables incremental clustering by location. In incremental mode, the
+     * clustering state of the previous call is retained and updated based on the agents
+     * that have been added, removed or moved since.
+     *
+     * @param incremental Indicates whether clustering is to be performed incrementally
+     */
+    public synchronized void setIncremental(final boolean incremental) {
+        this.incremental = incremental;
+        if (!incremental) {
+            incrementalLocation = null;
+        }
+    }
+
+    public synchronized boolean isIncremental() {
+        return incremental;
+    }
+
+    /**
+     * Returns the incremental location clustering for the given parameters. The clustering
+     * of the previous call is reused if parameters match, and replaced otherwise.
+     *
+     * @param maxDistance Maximum distance between neighbouring agents
+     * @param minNumberOfElements Minimum number of agents in a neighbourhood to constitute a core point
+     * @param topology Topology used for distance calculation and describing the world bounds
+     * @param patches Indicates whether patches (as opposed to turtles) are clustered
+     * @return Incremental clustering
+     */
+    public synchronized IncrementalLocationDBSCAN incrementalLocation(final double maxDistance,
+            final int minNumberOfElements, final WorldTopology topology,
+            final boolean patches) {
+        if (incrementalLocation == null || incrementalPatches != patches
+                || !incrementalLocation.matches(maxDistance, minNumberOfElements, topology, strictMath)) {
+            incrementalLocation = new IncrementalLocationDBSCAN(maxDistance, minNumberOfElements, topology, strictMath);
+            incrementalPatches = patches;
+        }
+        return incrementalLocation;
+    }
+
+    /**
+     * Retains the result of the most recent clustering operation.
+     *
+     * @param result Clustering result
+     */
+    public synchronized void setLastResult(final ClusteringResult result) {
+        this.lastResult = result;
+        this.lastStats = null;
+    }
+
+    /**
+     * Retains the statistics of the most recent clustering operation (set after its result).
+     *
+     * @param stats Clustering statistics
+     */
+    public synchronized void setLastStats(final ClusteringStats stats) {
+        this.lastStats = stats;
+    }
+
+    /**
+     * Returns the statistics of the most recent clustering operation.
+     *
+     * @return Clustering statistics
+     * @throws ExtensionException if no clustering has been performed (since clear-all)
+     */
+    public synchronized ClusteringStats getLastStats() throws ExtensionException {
+        if (lastStats == null) {
+            throw new ExtensionException(DBSCANExtensionErrors.ERROR_NO_PREVIOUS_CLUSTERING);
+        }
+        return lastStats;
+    }
+
+    /**
+     * Returns the result of the most recent clustering operation.
+     *
+     * @return Clustering result
+     * @throws ExtensionException if no clustering has been performed (since clear-all)
+     */
+    public synchronized ClusteringResult getLastResult() throws ExtensionException {
+        if (lastResult == null) {
+            throw new ExtensionException(DBSCANExtensionErrors.ERROR_NO_PREVIOUS_CLUSTERING);
+        }
+        return lastResult;
+    }
+
+    /**
+     * Discards clustering state retained across calls (e.g., when the world is cleared,
+     * as agent ids may be reused afterwards).
+     */
+    public synchronized void clear() {
+        incrementalLocation = null;
+        lastResult = null;
+        lastStats = null;
+    }
+
+    /**
+     * Releases threads held by the extension (e.g., when the extension is unloaded).
+     */
+    public synchronized void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+}
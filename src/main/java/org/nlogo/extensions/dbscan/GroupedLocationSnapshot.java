@@ -0,0 +1,186 @@
+package org.nlogo.extensions.dbscan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.nlogo.api.Agent;
+import org.nlogo.api.AgentSet;
+import org.nlogo.api.ExtensionException;
+import org.nlogo.core.Program;
+
+/**
+ * Snapshot of agent (turtle, patch) locations partitioned into groups, which are clustered
+ * separately (e.g., one group per breed). Locations are read once per agent into primitive
+ * arrays per group (in iteration order within each group).
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public final class GroupedLocationSnapshot {
+
+    private final Agent[][] agents;
+    private final double[][] xs;
+    private final double[][] ys;
+    private final Object[] groupValues;
+
+    private GroupedLocationSnapshot(final Agent[][] agents, final double[][] xs, final double[][] ys,
+            final Object[] groupValues) {
+        this.agents = agents;
+        this.xs = xs;
+        this.ys = ys;
+        this.groupValues = groupValues;
+    }
+
+    /**
+     * Reads the locations of the agents of each given agentset (one group per agentset).
+     *
+     * @param agentSets Agentsets (turtles or patches); may be empty
+     * @return Grouped location snapshot
+     * @throws ExtensionException if an agentset contains null values
+     */
+    public static GroupedLocationSnapshot ofAgentSets(final List<AgentSet> agentSets) throws ExtensionException {
+        final int groups = agentSets.size();
+        final Agent[][] agents = new Agent[groups][];
+        final double[][] xs = new double[groups][];
+        final double[][] ys = new double[groups][];
+        for (int g = 0; g < groups; g++) {
+            final AgentSet agentSet = agentSets.get(g);
+            Agent[] groupAgents = new Agent[agentSet.count()];
+            double[] groupXs = new double[groupAgents.length];
+            double[] groupYs = new double[groupAgents.length];
+            int size = 0;
+            for (Agent agent: agentSet.agents()) {
+                if (agent == null) {
+                    throw new ExtensionException(DBSCANExtensionErrors.ERROR_NULL_INPUT_DATA);
+                }
+                groupAgents[size] = agent;
+                LocationSnapshot.readLocation(agent, size, groupXs, groupYs);
+                size++;
+            }
+            if (size < groupAgents.length) {
+                groupAgents = Arrays.copyOf(groupAgents, size);
+                groupXs = Arrays.copyOf(groupXs, size);
+                groupYs = Arrays.copyOf(groupYs, size);
+            }
+            agents[g] = groupAgents;
+            xs[g] = groupXs;
+            ys[g] = groupYs;
+        }
+        return new GroupedLocationSnapshot(agents, xs, ys, null);
+    }
+
+    /**
+     * Reads the locations of all agents in the given agentset, grouped by the value of the given
+     * variable. Groups are ordered by the first occurrence of their value (in iteration order).
+     *
+     * @param inputValues Agentset (turtles or patches); must not be empty
+     * @param field Upper-case name of turtle/breed variable (ignored for patches)
+     * @param patchFieldIndex Index of patch variable for patches, -1 for turtles
+     * @param program Program of the model (used to resolve variable indices)
+     * @return Grouped location snapshot
+     * @throws ExtensionException if the agentset contains null values or the variable cannot be accessed
+     */
+    public static GroupedLocationSnapshot byVariable(final AgentSet inputValues, final String field,
+            final int patchFieldIndex, final Program program) throws ExtensionException {
+
+        // Read locations and determine group of each agent (in iteration order)
+        Agent[] all = new Agent[inputValues.count()];
+        double[] allXs = new double[all.length];
+        double[] allYs = new double[all.length];
+        int[] groupOf = new int[all.length];
+        final Map<Object, Integer> groupIndices = new HashMap<>();
+        final List<Object> values = new ArrayList<>();
+        final VariableSnapshot.Reader reader = new VariableSnapshot.Reader(field, patchFieldIndex, program);
+        int size = 0;
+        for (Agent agent: inputValues.agents()) {
+            if (agent == null) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_NULL_INPUT_DATA);
+            }
+            Object value = reader.read((org.nlogo.agent.Agent) agent);
+            if (value instanceof Double && (Double) value == 0) {
+                // NetLogo considers 0 and -0 equal
+                value = Double.valueOf(0);
+            }
+            Integer group = groupIndices.get(value);
+            if (group == null) {
+                group = values.size();
+                groupIndices.put(value, group);
+                values.add(value);
+            }
+            all[size] = agent;
+            LocationSnapshot.readLocation(agent, size, allXs, allYs);
+            groupOf[size] = group;
+            size++;
+        }
+
+        // Distribute agents to groups
+        final int groups = values.size();
+        final int[] counts = new int[groups];
+        for (int i = 0; i < size; i++) {
+            counts[groupOf[i]]++;
+        }
+        final Agent[][] agents = new Agent[groups][];
+        final double[][] xs = new double[groups][];
+        final double[][] ys = new double[groups][];
+        for (int g = 0; g < groups; g++) {
+            agents[g] = new Agent[counts[g]];
+            xs[g] = new double[counts[g]];
+            ys[g] = new double[counts[g]];
+        }
+        final int[] fill = new int[groups];
+        for (int i = 0; i < size; i++) {
+            final int g = groupOf[i];
+            final int position = fill[g]++;
+            agents[g][position] = all[i];
+            xs[g][position] = allXs[i];
+            ys[g][position] = allYs[i];
+        }
+        return new GroupedLocationSnapshot(agents, xs, ys, values.toArray());
+    }
+
+    public int groups() {
+        return agents.length;
+    }
+
+    public Agent[] agents(final int group) {
+        return agents[group];
+    }
+
+    public double[] xs(final int group) {
+        return xs[group];
+    }
+
+    public double[] ys(final int group) {
+        return ys[group];
+    }
+
+    public int size(final int group) {
+        return agents[group].length;
+    }
+
+    /**
+     * Returns the variable value shared by the agents of the given group.
+     *
+     * @param group Group index
+     * @return Variable value, or null if groups have been given as agentsets
+     */
+    public Object groupValue(final int group) {
+        return groupValues == null ? null : groupValues[group];
+    }
+
+    /**
+     * Indicates whether groups have been determined by a variable (as opposed to given as agentsets).
+     *
+     * @return true if grouped by variable
+     */
+    public boolean isGroupedByVariable() {
+        return groupValues != null;
+    }
+
+}
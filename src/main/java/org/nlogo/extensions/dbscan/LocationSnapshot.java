@@ -0,0 +1,147 @@
+package org.nlogo.extensions.dbscan;
+
+import java.util.Arrays;
+
+import org.nlogo.api.Agent;
+import org.nlogo.api.AgentSet;
+import org.nlogo.api.AgentVariableNumbers;
+import org.nlogo.api.ExtensionException;
+import org.nlogo.api.Patch;
+import org.nlogo.api.Turtle;
+
+/**
+ * Snapshot of agent (turtle, patch) locations. Coordinates are read once per agent
+ * into primitive arrays so that clustering operates on array indices only. Agents
+ * are retained to map clustering results back to agents.
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public final class LocationSnapshot {
+
+    private final Agent[] agents;
+    private final double[] xs;
+    private final double[] ys;
+    private final boolean patches;
+
+    private LocationSnapshot(final Agent[] agents, final double[] xs, final double[] ys, final boolean patches) {
+        this.agents = agents;
+        this.xs = xs;
+        this.ys = ys;
+        this.patches = patches;
+    }
+
+    /**
+     * Reads the locations of all agents in the given agentset (in iteration order).
+     *
+     * @param inputValues Agentset (turtles or patches); must not be empty
+     * @return Location snapshot
+     * @throws ExtensionException if the agentset contains null values
+     */
+    public static LocationSnapshot of(final AgentSet inputValues) throws ExtensionException {
+
+        Agent[] agents = new Agent[inputValues.count()];
+        int size = 0;
+        for (Agent agent: inputValues.agents()) {
+            if (agent == null) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_NULL_INPUT_DATA);
+            }
+            agents[size++] = agent;
+        }
+        if (size == 0) {
+            throw new ExtensionException(DBSCANExtensionErrors.ERROR_NULL_INPUT_DATA);
+        }
+        if (size < agents.length) {
+            agents = Arrays.copyOf(agents, size);
+        }
+
+        // Check for patches
+        boolean patches = agents[0] instanceof Patch;
+
+        // Read coordinates once
+        double[] xs = new double[size];
+        double[] ys = new double[size];
+        for (int i = 0; i < size; i++) {
+            readLocation(agents[i], i, xs, ys);
+        }
+        return new LocationSnapshot(agents, xs, ys, patches);
+    }
+
+    /**
+     * Reads the location of the given agent into the given coordinate arrays.
+     *
+     * @param agent Agent (turtle or patch)
+     * @param index Index at which coordinates are stored
+     * @param xs x coordinates
+     * @param ys y coordinates
+     */
+    static void readLocation(final Agent agent, final int index, final double[] xs, final double[] ys) {
+        if (agent instanceof Turtle) {
+            xs[index] = ((Turtle) agent).xcor();
+            ys[index] = ((Turtle) agent).ycor();
+        } else if (agent instanceof Patch) {
+            xs[index] = ((Patch) agent).pxcor();
+            ys[index] = ((Patch) agent).pycor();
+        } else {
+            xs[index] = (double) agent.getVariable(AgentVariableNumbers.VAR_XCOR);
+            ys[index] = (double) agent.getVariable(AgentVariableNumbers.VAR_YCOR);
+        }
+    }
+
+    /**
+     * Returns all agents (in snapshot order).
+     *
+     * @return Agents
+     */
+    public Agent[] agents() {
+        return agents;
+    }
+
+    /**
+     * Returns the agent at the given index.
+     *
+     * @param index Index of agent in snapshot
+     * @return Agent
+     */
+    public Agent agent(final int index) {
+        return agents[index];
+    }
+
+    /**
+     * Returns the ids of all agents (e.g., to identify agents across snapshots).
+     *
+     * @return Agent ids (in snapshot order)
+     */
+    public long[] ids() {
+        long[] ids = new long[agents.length];
+        for (int i = 0; i < agents.length; i++) {
+            ids[i] = agents[i].id();
+        }
+        return ids;
+    }
+
+    public double[] xs() {
+        return xs;
+    }
+
+    public double[] ys() {
+        return ys;
+    }
+
+    public int size() {
+        return agents.length;
+    }
+
+    /**
+     * Indicates whether the snapshot contains patches (as opposed to turtles).
+     *
+     * @return true if snapshot contains patches
+     */
+    public boolean isPatches() {
+        return patches;
+    }
+
+}
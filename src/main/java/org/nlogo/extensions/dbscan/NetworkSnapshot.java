@@ -0,0 +1,109 @@
+package org.nlogo.extensions.dbscan;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.nlogo.api.Agent;
+import org.nlogo.api.AgentSet;
+import org.nlogo.api.ExtensionException;
+import org.nlogo.api.Link;
+import org.nlogo.api.Turtle;
+
+/**
+ * Snapshot of a network of turtles: the turtles (in iteration order) and the links between
+ * them, each given by the snapshot indices of its ends. Links with an end outside the
+ * snapshot's turtles are ignored.
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public final class NetworkSnapshot {
+
+    private final Agent[] agents;
+    private final int[] ends1;
+    private final int[] ends2;
+    private final int links;
+
+    private NetworkSnapshot(final Agent[] agents, final int[] ends1, final int[] ends2, final int links) {
+        this.agents = agents;
+        this.ends1 = ends1;
+        this.ends2 = ends2;
+        this.links = links;
+    }
+
+    /**
+     * Reads the given turtles and the links between them.
+     *
+     * @param inputValues Turtles; must not be empty
+     * @param linkSet Links (e.g., of a link breed)
+     * @return Network snapshot
+     * @throws ExtensionException if the agentsets contain null values or agents other than turtles and links respectively
+     */
+    public static NetworkSnapshot of(final AgentSet inputValues, final AgentSet linkSet) throws ExtensionException {
+
+        final Agent[] agents = new Agent[inputValues.count()];
+        final Map<Agent, Integer> indices = new IdentityHashMap<>(agents.length);
+        int size = 0;
+        for (Agent agent: inputValues.agents()) {
+            if (agent == null) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_NULL_INPUT_DATA);
+            }
+            if (!(agent instanceof Turtle)) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_NETWORK_OF_NON_TURTLES);
+            }
+            indices.put(agent, size);
+            agents[size++] = agent;
+        }
+        if (size == 0) {
+            throw new ExtensionException(DBSCANExtensionErrors.ERROR_NULL_INPUT_DATA);
+        }
+
+        final int[] ends1 = new int[linkSet.count()];
+        final int[] ends2 = new int[ends1.length];
+        int links = 0;
+        for (Agent agent: linkSet.agents()) {
+            if (!(agent instanceof Link)) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_INVALID_NETWORK_LINKS);
+            }
+            final Integer end1 = indices.get(((Link) agent).end1());
+            final Integer end2 = indices.get(((Link) agent).end2());
+            if (end1 != null && end2 != null) {
+                ends1[links] = end1;
+                ends2[links] = end2;
+                links++;
+            }
+        }
+        return new NetworkSnapshot(size < agents.length ? Arrays.copyOf(agents, size) : agents,
+                ends1, ends2, links);
+    }
+
+    /**
+     * Returns all turtles (in snapshot order).
+     *
+     * @return Turtles
+     */
+    public Agent[] agents() {
+        return agents;
+    }
+
+    public int[] ends1() {
+        return ends1;
+    }
+
+    public int[] ends2() {
+        return ends2;
+    }
+
+    public int links() {
+        return links;
+    }
+
+    public int size() {
+        return agents.length;
+    }
+
+}
@@ -0,0 +1,275 @@
+package org.nlogo.extensions.dbscan;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.nlogo.agent.Agent;
+import org.nlogo.api.AgentException;
+import org.nlogo.api.AgentSet;
+import org.nlogo.api.ExtensionException;
+import org.nlogo.api.Link;
+import org.nlogo.api.Patch;
+import org.nlogo.api.Turtle;
+import org.nlogo.core.Breed;
+import org.nlogo.core.Program;
+
+import scala.Option;
+import scala.collection.immutable.Seq;
+
+/**
+ * Snapshot of numeric agent (turtle, patch) variable values. Each agent's value is
+ * read and converted once into a primitive array so that clustering does not need
+ * to access (and convert) agent variables for every pairwise comparison. Turtle and
+ * link variables are read by index, which is resolved once per breed.
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public final class VariableSnapshot {
+
+    private final Agent[] agents;
+    private final double[] values;
+
+    private VariableSnapshot(final Agent[] agents, final double[] values) {
+        this.agents = agents;
+        this.values = values;
+    }
+
+    /**
+     * Reads the variable values of all agents in the given agentset (in iteration order).
+     * For turtles and links the variable's index is resolved once per breed; values are
+     * then read by index.
+     *
+     * @param inputValues Agentset (turtles, links or patches); must not be empty
+     * @param field Upper-case name of turtle/link/breed variable (ignored for patches)
+     * @param patchFieldIndex Index of patch variable for patches, -1 for turtles and links
+     * @param program Program of the model (used to resolve variable indices)
+     * @return Variable snapshot
+     * @throws ExtensionException if variable cannot be accessed or holds non-numeric values
+     */
+    public static VariableSnapshot of(final AgentSet inputValues, final String field, final int patchFieldIndex,
+            final Program program) throws ExtensionException {
+
+        Agent[] agents = new Agent[inputValues.count()];
+        double[] values = new double[agents.length];
+        Reader reader = new Reader(field, patchFieldIndex, program);
+        int size = 0;
+        for (org.nlogo.api.Agent element: inputValues.agents()) {
+            if (element == null) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_NULL_INPUT_DATA);
+            }
+            Agent agent = (Agent) element;
+            agents[size] = agent;
+            values[size] = toDouble(reader.read(agent), agent, field);
+            size++;
+        }
+        if (size < agents.length) {
+            agents = Arrays.copyOf(agents, size);
+            values = Arrays.copyOf(values, size);
+        }
+        return new VariableSnapshot(agents, values);
+    }
+
+    /**
+     * Reads the variable of the cluster members of the given clustering result, which may
+     * hold turtles and patches (see {@link ClusteringResult#combine(java.util.List)}).
+     *
+     * @param result Clustering result of turtles and/or patches
+     * @param field Upper-case name of turtle/breed or patch variable
+     * @param program Program of the model (used to resolve variable indices)
+     * @return Variable value of each cluster member (by snapshot index, 0 for agents not belonging to any cluster)
+     * @throws ExtensionException if variable cannot be accessed or holds non-numeric values
+     */
+    static double[] ofMembers(final ClusteringResult result, final String field, final Program program)
+            throws ExtensionException {
+        final double[] values = new double[result.size()];
+        Reader turtleReader = null;
+        Reader patchReader = null;
+        for (int[] cluster: result.clusters()) {
+            for (int member: cluster) {
+                final Agent agent = (Agent) result.agent(member);
+                final Reader reader;
+                if (agent instanceof Patch) {
+                    if (patchReader == null) {
+                        final int patchFieldIndex = program.patchesOwn().toList().indexOf(field);
+                        if (patchFieldIndex < 0) {
+                            throw new ExtensionException(DBSCANExtensionErrors.errorVariableCouldNotBeFound(field));
+                        }
+                        patchReader = new Reader(field, patchFieldIndex, program);
+                    }
+                    reader = patchReader;
+                } else {
+                    if (turtleReader == null) {
+                        turtleReader = new Reader(field, -1, program);
+                    }
+                    reader = turtleReader;
+                }
+                values[member] = toDouble(reader.read(agent), agent, field);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Reads the value of a variable from agents of any breed (or patches). For turtles and
+     * links the variable's index is resolved once per breed; values are then read by index.
+     */
+    static final class Reader {
+
+        private final String field;
+        private final int patchFieldIndex;
+        private final Program program;
+        // Variable index per breed; agentsets usually contain a single breed, hence the last resolved one is cached
+        private final Map<AgentSet, Integer> breedFieldIndices = new IdentityHashMap<>();
+        private AgentSet lastBreed = null;
+        private int lastFieldIndex = -1;
+
+        /**
+         * Instantiates reader.
+         *
+         * @param field Upper-case name of turtle/link/breed variable (ignored for patches)
+         * @param patchFieldIndex Index of patch variable for patches, -1 for turtles and links
+         * @param program Program of the model (used to resolve variable indices)
+         */
+        Reader(final String field, final int patchFieldIndex, final Program program) {
+            this.field = field;
+            this.patchFieldIndex = patchFieldIndex;
+            this.program = program;
+        }
+
+        /**
+         * Reads the variable value of the given agent.
+         *
+         * @param agent Agent
+         * @return Variable value
+         * @throws ExtensionException if variable cannot be accessed
+         */
+        Object read(final Agent agent) throws ExtensionException {
+            if (patchFieldIndex >= 0) {
+                try {
+                    // Access patch variables by index
+                    return agent.getPatchVariable(patchFieldIndex);
+                } catch (ArrayIndexOutOfBoundsException | AgentException e) {
+                    throw new ExtensionException(e.getClass().getName() +
+                            " when accessing patch variable " + patchFieldIndex + ". Message: " + e.getMessage());
+                }
+            }
+            AgentSet breed = breedOf(agent);
+            if (breed != lastBreed || lastFieldIndex < 0) {
+                Integer fieldIndex = breedFieldIndices.get(breed);
+                if (fieldIndex == null) {
+                    fieldIndex = resolveFieldIndex(program, breed, agent instanceof Link, field);
+                    breedFieldIndices.put(breed, fieldIndex);
+                }
+                lastBreed = breed;
+                lastFieldIndex = fieldIndex;
+            }
+            return agent.getVariable(lastFieldIndex);
+        }
+    }
+
+    /**
+     * Resolves the index of the given turtle/link variable, considering variables owned
+     * by all turtles/links first, before looking at breed-owned variables.
+     *
+     * @param program Program of the model
+     * @param breed Breed (agentset) of the agent
+     * @param link Indicates whether variable is a link (as opposed to a turtle) variable
+     * @param field Upper-case variable name
+     * @return Index of variable
+     * @throws ExtensionException if variable is not owned by breed
+     */
+    static int resolveFieldIndex(final Program program, final AgentSet breed, final boolean link, final String field)
+            throws ExtensionException {
+        Seq<String> owned = link ? program.linksOwn() : program.turtlesOwn();
+        // Check on turtle level first ...
+        int index = owned.toList().indexOf(field);
+        if (index >= 0) {
+            return index;
+        }
+        // ... before looking at breed level (breed variables follow turtle/link variables)
+        String breedName = breed == null ? null : breed.printName();
+        if (breedName != null) {
+            Option<Breed> breedDefinition = (link ? program.linkBreeds() : program.breeds()).get(breedName);
+            if (breedDefinition.isDefined()) {
+                index = breedDefinition.get().owns().toList().indexOf(field);
+                if (index >= 0) {
+                    return owned.size() + index;
+                }
+            }
+        }
+        throw new ExtensionException(DBSCANExtensionErrors.errorBreedVariableCouldNotBeFound(breedName, field));
+    }
+
+    static AgentSet breedOf(final Agent agent) {
+        if (agent instanceof Turtle) {
+            return ((Turtle) agent).getBreed();
+        }
+        if (agent instanceof Link) {
+            return ((Link) agent).getBreed();
+        }
+        return null;
+    }
+
+    /**
+     * Converts variable value to primitive double. Values that are already numbers
+     * are converted directly; all others are parsed from their string representation.
+     *
+     * @param value Variable value
+     * @param agent Agent holding the value (for error reporting)
+     * @param field Variable name (for error reporting)
+     * @return Numeric value
+     * @throws ExtensionException if value is not numeric
+     */
+    static double toDouble(final Object value, final org.nlogo.api.Agent agent, final String field)
+            throws ExtensionException {
+        double result;
+        if (value instanceof Double) {
+            result = (Double) value;
+        } else if (value instanceof Number) {
+            result = ((Number) value).doubleValue();
+        } else {
+            try {
+                result = value == null ? Double.NaN : Double.parseDouble(value.toString());
+            } catch (NumberFormatException e) {
+                result = Double.NaN;
+            }
+        }
+        if (Double.isNaN(result) || Double.isInfinite(result)) {
+            throw new ExtensionException(DBSCANExtensionErrors.errorNonNumericVariableValue(field, agent, value));
+        }
+        return result;
+    }
+
+    /**
+     * Returns all agents (in snapshot order).
+     *
+     * @return Agents
+     */
+    public Agent[] agents() {
+        return agents;
+    }
+
+    /**
+     * Returns the agent at the given index.
+     *
+     * @param index Index of agent in snapshot
+     * @return Agent
+     */
+    public Agent agent(final int index) {
+        return agents[index];
+    }
+
+    public double[] values() {
+        return values;
+    }
+
+    public int size() {
+        return agents.length;
+    }
+
+}
@@ -0,0 +1,142 @@
+package org.nlogo.extensions.dbscan;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.nlogo.agent.Agent;
+import org.nlogo.api.AgentException;
+import org.nlogo.api.AgentSet;
+import org.nlogo.api.ExtensionException;
+import org.nlogo.api.Link;
+import org.nlogo.core.Program;
+
+/**
+ * Snapshot of several numeric agent (turtle, patch) variables. The values of each agent
+ * are read and converted once into a contiguous primitive array holding one row per agent
+ * (i.e., variable k of agent i is located at index i * dimensions + k). Turtle and link
+ * variables are read by index, which is resolved once per breed.
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public final class VectorSnapshot {
+
+    private final Agent[] agents;
+    private final double[] values;
+    private final int dimensions;
+
+    private VectorSnapshot(final Agent[] agents, final double[] values, final int dimensions) {
+        this.agents = agents;
+        this.values = values;
+        this.dimensions = dimensions;
+    }
+
+    /**
+     * Reads the variable values of all agents in the given agentset (in iteration order).
+     *
+     * @param inputValues Agentset (turtles, links or patches); must not be empty
+     * @param fields Upper-case names of turtle/link/breed variables (ignored for patches)
+     * @param patchFieldIndices Indices of patch variables for patches, null for turtles and links
+     * @param program Program of the model (used to resolve variable indices)
+     * @return Variable snapshot
+     * @throws ExtensionException if a variable cannot be accessed or holds non-numeric values
+     */
+    public static VectorSnapshot of(final AgentSet inputValues, final String[] fields, final int[] patchFieldIndices,
+            final Program program) throws ExtensionException {
+
+        final int dimensions = fields.length;
+        Agent[] agents = new Agent[inputValues.count()];
+        double[] values = new double[agents.length * dimensions];
+        // Variable indices per breed; agentsets usually contain a single breed, hence the last resolved ones are cached
+        Map<AgentSet, int[]> breedFieldIndices = new IdentityHashMap<>();
+        AgentSet lastBreed = null;
+        int[] lastFieldIndices = null;
+        int size = 0;
+        for (org.nlogo.api.Agent element: inputValues.agents()) {
+            if (element == null) {
+                throw new ExtensionException(DBSCANExtensionErrors.ERROR_NULL_INPUT_DATA);
+            }
+            Agent agent = (Agent) element;
+            if (patchFieldIndices == null) {
+                AgentSet breed = VariableSnapshot.breedOf(agent);
+                if (breed != lastBreed || lastFieldIndices == null) {
+                    int[] fieldIndices = breedFieldIndices.get(breed);
+                    if (fieldIndices == null) {
+                        fieldIndices = new int[dimensions];
+                        for (int k = 0; k < dimensions; k++) {
+                            fieldIndices[k] = VariableSnapshot.resolveFieldIndex(program, breed,
+                                    agent instanceof Link, fields[k]);
+                        }
+                        breedFieldIndices.put(breed, fieldIndices);
+                    }
+                    lastBreed = breed;
+                    lastFieldIndices = fieldIndices;
+                }
+            }
+            final int row = size * dimensions;
+            for (int k = 0; k < dimensions; k++) {
+                Object value;
+                if (patchFieldIndices != null) {
+                    try {
+                        // Access patch variables by index
+                        value = agent.getPatchVariable(patchFieldIndices[k]);
+                    } catch (ArrayIndexOutOfBoundsException | AgentException e) {
+                        throw new ExtensionException(e.getClass().getName() +
+                                " when accessing patch variable " + patchFieldIndices[k] + ". Message: " + e.getMessage());
+                    }
+                } else {
+                    value = agent.getVariable(lastFieldIndices[k]);
+                }
+                values[row + k] = VariableSnapshot.toDouble(value, agent, fields[k]);
+            }
+            agents[size] = agent;
+            size++;
+        }
+        if (size < agents.length) {
+            agents = Arrays.copyOf(agents, size);
+            values = Arrays.copyOf(values, size * dimensions);
+        }
+        return new VectorSnapshot(agents, values, dimensions);
+    }
+
+    /**
+     * Returns all agents (in snapshot order).
+     *
+     * @return Agents
+     */
+    public Agent[] agents() {
+        return agents;
+    }
+
+    /**
+     * Returns the agent at the given index.
+     *
+     * @param index Index of agent in snapshot
+     * @return Agent
+     */
+    public Agent agent(final int index) {
+        return agents[index];
+    }
+
+    /**
+     * Returns the variable values of all agents (row-wise).
+     *
+     * @return Values
+     */
+    public double[] values() {
+        return values;
+    }
+
+    public int dimensions() {
+        return dimensions;
+    }
+
+    public int size() {
+        return agents.length;
+    }
+
+}
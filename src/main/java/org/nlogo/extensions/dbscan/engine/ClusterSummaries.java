@@ -0,0 +1,113 @@
+package org.nlogo.extensions.dbscan.engine;
+
+/**
+ * Summary statistics of clusters of locations: size, centroid, bounding extent and (optionally)
+ * mean and variance of a variable of the clustered points. On axes the world wraps around,
+ * centroids are circular means (the mean angle of the coordinates mapped onto a circle of the
+ * world's extent), so that clusters crossing the world's edge are summarised as their
+ * distances (see {@link WorldTopology#distance(double, double, double, double)}) suggest
+ * rather than by the arithmetic mean of their coordinates. Extents are then measured relative
+ * to the centroid along the shorter way around the world.
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public final class ClusterSummaries {
+
+    public static final int SIZE = 0;
+    public static final int CENTROID_X = 1;
+    public static final int CENTROID_Y = 2;
+    public static final int MIN_X = 3;
+    public static final int MAX_X = 4;
+    public static final int MIN_Y = 5;
+    public static final int MAX_Y = 6;
+    public static final int MEAN = 7;
+    public static final int VARIANCE = 8;
+
+    private ClusterSummaries() {}
+
+    /**
+     * Summarises the given cluster.
+     *
+     * @param members Indices of cluster members (at least one)
+     * @param xs x coordinates of points
+     * @param ys y coordinates of points
+     * @param values Variable values of points, or null if no variable is to be summarised
+     * @param topology World topology
+     * @return Summary indexed by {@link #SIZE}, {@link #CENTROID_X}, ..., {@link #MAX_Y} and, if values have been given, {@link #MEAN} and {@link #VARIANCE} (population variance)
+     */
+    public static double[] of(final int[] members, final double[] xs, final double[] ys, final double[] values,
+            final WorldTopology topology) {
+        final double[] summary = new double[values == null ? MEAN : VARIANCE + 1];
+        summary[SIZE] = members.length;
+        summarise(members, xs, topology.wrapsX(), topology.minX(), topology.width(), summary, CENTROID_X, MIN_X, MAX_X);
+        summarise(members, ys, topology.wrapsY(), topology.minY(), topology.height(), summary, CENTROID_Y, MIN_Y, MAX_Y);
+        if (values != null) {
+            // Welford's algorithm (numerically stable for values with a large common offset)
+            double mean = 0;
+            double squaredDeviations = 0;
+            int count = 0;
+            for (int member: members) {
+                count++;
+                final double delta = values[member] - mean;
+                mean += delta / count;
+                squaredDeviations += delta * (values[member] - mean);
+            }
+            summary[MEAN] = mean;
+            summary[VARIANCE] = squaredDeviations / count;
+        }
+        return summary;
+    }
+
+    private static void summarise(final int[] members, final double[] coordinates, final boolean wraps,
+            final double min, final double extent, final double[] summary, final int centroidIndex,
+            final int minIndex, final int maxIndex) {
+        double lowest = Double.POSITIVE_INFINITY;
+        double highest = Double.NEGATIVE_INFINITY;
+        if (!wraps) {
+            double sum = 0;
+            for (int member: members) {
+                final double coordinate = coordinates[member];
+                sum += coordinate;
+                lowest = Math.min(lowest, coordinate);
+                highest = Math.max(highest, coordinate);
+            }
+            summary[centroidIndex] = sum / members.length;
+            summary[minIndex] = lowest;
+            summary[maxIndex] = highest;
+            return;
+        }
+
+        // Circular mean: mean angle of coordinates mapped onto a circle with the world's extent as circumference
+        final double scale = 2 * Math.PI / extent;
+        double sin = 0;
+        double cos = 0;
+        for (int member: members) {
+            final double angle = (coordinates[member] - min) * scale;
+            sin += Math.sin(angle);
+            cos += Math.cos(angle);
+        }
+        final double centroid = wrap(min + Math.atan2(sin, cos) / scale, min, extent);
+
+        // Extent relative to centroid (taking the shorter way around the world)
+        for (int member: members) {
+            double offset = coordinates[member] - centroid;
+            offset -= extent * Math.floor(offset / extent + 0.5);
+            lowest = Math.min(lowest, offset);
+            highest = Math.max(highest, offset);
+        }
+        summary[centroidIndex] = centroid;
+        summary[minIndex] = wrap(centroid + lowest, min, extent);
+        summary[maxIndex] = wrap(centroid + highest, min, extent);
+    }
+
+    private static double wrap(final double coordinate, final double min, final double extent) {
+        final double wrapped = coordinate - extent * Math.floor((coordinate - min) / extent);
+        // Rounding may yield the (exclusive) upper bound of the world
+        return wrapped >= min + extent ? min : wrapped;
+    }
+
+}
@@ -0,0 +1,137 @@
+package org.nlogo.extensions.dbscan.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Index-based DBSCAN implementation that delegates neighbourhood lookups to a
+ * {@link RegionQuery} (e.g., backed by a spatial index).
+ *
+ * Cluster membership corresponds to the one produced by the DBSCANClusterer of
+ * the underlying DBSCAN library (neighbourhoods include the point itself, border
+ * points are added to every cluster they are reachable from). Clusters are reported
+ * in order of discovery, cluster members in input order.
+ *
+ * Instances retain their working arrays between clusterings (see
+ * {@link #run(RegionQuery, int, boolean[])}), which avoids reallocating them when
+ * clustering populations of similar size repeatedly (e.g., every tick).
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public final class DBSCANEngine {
+
+    private boolean[] visited = new boolean[0];
+    // Cluster (number + 1) a point has last been added to; avoids duplicate members
+    private int[] memberOf = new int[0];
+    private final IntList neighbours = new IntList();
+    private final IntList members = new IntList();
+
+    /**
+     * Instantiates engine with empty working arrays (grown on demand).
+     */
+    public DBSCANEngine() {}
+
+    /**
+     * Performs the clustering of all points accessible via the given region query.
+     *
+     * @param query Neighbourhood lookup for points to be clustered
+     * @param minNumberOfElements Minimum number of points in a neighbourhood to constitute a core point
+     * @return List of clusters, each holding the indices of its members
+     */
+    public static List<int[]> cluster(final RegionQuery query, final int minNumberOfElements) {
+        return cluster(query, minNumberOfElements, null);
+    }
+
+    /**
+     * Performs the clustering of all points accessible via the given region query,
+     * recording which points are core points.
+     *
+     * @param query Neighbourhood lookup for points to be clustered
+     * @param minNumberOfElements Minimum number of points in a neighbourhood to constitute a core point
+     * @param core Array receiving the core point flags (initially false, at least size entries), or null
+     * @return List of clusters, each holding the indices of its members
+     */
+    public static List<int[]> cluster(final RegionQuery query, final int minNumberOfElements,
+            final boolean[] core) {
+        return new DBSCANEngine().run(query, minNumberOfElements, core);
+    }
+
+    /**
+     * Performs the clustering of all points accessible via the given region query using the
+     * working arrays of this engine (not thread-safe).
+     *
+     * @param query Neighbourhood lookup for points to be clustered
+     * @param minNumberOfElements Minimum number of points in a neighbourhood to constitute a core point
+     * @param core Array receiving the core point flags (initially false, at least size entries), or null
+     * @return List of clusters, each holding the indices of its members
+     */
+    public List<int[]> run(final RegionQuery query, final int minNumberOfElements, final boolean[] core) {
+
+        final int size = query.size();
+        if (visited.length < size) {
+            visited = new boolean[size];
+            memberOf = new int[size];
+        } else {
+            Arrays.fill(visited, 0, size, false);
+            Arrays.fill(memberOf, 0, size, 0);
+        }
+        final List<int[]> clusters = new ArrayList<>();
+
+        for (int point = 0; point < size; point++) {
+            if (visited[point]) {
+                continue;
+            }
+            visited[point] = true;
+            neighbours.clear();
+            query.neighbours(point, neighbours);
+            if (neighbours.size() < minNumberOfElements) {
+                continue;
+            }
+            if (core != null) {
+                core[point] = true;
+            }
+
+            final int stamp = clusters.size() + 1;
+            members.clear();
+            for (int i = 0; i < neighbours.size(); i++) {
+                final int neighbour = neighbours.get(i);
+                memberOf[neighbour] = stamp;
+                members.add(neighbour);
+            }
+
+            // Expand cluster; members list doubles as queue
+            for (int i = 0; i < members.size(); i++) {
+                final int member = members.get(i);
+                if (visited[member]) {
+                    continue;
+                }
+                visited[member] = true;
+                neighbours.clear();
+                query.neighbours(member, neighbours);
+                if (neighbours.size() >= minNumberOfElements) {
+                    if (core != null) {
+                        core[member] = true;
+                    }
+                    for (int j = 0; j < neighbours.size(); j++) {
+                        final int neighbour = neighbours.get(j);
+                        if (memberOf[neighbour] != stamp) {
+                            memberOf[neighbour] = stamp;
+                            members.add(neighbour);
+                        }
+                    }
+                }
+            }
+
+            final int[] cluster = members.toArray();
+            Arrays.sort(cluster);
+            clusters.add(cluster);
+        }
+        return clusters;
+    }
+
+}
@@ -0,0 +1,76 @@
+package org.nlogo.extensions.dbscan.engine;
+
+/**
+ * Comparison of location distances against the maximum clustering distance.
+ *
+ * By default, squared distances are compared against the squared maximum distance, so
+ * that no square root needs to be computed for the vast majority of comparisons. Squared
+ * distances within a narrow guard band around the squared maximum distance (where rounding
+ * could affect the outcome) are decided by the exact comparison of the square root. As
+ * the square root is correctly rounded (both in {@link Math} and {@link StrictMath}) and
+ * StrictMath.pow(d, 2) equals d * d, outcomes are identical to those of
+ * {@link WorldTopology#distance(double, double, double, double)}, which is used in
+ * strict mode instead.
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public final class DistanceThreshold {
+
+    /**
+     * Relative width of guard band around the squared maximum distance (orders of
+     * magnitude wider than the rounding error of the squared distances).
+     */
+    private static final double GUARD_BAND = 0x1p-40;
+
+    private final double maxDistance;
+    private final boolean strict;
+    private final double inner;
+    private final double outer;
+
+    /**
+     * Instantiates threshold.
+     *
+     * @param maxDistance Maximum distance between neighbouring points
+     * @param strict Indicates whether distances are to be computed exactly as by the
+     *               StrictMath-based distance metrics (no squared comparison)
+     */
+    public DistanceThreshold(final double maxDistance, final boolean strict) {
+        this.maxDistance = maxDistance;
+        this.strict = strict;
+        final double squared = Math.min(maxDistance * maxDistance, Double.MAX_VALUE);
+        this.inner = squared * (1 - GUARD_BAND);
+        this.outer = squared * (1 + GUARD_BAND);
+    }
+
+    /**
+     * Determines whether two locations are within the maximum distance of each other.
+     *
+     * @param topology Topology used for distance calculation
+     * @param x1 x coordinate of first location
+     * @param y1 y coordinate of first location
+     * @param x2 x coordinate of second location
+     * @param y2 y coordinate of second location
+     * @return true if the distance does not exceed the maximum distance
+     */
+    public boolean within(final WorldTopology topology, final double x1, final double y1,
+            final double x2, final double y2) {
+        if (strict) {
+            return topology.distance(x1, y1, x2, y2) <= maxDistance;
+        }
+        final double squared = topology.squaredDistance(x1, y1, x2, y2);
+        return squared <= inner || (squared <= outer && Math.sqrt(squared) <= maxDistance);
+    }
+
+    public double maxDistance() {
+        return maxDistance;
+    }
+
+    public boolean isStrict() {
+        return strict;
+    }
+
+}
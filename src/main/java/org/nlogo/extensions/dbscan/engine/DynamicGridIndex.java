@@ -0,0 +1,143 @@
+package org.nlogo.extensions.dbscan.engine;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid spatial index supporting insertion and removal of individual points
+ * (slots), as required for incremental clustering. Cells are laid out as in
+ * {@link GridIndex}, but cover the world bounds (instead of the data bounds), so
+ * that the grid does not need to be rebuilt as points move. Points of a cell are
+ * kept in doubly-linked lists.
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public final class DynamicGridIndex {
+
+    private static final int NONE = -1;
+
+    private final boolean wrapX;
+    private final boolean wrapY;
+    private final double originX;
+    private final double originY;
+    private final double cellWidth;
+    private final double cellHeight;
+    private final int columns;
+    private final int rows;
+    private final int[] cellHead;
+    private int[] slotCell;
+    private int[] next;
+    private int[] previous;
+
+    /**
+     * Instantiates an empty index.
+     *
+     * @param maxDistance Maximum distance between neighbouring points
+     * @param topology Topology determining wrapping and the world bounds covered by the grid
+     * @param expectedSize Expected number of points (bounds number of cells)
+     */
+    public DynamicGridIndex(final double maxDistance, final WorldTopology topology,
+            final int expectedSize) {
+        this.wrapX = topology.wrapsX();
+        this.wrapY = topology.wrapsY();
+        this.originX = topology.minX();
+        this.originY = topology.minY();
+        final double extentX = topology.width();
+        final double extentY = topology.height();
+        final double cellSize = GridIndex.cellSize(extentX, extentY, maxDistance, wrapX, wrapY,
+                Math.max(16.0, (double) GridIndex.MAX_CELLS_PER_POINT * expectedSize));
+        this.columns = (int) GridIndex.cellCount(extentX, cellSize, wrapX);
+        this.rows = (int) GridIndex.cellCount(extentY, cellSize, wrapY);
+        // On wrapped axes cells are stretched to evenly divide the world
+        this.cellWidth = wrapX ? extentX / columns : cellSize;
+        this.cellHeight = wrapY ? extentY / rows : cellSize;
+        this.cellHead = new int[columns * rows];
+        Arrays.fill(cellHead, NONE);
+        this.slotCell = new int[Math.max(16, expectedSize)];
+        this.next = new int[slotCell.length];
+        this.previous = new int[slotCell.length];
+    }
+
+    /**
+     * Adds slot at the given location.
+     *
+     * @param slot Slot index
+     * @param x x coordinate
+     * @param y y coordinate
+     */
+    public void insert(final int slot, final double x, final double y) {
+        if (slot >= slotCell.length) {
+            final int capacity = Math.max(slot + 1, slotCell.length << 1);
+            slotCell = Arrays.copyOf(slotCell, capacity);
+            next = Arrays.copyOf(next, capacity);
+            previous = Arrays.copyOf(previous, capacity);
+        }
+        final int cell = cell(x, y);
+        slotCell[slot] = cell;
+        previous[slot] = NONE;
+        next[slot] = cellHead[cell];
+        if (cellHead[cell] != NONE) {
+            previous[cellHead[cell]] = slot;
+        }
+        cellHead[cell] = slot;
+    }
+
+    /**
+     * Removes slot from the index.
+     *
+     * @param slot Slot index
+     */
+    public void remove(final int slot) {
+        if (previous[slot] != NONE) {
+            next[previous[slot]] = next[slot];
+        } else {
+            cellHead[slotCell[slot]] = next[slot];
+        }
+        if (next[slot] != NONE) {
+            previous[next[slot]] = previous[slot];
+        }
+    }
+
+    /**
+     * Determines the distinct cells neighbouring the cell of the given location
+     * (including the cell itself).
+     *
+     * @param x x coordinate
+     * @param y y coordinate
+     * @param cells Array receiving the cell indices (at least {@link GridIndex#MAX_NEIGHBOUR_CELLS} entries)
+     * @return Number of cells written to array
+     */
+    public int neighbourCells(final double x, final double y, final int[] cells) {
+        final int cell = cell(x, y);
+        return GridIndex.neighbourCells(cell % columns, cell / columns, columns, rows, wrapX, wrapY, cells);
+    }
+
+    /**
+     * Returns the first slot of the given cell.
+     *
+     * @param cell Cell index
+     * @return Slot index, or -1 if cell is empty
+     */
+    public int first(final int cell) {
+        return cellHead[cell];
+    }
+
+    /**
+     * Returns the slot following the given one in its cell.
+     *
+     * @param slot Slot index
+     * @return Slot index, or -1 if slot is the last of its cell
+     */
+    public int next(final int slot) {
+        return next[slot];
+    }
+
+    private int cell(final double x, final double y) {
+        return GridIndex.cellIndex(y, originY, cellHeight, rows, wrapY) * columns
+                + GridIndex.cellIndex(x, originX, cellWidth, columns, wrapX);
+    }
+
+}
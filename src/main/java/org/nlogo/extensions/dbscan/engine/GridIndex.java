@@ -0,0 +1,266 @@
+package org.nlogo.extensions.dbscan.engine;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid spatial index that buckets points into cells whose side length
+ * is at least the maximum clustering distance. All points within the maximum
+ * distance of a given point are hence located in the 3x3 block of cells surrounding
+ * the point's cell. Wrapping of the world (torus, cylinders) is considered by
+ * wrapping the cell block around the world edges.
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public final class GridIndex {
+
+    /**
+     * Maximum number of cells per indexed point. If the maximum distance is small relative
+     * to the extent of the indexed points, the cell size is increased to bound memory use.
+     */
+    static final int MAX_CELLS_PER_POINT = 4;
+
+    /**
+     * Maximum number of neighbouring cells (including the point's own cell).
+     */
+    public static final int MAX_NEIGHBOUR_CELLS = 9;
+
+    private boolean wrapX;
+    private boolean wrapY;
+    private int columns;
+    private int rows;
+    private int[] pointCell = new int[0];
+    private int[] cellStart = new int[1];
+    private int[] cellPoints = new int[0];
+    private int[] fill = new int[0];
+
+    /**
+     * Builds the index for the given point coordinates.
+     *
+     * @param xs x coordinates of points
+     * @param ys y coordinates of points
+     * @param size Number of points (entries in coordinate arrays)
+     * @param maxDistance Maximum distance between neighbouring points
+     * @param topology Topology of the world the points are located in
+     */
+    public GridIndex(final double[] xs, final double[] ys, final int size,
+            final double maxDistance, final WorldTopology topology) {
+        rebuild(xs, ys, size, maxDistance, topology);
+    }
+
+    /**
+     * Instantiates an empty index to be built using
+     * {@link #rebuild(double[], double[], int, double, WorldTopology)}.
+     */
+    GridIndex() {}
+
+    /**
+     * Rebuilds the index for the given point coordinates. Arrays of the previous build are
+     * reused and only reallocated if the number of points or cells has grown beyond their size.
+     *
+     * @param xs x coordinates of points
+     * @param ys y coordinates of points
+     * @param size Number of points (entries in coordinate arrays)
+     * @param maxDistance Maximum distance between neighbouring points
+     * @param topology Topology of the world the points are located in
+     */
+    void rebuild(final double[] xs, final double[] ys, final int size,
+            final double maxDistance, final WorldTopology topology) {
+
+        this.wrapX = topology.wrapsX();
+        this.wrapY = topology.wrapsY();
+
+        // Determine origin and extent for each axis (world bounds for wrapped axes, data bounds otherwise)
+        double originX = topology.minX();
+        double extentX = topology.width();
+        double originY = topology.minY();
+        double extentY = topology.height();
+        if (!wrapX || !wrapY) {
+            double minX = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY;
+            double minY = Double.POSITIVE_INFINITY;
+            double maxY = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < size; i++) {
+                minX = Math.min(minX, xs[i]);
+                maxX = Math.max(maxX, xs[i]);
+                minY = Math.min(minY, ys[i]);
+                maxY = Math.max(maxY, ys[i]);
+            }
+            if (size == 0) {
+                minX = maxX = minY = maxY = 0;
+            }
+            if (!wrapX) {
+                originX = minX;
+                extentX = maxX - minX;
+            }
+            if (!wrapY) {
+                originY = minY;
+                extentY = maxY - minY;
+            }
+        }
+
+        // Determine cell size (at least maximum distance)
+        final double cellSize = cellSize(extentX, extentY, maxDistance, wrapX, wrapY,
+                Math.max(16.0, (double) MAX_CELLS_PER_POINT * size));
+
+        this.columns = (int) cellCount(extentX, cellSize, wrapX);
+        this.rows = (int) cellCount(extentY, cellSize, wrapY);
+        // On wrapped axes cells are stretched to evenly divide the world
+        final double cellWidth = wrapX ? extentX / columns : cellSize;
+        final double cellHeight = wrapY ? extentY / rows : cellSize;
+
+        // Bucket points (counting sort maintains input order within cells)
+        final int cells = columns * rows;
+        if (pointCell.length < size) {
+            this.pointCell = new int[size];
+            this.cellPoints = new int[size];
+        }
+        if (cellStart.length < cells + 1) {
+            this.cellStart = new int[cells + 1];
+            this.fill = new int[cells];
+        } else {
+            Arrays.fill(cellStart, 0, cells + 1, 0);
+            Arrays.fill(fill, 0, cells, 0);
+        }
+        for (int i = 0; i < size; i++) {
+            final int cell = cellIndex(ys[i], originY, cellHeight, rows, wrapY) * columns
+                    + cellIndex(xs[i], originX, cellWidth, columns, wrapX);
+            pointCell[i] = cell;
+            cellStart[cell + 1]++;
+        }
+        for (int c = 0; c < cells; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        for (int i = 0; i < size; i++) {
+            final int cell = pointCell[i];
+            cellPoints[cellStart[cell] + fill[cell]++] = i;
+        }
+    }
+
+    /**
+     * Determines the distinct cells neighbouring the given point's cell
+     * (including the cell itself).
+     *
+     * @param point Index of point
+     * @param cells Array receiving the cell indices (at least {@link #MAX_NEIGHBOUR_CELLS} entries)
+     * @return Number of cells written to array
+     */
+    public int neighbourCells(final int point, final int[] cells) {
+        final int cell = pointCell[point];
+        return neighbourCells(cell % columns, cell / columns, columns, rows, wrapX, wrapY, cells);
+    }
+
+    /**
+     * Determines the distinct cells neighbouring the given cell (including the cell itself)
+     * of a grid with the given dimensions.
+     *
+     * @param column Column of cell
+     * @param row Row of cell
+     * @param columns Number of columns of grid
+     * @param rows Number of rows of grid
+     * @param wrapX Indicates whether columns wrap around
+     * @param wrapY Indicates whether rows wrap around
+     * @param cells Array receiving the cell indices (at least {@link #MAX_NEIGHBOUR_CELLS} entries)
+     * @return Number of cells written to array
+     */
+    static int neighbourCells(final int column, final int row, final int columns, final int rows,
+            final boolean wrapX, final boolean wrapY, final int[] cells) {
+        final int rowFrom = wrapY ? (rows <= 3 ? 0 : row - 1) : Math.max(0, row - 1);
+        final int rowTo = wrapY ? (rows <= 3 ? rows - 1 : row + 1) : Math.min(rows - 1, row + 1);
+        final int columnFrom = wrapX ? (columns <= 3 ? 0 : column - 1) : Math.max(0, column - 1);
+        final int columnTo = wrapX ? (columns <= 3 ? columns - 1 : column + 1) : Math.min(columns - 1, column + 1);
+
+        int count = 0;
+        for (int r = rowFrom; r <= rowTo; r++) {
+            final int wrappedRow = r < 0 ? r + rows : (r >= rows ? r - rows : r);
+            for (int c = columnFrom; c <= columnTo; c++) {
+                final int wrappedColumn = c < 0 ? c + columns : (c >= columns ? c - columns : c);
+                cells[count++] = wrappedRow * columns + wrappedColumn;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the position of the first point of the given cell (see {@link #pointAt(int)}).
+     *
+     * @param cell Cell index
+     * @return Start position (inclusive)
+     */
+    public int cellStart(final int cell) {
+        return cellStart[cell];
+    }
+
+    /**
+     * Returns the position after the last point of the given cell (see {@link #pointAt(int)}).
+     *
+     * @param cell Cell index
+     * @return End position (exclusive)
+     */
+    public int cellEnd(final int cell) {
+        return cellStart[cell + 1];
+    }
+
+    /**
+     * Returns the index of the point at the given position of the cell-ordered point list.
+     *
+     * @param position Position between cell start and end
+     * @return Point index
+     */
+    public int pointAt(final int position) {
+        return cellPoints[position];
+    }
+
+    /**
+     * Determines the cell size for a grid covering the given extents: the maximum distance,
+     * doubled until the number of cells does not exceed the given maximum.
+     *
+     * @param extentX Extent of grid along x axis
+     * @param extentY Extent of grid along y axis
+     * @param maxDistance Maximum distance between neighbouring points
+     * @param wrapX Indicates whether x axis wraps around
+     * @param wrapY Indicates whether y axis wraps around
+     * @param maxCells Maximum number of cells
+     * @return Cell size (before stretching cells on wrapped axes)
+     */
+    static double cellSize(final double extentX, final double extentY, final double maxDistance,
+            final boolean wrapX, final boolean wrapY, final double maxCells) {
+        double cellSize = maxDistance;
+        if (!(cellSize > 0)) {
+            // Maximum distance of 0: any positive cell size will do
+            cellSize = Math.max(extentX, extentY) / Math.sqrt(maxCells);
+            if (!(cellSize > 0)) {
+                cellSize = 1.0;
+            }
+        }
+        while (cellCount(extentX, cellSize, wrapX) * cellCount(extentY, cellSize, wrapY) > maxCells) {
+            cellSize *= 2;
+        }
+        return cellSize;
+    }
+
+    static double cellCount(final double extent, final double cellSize, final boolean wrap) {
+        final double count = Math.floor(extent / cellSize);
+        return wrap ? Math.max(1.0, count) : count + 1.0;
+    }
+
+    static int cellIndex(final double value, final double origin, final double cellSize,
+            final int count, final boolean wrap) {
+        int index = (int) Math.floor((value - origin) / cellSize);
+        if (wrap) {
+            index %= count;
+            if (index < 0) {
+                index += count;
+            }
+        } else if (index < 0) {
+            index = 0;
+        } else if (index >= count) {
+            index = count - 1;
+        }
+        return index;
+    }
+
+}
@@ -0,0 +1,421 @@
+package org.nlogo.extensions.dbscan.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hierarchical density-based clustering of point locations (HDBSCAN*, Campello et al., 2013),
+ * which replaces the maximum distance of DBSCAN by a minimum cluster size:
+ * <ol>
+ * <li>The core distance of each point is the distance to its (minimum cluster size - 1)-th
+ * nearest neighbour (i.e., the neighbourhood includes the point itself, as in DBSCAN).</li>
+ * <li>The minimum spanning tree of the mutual reachability distances
+ * (max(core distance a, core distance b, distance a-b)) is computed with Boruvka's algorithm
+ * on a {@link LocationTree}: in each round, every component determines its shortest edge to
+ * another component; subtrees whose points all belong to the searching point's component or
+ * whose points are farther away than the component's shortest edge found so far are skipped.</li>
+ * <li>The single linkage hierarchy (merging the tree's edges in order of length) is condensed:
+ * splits off fewer than minimum cluster size points are considered points leaving a cluster,
+ * other splits give rise to two new clusters.</li>
+ * <li>Clusters are selected by excess of mass: a cluster is selected if its stability (the
+ * sum of 1 / distance at which its points leave it minus 1 / distance at which it emerged) is
+ * not smaller than the combined stability of the clusters selected among its descendants.
+ * The root cluster (all points) is not selected.</li>
+ * </ol>
+ * Each point belongs to at most one cluster. Clusters are ordered by their first member in
+ * input order, members listed in input order.
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public final class HierarchicalLocationDBSCAN {
+
+    private HierarchicalLocationDBSCAN() {}
+
+    /**
+     * Performs the clustering of the given point locations.
+     *
+     * @param xs x coordinates of points
+     * @param ys y coordinates of points
+     * @param size Number of points (entries in coordinate arrays)
+     * @param minClusterSize Minimum number of points of a cluster (and of a core point's neighbourhood, at least 2)
+     * @param topology World topology
+     * @return List of clusters, each holding the indices of its members
+     */
+    public static List<int[]> cluster(final double[] xs, final double[] ys, final int size,
+            final int minClusterSize, final WorldTopology topology) {
+
+        // The root cluster is not selected, hence clusters require a split into two sufficiently large ones
+        if (size < 2 * minClusterSize) {
+            return new ArrayList<>();
+        }
+        final LocationTree tree = new LocationTree(xs, ys, size, topology);
+        final double[] core = coreDistances(tree, size, minClusterSize);
+        final long[] edges = new long[size - 1];
+        final double[] weights = new double[size - 1];
+        spanningTree(tree, core, size, edges, weights);
+        return condense(edges, weights, size, minClusterSize);
+    }
+
+    /**
+     * Determines the squared core distance of each point.
+     */
+    private static double[] coreDistances(final LocationTree tree, final int size, final int minClusterSize) {
+        final double[] core = new double[size];
+        final double[] nearest = new double[minClusterSize - 1];
+        for (int point = 0; point < size; point++) {
+            tree.nearestSquaredDistances(point, minClusterSize - 1, nearest);
+            core[point] = nearest[minClusterSize - 2];
+        }
+        return core;
+    }
+
+    /**
+     * Computes the minimum spanning tree of squared mutual reachability distances (Boruvka).
+     * Edges of equal length are ordered by their end points, so that the tree is unique.
+     *
+     * @param edges Array receiving the edges (end points encoded as lower * 2^32 + higher index)
+     * @param weights Array receiving the squared edge lengths
+     */
+    private static void spanningTree(final LocationTree tree, final double[] core, final int size,
+            final long[] edges, final double[] weights) {
+
+        final int nodes = tree.nodeCount();
+        // Smallest core distance of each node's points (bound of mutual reachability distances)
+        final double[] nodeCore = new double[nodes];
+        // Component all points of a node belong to (-1 if several)
+        final int[] nodeComponent = new int[nodes];
+        for (int node = nodes - 1; node >= 0; node--) {
+            double smallest = Double.POSITIVE_INFINITY;
+            for (int i = tree.from[node]; i < tree.to[node]; i++) {
+                smallest = Math.min(smallest, core[tree.points[i]]);
+            }
+            nodeCore[node] = smallest;
+        }
+
+        final int[] parent = new int[size];
+        for (int i = 0; i < size; i++) {
+            parent[i] = i;
+        }
+        final int[] component = new int[size];
+        final double[] bestWeight = new double[size];
+        final long[] bestEdge = new long[size];
+        final ComponentSearch search = new ComponentSearch(tree, core, nodeCore, nodeComponent, component,
+                bestWeight, bestEdge);
+
+        int edgeCount = 0;
+        while (edgeCount < size - 1) {
+            for (int i = 0; i < size; i++) {
+                component[i] = find(parent, i);
+            }
+            // Children are stored after their parents
+            for (int node = nodes - 1; node >= 0; node--) {
+                if (tree.left[node] < 0) {
+                    int shared = component[tree.points[tree.from[node]]];
+                    for (int i = tree.from[node] + 1; i < tree.to[node] && shared >= 0; i++) {
+                        if (component[tree.points[i]] != shared) {
+                            shared = -1;
+                        }
+                    }
+                    nodeComponent[node] = shared;
+                } else {
+                    final int shared = nodeComponent[tree.left[node]];
+                    nodeComponent[node] = shared == nodeComponent[tree.right[node]] ? shared : -1;
+                }
+            }
+            Arrays.fill(bestWeight, Double.POSITIVE_INFINITY);
+            Arrays.fill(bestEdge, Long.MAX_VALUE);
+
+            // Points in tree order (neighbouring points are searched in sequence)
+            for (int i = 0; i < size; i++) {
+                search.search(tree.points[i]);
+            }
+
+            for (int c = 0; c < size; c++) {
+                if (component[c] != c || bestEdge[c] == Long.MAX_VALUE) {
+                    continue;
+                }
+                final int a = (int) (bestEdge[c] >>> 32);
+                final int b = (int) bestEdge[c];
+                final int rootA = find(parent, a);
+                final int rootB = find(parent, b);
+                if (rootA != rootB) {
+                    parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+                    edges[edgeCount] = bestEdge[c];
+                    weights[edgeCount] = bestWeight[c];
+                    edgeCount++;
+                }
+            }
+        }
+    }
+
+    private static int find(final int[] parent, int element) {
+        while (parent[element] != element) {
+            parent[element] = parent[parent[element]];
+            element = parent[element];
+        }
+        return element;
+    }
+
+    /**
+     * Search for the shortest edge from a point to a point of another component.
+     */
+    private static final class ComponentSearch {
+
+        private final LocationTree tree;
+        private final double[] core;
+        private final double[] nodeCore;
+        private final int[] nodeComponent;
+        private final int[] component;
+        private final double[] bestWeight;
+        private final long[] bestEdge;
+
+        ComponentSearch(final LocationTree tree, final double[] core, final double[] nodeCore,
+                final int[] nodeComponent, final int[] component, final double[] bestWeight, final long[] bestEdge) {
+            this.tree = tree;
+            this.core = core;
+            this.nodeCore = nodeCore;
+            this.nodeComponent = nodeComponent;
+            this.component = component;
+            this.bestWeight = bestWeight;
+            this.bestEdge = bestEdge;
+        }
+
+        void search(final int point) {
+            final int own = component[point];
+            // Mutual reachability distances are at least the core distance
+            if (core[point] > bestWeight[own]) {
+                return;
+            }
+            search(LocationTree.root(), point, own);
+        }
+
+        private void search(final int node, final int point, final int own) {
+            final double x = tree.xs[point];
+            final double y = tree.ys[point];
+            if (tree.left[node] < 0) {
+                final double pointCore = core[point];
+                for (int i = tree.from[node]; i < tree.to[node]; i++) {
+                    final int candidate = tree.points[i];
+                    if (component[candidate] == own) {
+                        continue;
+                    }
+                    final double weight = Math.max(Math.max(pointCore, core[candidate]),
+                            tree.topology.squaredDistance(x, y, tree.xs[candidate], tree.ys[candidate]));
+                    if (weight <= bestWeight[own]) {
+                        final long edge = point < candidate ? ((long) point << 32) | candidate
+                                : ((long) candidate << 32) | point;
+                        if (weight < bestWeight[own] || edge < bestEdge[own]) {
+                            bestWeight[own] = weight;
+                            bestEdge[own] = edge;
+                        }
+                    }
+                }
+                return;
+            }
+            // Visit closer child first (on equal bounds, the one that may hold the lower edge)
+            final int leftChild = tree.left[node];
+            final int rightChild = tree.right[node];
+            final double toLeft = bound(leftChild, point, own, x, y);
+            final double toRight = bound(rightChild, point, own, x, y);
+            final boolean leftFirst = toLeft < toRight
+                    || (toLeft == toRight && tree.lowestPoint[leftChild] <= tree.lowestPoint[rightChild]);
+            final int first = leftFirst ? leftChild : rightChild;
+            final int second = leftFirst ? rightChild : leftChild;
+            if (mayPrecede(first, point, own, leftFirst ? toLeft : toRight)) {
+                search(first, point, own);
+            }
+            if (mayPrecede(second, point, own, leftFirst ? toRight : toLeft)) {
+                search(second, point, own);
+            }
+        }
+
+        /**
+         * Indicates whether the node may hold an edge preceding the component's best edge found
+         * so far: a shorter one, or one of equal length with lower end points (as bounded by the
+         * node's lowest point index), so that nodes of points at the same location as the best
+         * edge's end are skipped.
+         */
+        private boolean mayPrecede(final int node, final int point, final int own, final double bound) {
+            if (bound == Double.POSITIVE_INFINITY || bound > bestWeight[own]) {
+                return false;
+            }
+            if (bound < bestWeight[own]) {
+                return true;
+            }
+            final int lowest = tree.lowestPoint[node];
+            final long lowestEdge = point < lowest ? ((long) point << 32) | lowest : ((long) lowest << 32) | point;
+            return lowestEdge < bestEdge[own];
+        }
+
+        /**
+         * Lower bound of squared mutual reachability distances between the point and the
+         * node's points of other components (infinite if none).
+         */
+        private double bound(final int node, final int point, final int own, final double x, final double y) {
+            if (nodeComponent[node] == own) {
+                return Double.POSITIVE_INFINITY;
+            }
+            return Math.max(Math.max(core[point], nodeCore[node]), tree.squaredDistanceToNode(node, x, y));
+        }
+    }
+
+    /**
+     * Builds the single linkage hierarchy from the spanning tree, condenses it and selects
+     * the clusters of largest stability.
+     */
+    private static List<int[]> condense(final long[] edges, final double[] weights, final int size,
+            final int minClusterSize) {
+
+        // Merge edges in order of length (ties ordered by end points)
+        final Integer[] order = new Integer[size - 1];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> weights[a] != weights[b] ? Double.compare(weights[a], weights[b])
+                : Long.compare(edges[a], edges[b]));
+
+        // Dendrogram: leaves 0..size-1 are points, internal node size + i results from i-th merge
+        final int nodes = 2 * size - 1;
+        final int[] left = new int[nodes];
+        final int[] right = new int[nodes];
+        final int[] members = new int[nodes];
+        final double[] lambda = new double[nodes];
+        final int[] parent = new int[size];
+        final int[] setNode = new int[size];
+        for (int i = 0; i < size; i++) {
+            parent[i] = i;
+            setNode[i] = i;
+            members[i] = 1;
+            left[i] = -1;
+        }
+        for (int i = 0; i < order.length; i++) {
+            final int edge = order[i];
+            final int rootA = find(parent, (int) (edges[edge] >>> 32));
+            final int rootB = find(parent, (int) edges[edge]);
+            final int node = size + i;
+            left[node] = setNode[rootA];
+            right[node] = setNode[rootB];
+            members[node] = members[left[node]] + members[right[node]];
+            // Density level at which the children separate (infinite for distance 0)
+            lambda[node] = 1.0 / Math.sqrt(weights[edge]);
+            parent[rootB] = rootA;
+            setNode[rootA] = node;
+        }
+
+        // Condensed clusters: cluster 0 (root) comprises all points
+        final IntList birthNode = new IntList();
+        final IntList parentCluster = new IntList();
+        final List<Double> birthLambda = new ArrayList<>();
+        final List<Double> stability = new ArrayList<>();
+        birthNode.add(nodes - 1);
+        parentCluster.add(-1);
+        birthLambda.add(0.0);
+        stability.add(0.0);
+        for (int cluster = 0; cluster < birthNode.size(); cluster++) {
+            final double birth = birthLambda.get(cluster);
+            double clusterStability = 0;
+            int node = birthNode.get(cluster);
+            while (true) {
+                final boolean leftSmall = members[left[node]] < minClusterSize;
+                final boolean rightSmall = members[right[node]] < minClusterSize;
+                final double level = lambda[node];
+                if (!leftSmall && !rightSmall) {
+                    // True split: all points leave the cluster, which gives rise to two new ones
+                    clusterStability += members[node] * excess(level, birth);
+                    for (int child: new int[] {left[node], right[node]}) {
+                        birthNode.add(child);
+                        parentCluster.add(cluster);
+                        birthLambda.add(level);
+                        stability.add(0.0);
+                    }
+                    break;
+                }
+                if (leftSmall && rightSmall) {
+                    // Cluster disintegrates
+                    clusterStability += members[node] * excess(level, birth);
+                    break;
+                }
+                // Points split off leave the cluster, which continues with the remaining points
+                final int remaining = leftSmall ? right[node] : left[node];
+                final int leaving = remaining == left[node] ? right[node] : left[node];
+                clusterStability += members[leaving] * excess(level, birth);
+                node = remaining;
+            }
+            stability.set(cluster, clusterStability);
+        }
+
+        // Excess of mass: select clusters bottom-up (descendants are numbered after their ancestors)
+        final int clusterCount = birthNode.size();
+        final double[] descendantStability = new double[clusterCount];
+        final boolean[] selected = new boolean[clusterCount];
+        for (int cluster = clusterCount - 1; cluster > 0; cluster--) {
+            final double own = stability.get(cluster);
+            final double value;
+            if (own >= descendantStability[cluster]) {
+                selected[cluster] = true;
+                value = own;
+            } else {
+                value = descendantStability[cluster];
+            }
+            descendantStability[parentCluster.get(cluster)] += value;
+        }
+        // Keep topmost selected clusters only
+        final boolean[] covered = new boolean[clusterCount];
+        final int[] label = new int[size];
+        Arrays.fill(label, -1);
+        final IntList pending = new IntList();
+        for (int cluster = 1; cluster < clusterCount; cluster++) {
+            final int ancestor = parentCluster.get(cluster);
+            covered[cluster] = covered[ancestor] || selected[ancestor];
+            if (!selected[cluster] || covered[cluster]) {
+                continue;
+            }
+            // Label all points of the cluster's dendrogram node
+            pending.clear();
+            pending.add(birthNode.get(cluster));
+            while (!pending.isEmpty()) {
+                final int node = pending.removeLast();
+                if (node < size) {
+                    label[node] = cluster;
+                } else {
+                    pending.add(left[node]);
+                    pending.add(right[node]);
+                }
+            }
+        }
+
+        // Clusters in order of their first member in input order
+        final int[] rank = new int[clusterCount];
+        Arrays.fill(rank, -1);
+        final List<IntList> clusters = new ArrayList<>();
+        for (int point = 0; point < size; point++) {
+            final int cluster = label[point];
+            if (cluster < 0) {
+                continue;
+            }
+            if (rank[cluster] < 0) {
+                rank[cluster] = clusters.size();
+                clusters.add(new IntList());
+            }
+            clusters.get(rank[cluster]).add(point);
+        }
+        final List<int[]> result = new ArrayList<>(clusters.size());
+        for (IntList cluster: clusters) {
+            result.add(cluster.toArray());
+        }
+        return result;
+    }
+
+    /**
+     * Difference between density levels (0 for equal levels, including infinite ones).
+     */
+    private static double excess(final double level, final double birth) {
+        return level == birth ? 0 : level - birth;
+    }
+
+}
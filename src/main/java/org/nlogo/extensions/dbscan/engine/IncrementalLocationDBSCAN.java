@@ -0,0 +1,733 @@
+package org.nlogo.extensions.dbscan.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Stateful DBSCAN implementation for point locations that maintains neighbour counts,
+ * core point flags and cluster labels across successive clustering runs (e.g., ticks).
+ * Points are identified by ids (e.g., agent ids). On each run, points that have been
+ * added, removed or moved since the previous run are determined; neighbour counts are
+ * only updated for the neighbourhoods of those points. Clusters gaining core points are
+ * merged by label (union-find); clusters losing core points are checked for splits by
+ * searching from the remaining neighbouring core points. The cost of a run hence scales
+ * with the amount of change rather than with the number of points (except for splits of
+ * large clusters, whose detection requires the traversal of the smaller parts). If the
+ * majority of points have changed, the state is rebuilt from scratch.
+ *
+ * The result is identical to the one produced by {@link DBSCANEngine} with a
+ * {@link LocationRegionQuery}: clusters are ordered by their first core point in input
+ * order, cluster members are listed in input order.
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public final class IncrementalLocationDBSCAN {
+
+    private static final int[] NO_LABELS = new int[0];
+
+    /**
+     * Labels are never reused; state is rebuilt (compacting labels) once the number of
+     * labels exceeds this multiple of the number of slots.
+     */
+    private static final int LABELS_PER_SLOT = 4;
+    private static final int MIN_LABEL_CAPACITY = 1024;
+
+    /**
+     * Number of points expanded per search point when checking locally whether the
+     * core points surrounding lost core points are still connected.
+     */
+    private static final int LOCAL_SEARCH_BUDGET = 32;
+
+    private final double maxDistance;
+    private final DistanceThreshold threshold;
+    private final int minNumberOfElements;
+    private final WorldTopology topology;
+
+    private DynamicGridIndex index;
+    private final LongIntHashMap slotOfId = new LongIntHashMap();
+    private final IntList freeSlots = new IntList();
+    private int slots = 0;
+
+    // Per-slot state
+    private long[] ids = new long[0];
+    private double[] xs = new double[0];
+    private double[] ys = new double[0];
+    private boolean[] alive = new boolean[0];
+    private int[] counts = new int[0];
+    private boolean[] core = new boolean[0];
+    private int[] labels = new int[0];
+    private int[][] borderLabels = new int[0][];
+    private int[] inputIndex = new int[0];
+    // Per-slot stamps and scratch space of the current run
+    private int[] seen = new int[0];
+    private int[] touched = new int[0];
+    private int[] lost = new int[0];
+    private int[] lostParent = new int[0];
+    private int[] searchStamp = new int[0];
+    private int[] searchOf = new int[0];
+    private int[] groupOf = new int[0];
+
+    // Cluster labels (union-find, merged clusters share a root label)
+    private int[] labelParent = new int[0];
+    // Per-label scratch space: number of the cluster (or split cluster) of root labels, -1 if none
+    private int[] clusterOfLabel = new int[0];
+    private int nextLabel = 0;
+
+    private int run = 0;
+    private int searchRun = 0;
+    private boolean built = false;
+
+    // Buffers reused across runs
+    private final int[] cells = new int[GridIndex.MAX_NEIGHBOUR_CELLS];
+    private final IntList neighbours = new IntList();
+    private final IntList removedSlots = new IntList();
+    private final IntList changedSlots = new IntList();
+    private final IntList touchedSlots = new IntList();
+    private final IntList gainedCores = new IntList();
+    private final IntList lostCores = new IntList();
+    private final IntList lostPairs = new IntList();
+    private final IntList distinctLabels = new IntList();
+    private final IntList candidates = new IntList();
+    private final IntList clusterRoots = new IntList();
+    private final List<IntList> groups = new ArrayList<>();
+    private final List<IntList> splitClusters = new ArrayList<>();
+    private final List<IntList> clusterMembers = new ArrayList<>();
+    private int[] slotOfInput = new int[0];
+    // Per-search state of lockstep searches
+    private IntList[] searchQueues = new IntList[0];
+    private int[] searchParent = new int[0];
+    private int[] searchHeads = new int[0];
+    private int[] searchPending = new int[0];
+    private int[] searchLabels = new int[0];
+
+    /**
+     * Instantiates incremental clustering for the given parameters.
+     *
+     * @param maxDistance Maximum distance between neighbouring points
+     * @param minNumberOfElements Minimum number of points in a neighbourhood to constitute a core point
+     * @param topology Topology used for distance calculation and wrapping (its world bounds are covered by the spatial index)
+     * @param strictMath Indicates whether distances are to be compared using StrictMath (see {@link DistanceThreshold})
+     */
+    public IncrementalLocationDBSCAN(final double maxDistance, final int minNumberOfElements,
+            final WorldTopology topology, final boolean strictMath) {
+        this.maxDistance = maxDistance;
+        this.threshold = new DistanceThreshold(maxDistance, strictMath);
+        this.minNumberOfElements = minNumberOfElements;
+        this.topology = topology;
+    }
+
+    /**
+     * Indicates whether this instance clusters with the given parameters (and can hence be reused).
+     *
+     * @param maxDistance Maximum distance between neighbouring points
+     * @param minNumberOfElements Minimum number of points in a neighbourhood to constitute a core point
+     * @param topology Topology used for distance calculation and wrapping
+     * @param strictMath Indicates whether distances are to be compared using StrictMath
+     * @return true if parameters match
+     */
+    public boolean matches(final double maxDistance, final int minNumberOfElements,
+            final WorldTopology topology, final boolean strictMath) {
+        return Double.compare(this.maxDistance, maxDistance) == 0 && this.minNumberOfElements == minNumberOfElements
+                && this.topology.equals(topology) && threshold.isStrict() == strictMath;
+    }
+
+    /**
+     * Clusters the given points, updating the state of the previous run.
+     *
+     * @param pointIds Ids of points (unique)
+     * @param pointXs x coordinates of points
+     * @param pointYs y coordinates of points
+     * @param size Number of points (entries in arrays)
+     * @return List of clusters, each holding the (input) indices of its members
+     */
+    public List<int[]> cluster(final long[] pointIds, final double[] pointXs, final double[] pointYs, final int size) {
+        return cluster(pointIds, pointXs, pointYs, size, null);
+    }
+
+    /**
+     * Clusters the given points, updating the state of the previous run, and records which
+     * points are core points.
+     *
+     * @param pointIds Ids of points (unique)
+     * @param pointXs x coordinates of points
+     * @param pointYs y coordinates of points
+     * @param size Number of points (entries in arrays)
+     * @param corePoints Array receiving the core point flags by input index (at least size entries), or null
+     * @return List of clusters, each holding the (input) indices of its members
+     */
+    public List<int[]> cluster(final long[] pointIds, final double[] pointXs, final double[] pointYs, final int size,
+            final boolean[] corePoints) {
+
+        run++;
+        removedSlots.clear();
+        changedSlots.clear();
+        touchedSlots.clear();
+        gainedCores.clear();
+        lostCores.clear();
+        lostPairs.clear();
+
+        // Determine added, moved and removed points
+        int added = 0;
+        if (built) {
+            for (int i = 0; i < size; i++) {
+                final int slot = slotOfId.get(pointIds[i], -1);
+                if (slot < 0) {
+                    added++;
+                } else {
+                    seen[slot] = run;
+                    inputIndex[slot] = i;
+                    if (xs[slot] != pointXs[i] || ys[slot] != pointYs[i]) {
+                        removedSlots.add(slot);
+                    }
+                }
+            }
+            for (int slot = 0; slot < slots; slot++) {
+                if (alive[slot] && seen[slot] != run) {
+                    removedSlots.add(slot);
+                }
+            }
+        }
+        if (!built || (added + removedSlots.size()) * 2 > Math.max(size, slotOfId.size())) {
+            reset(size);
+        }
+
+        // Former core points that are removed or moved are considered lost
+        for (int r = 0; r < removedSlots.size(); r++) {
+            final int slot = removedSlots.get(r);
+            if (core[slot]) {
+                markLost(slot);
+            }
+        }
+
+        // Remove points that have been removed or moved (at their previous location)
+        for (int r = 0; r < removedSlots.size(); r++) {
+            final int slot = removedSlots.get(r);
+            neighbours(xs[slot], ys[slot]);
+            for (int i = 0; i < neighbours.size(); i++) {
+                final int neighbour = neighbours.get(i);
+                if (neighbour != slot) {
+                    counts[neighbour]--;
+                    touch(neighbour);
+                    if (core[slot] && core[neighbour]) {
+                        lostPairs.add(slot);
+                        lostPairs.add(neighbour);
+                    }
+                }
+            }
+            index.remove(slot);
+            if (seen[slot] != run) {
+                slotOfId.remove(ids[slot]);
+                alive[slot] = false;
+                core[slot] = false;
+                borderLabels[slot] = NO_LABELS;
+                freeSlots.add(slot);
+            } else {
+                // Core status of moved points is re-established below (and hence treated as gained)
+                core[slot] = false;
+                changedSlots.add(slot);
+            }
+        }
+
+        // Add new points
+        for (int i = 0; i < size; i++) {
+            if (slotOfId.get(pointIds[i], -1) >= 0) {
+                continue;
+            }
+            final int slot = allocate();
+            ids[slot] = pointIds[i];
+            alive[slot] = true;
+            core[slot] = false;
+            seen[slot] = run;
+            inputIndex[slot] = i;
+            slotOfId.put(pointIds[i], slot);
+            changedSlots.add(slot);
+        }
+
+        // (Re-)insert added and moved points at their current location
+        for (int c = 0; c < changedSlots.size(); c++) {
+            final int slot = changedSlots.get(c);
+            xs[slot] = pointXs[inputIndex[slot]];
+            ys[slot] = pointYs[inputIndex[slot]];
+            index.insert(slot, xs[slot], ys[slot]);
+            neighbours(xs[slot], ys[slot]);
+            counts[slot] = neighbours.size();
+            touch(slot);
+            for (int i = 0; i < neighbours.size(); i++) {
+                final int neighbour = neighbours.get(i);
+                if (neighbour != slot) {
+                    counts[neighbour]++;
+                    touch(neighbour);
+                }
+            }
+        }
+
+        // Update core flags of points with changed neighbourhoods
+        for (int t = 0; t < touchedSlots.size(); t++) {
+            final int slot = touchedSlots.get(t);
+            if (!alive[slot]) {
+                continue;
+            }
+            final boolean isCore = counts[slot] >= minNumberOfElements;
+            if (core[slot] && !isCore) {
+                lostCores.add(slot);
+                markLost(slot);
+            }
+            if (isCore && !core[slot]) {
+                gainedCores.add(slot);
+            }
+            core[slot] = isCore;
+        }
+        for (int l = 0; l < lostCores.size(); l++) {
+            final int slot = lostCores.get(l);
+            neighbours(xs[slot], ys[slot]);
+            for (int i = 0; i < neighbours.size(); i++) {
+                final int neighbour = neighbours.get(i);
+                touch(neighbour);
+                if (neighbour != slot && (core[neighbour] || lost[neighbour] == run)) {
+                    lostPairs.add(slot);
+                    lostPairs.add(neighbour);
+                }
+            }
+        }
+
+        // New core points start new clusters that are merged with the clusters of neighbouring core points
+        for (int g = 0; g < gainedCores.size(); g++) {
+            labels[gainedCores.get(g)] = newLabel();
+        }
+        for (int g = 0; g < gainedCores.size(); g++) {
+            final int slot = gainedCores.get(g);
+            neighbours(xs[slot], ys[slot]);
+            for (int i = 0; i < neighbours.size(); i++) {
+                final int neighbour = neighbours.get(i);
+                if (core[neighbour]) {
+                    unionLabels(labels[slot], labels[neighbour]);
+                } else {
+                    // Neighbouring points become border points of the new core point
+                    touch(neighbour);
+                }
+            }
+        }
+
+        // Clusters that lost core points may have split up
+        separateSplitClusters();
+
+        // Reassign border points with changed neighbourhoods to clusters of neighbouring core points
+        for (int t = 0; t < touchedSlots.size(); t++) {
+            final int slot = touchedSlots.get(t);
+            if (!alive[slot]) {
+                continue;
+            }
+            if (core[slot]) {
+                borderLabels[slot] = NO_LABELS;
+                continue;
+            }
+            neighbours(xs[slot], ys[slot]);
+            distinctLabels.clear();
+            for (int i = 0; i < neighbours.size(); i++) {
+                final int neighbour = neighbours.get(i);
+                if (core[neighbour] && !contains(distinctLabels, labels[neighbour])) {
+                    distinctLabels.add(labels[neighbour]);
+                }
+            }
+            borderLabels[slot] = distinctLabels.isEmpty() ? NO_LABELS : distinctLabels.toArray();
+        }
+
+        // Compact labels from time to time by rebuilding
+        if (nextLabel > LABELS_PER_SLOT * Math.max(MIN_LABEL_CAPACITY, slots)) {
+            built = false;
+        }
+
+        return clusters(pointIds, size, corePoints);
+    }
+
+    /**
+     * Determines whether the remaining core points neighbouring lost core points are still
+     * connected and assigns new labels to detached parts of clusters.
+     *
+     * Lost core points that neighboured each other are grouped, since a path within a cluster
+     * may have led across several of them. For each group, the remaining core points surrounding
+     * it are first checked for connectivity by a local search with bounded effort. Any part of
+     * a split cluster contains remaining core points of a group that fails this check, so that
+     * only those need to be considered when searching for detached parts cluster-wide.
+     */
+    private void separateSplitClusters() {
+
+        // Group neighbouring lost core points
+        for (int p = 0; p < lostPairs.size(); p += 2) {
+            if (lost[lostPairs.get(p + 1)] == run) {
+                unionLost(lostPairs.get(p), lostPairs.get(p + 1));
+            }
+        }
+
+        // Collect remaining core points surrounding each group
+        for (int p = 0; p < lostPairs.size(); p += 2) {
+            groupOf[findLost(lostPairs.get(p))] = -1;
+        }
+        int groupCount = 0;
+        for (int p = 0; p < lostPairs.size(); p += 2) {
+            final int neighbour = lostPairs.get(p + 1);
+            if (lost[neighbour] == run || !alive[neighbour] || !core[neighbour]) {
+                continue;
+            }
+            final int root = findLost(lostPairs.get(p));
+            if (groupOf[root] < 0) {
+                groupOf[root] = groupCount;
+                pooled(groups, groupCount++);
+            }
+            groups.get(groupOf[root]).add(neighbour);
+        }
+
+        // Check connectivity locally; collect one point per connected part of groups that fail the check
+        candidates.clear();
+        for (int g = 0; g < groupCount; g++) {
+            search(groups.get(g), LOCAL_SEARCH_BUDGET, false, candidates);
+        }
+
+        // Search for detached parts among candidates of the same cluster
+        int clusterCount = 0;
+        for (int c = 0; c < candidates.size(); c++) {
+            final int candidate = candidates.get(c);
+            final int root = findLabel(labels[candidate]);
+            if (clusterOfLabel[root] < 0) {
+                clusterOfLabel[root] = clusterCount;
+                pooled(splitClusters, clusterCount++);
+            }
+            splitClusters.get(clusterOfLabel[root]).add(candidate);
+        }
+        for (int c = 0; c < candidates.size(); c++) {
+            clusterOfLabel[findLabel(labels[candidates.get(c)])] = -1;
+        }
+        for (int c = 0; c < clusterCount; c++) {
+            search(splitClusters.get(c), Integer.MAX_VALUE, true, null);
+        }
+    }
+
+    /**
+     * Returns the list at the given position of the pool (adding one if needed), cleared.
+     */
+    private static IntList pooled(final List<IntList> pool, final int position) {
+        if (position == pool.size()) {
+            pool.add(new IntList());
+        }
+        final IntList list = pool.get(position);
+        list.clear();
+        return list;
+    }
+
+    /**
+     * Runs breadth-first searches across core points from all given seeds in lockstep.
+     * Searches that meet are merged. The search ends once all searches have merged, at
+     * most one (merged) search has points left to expand (i.e., all others have exhausted
+     * detached parts), or the budget is used up.
+     *
+     * @param seeds Core points to search from (may contain duplicates)
+     * @param budget Maximum number of expanded points per search
+     * @param relabel Indicates whether exhausted (detached) parts are assigned new labels
+     * @param parts List receiving one seed per part if not all seeds are connected (may be null)
+     */
+    private void search(final IntList seeds, final int budget, final boolean relabel, final IntList parts) {
+        searchRun++;
+        if (searchParent.length < seeds.size()) {
+            final int capacity = Math.max(seeds.size(), searchParent.length << 1);
+            searchQueues = Arrays.copyOf(searchQueues, capacity);
+            searchParent = new int[capacity];
+            searchHeads = new int[capacity];
+            searchPending = new int[capacity];
+            searchLabels = new int[capacity];
+        }
+        final IntList[] queues = searchQueues;
+        final int[] parent = searchParent;
+        final int[] heads = searchHeads;
+        // Number of points pending expansion per (merged) search
+        final int[] pending = searchPending;
+        int searches = 0;
+        for (int s = 0; s < seeds.size(); s++) {
+            final int seed = seeds.get(s);
+            if (searchStamp[seed] == searchRun) {
+                continue;
+            }
+            searchStamp[seed] = searchRun;
+            searchOf[seed] = searches;
+            if (queues[searches] == null) {
+                queues[searches] = new IntList();
+            }
+            queues[searches].clear();
+            queues[searches].add(seed);
+            parent[searches] = searches;
+            heads[searches] = 0;
+            pending[searches] = 1;
+            searches++;
+        }
+
+        int components = searches;
+        int unfinished = searches;
+        final long maxExpansions = (long) budget * searches;
+        long expansions = 0;
+        while (components > 1 && unfinished > 1 && expansions < maxExpansions) {
+            for (int i = 0; i < searches && components > 1 && unfinished > 1; i++) {
+                if (heads[i] == queues[i].size()) {
+                    continue;
+                }
+                final int member = queues[i].get(heads[i]++);
+                expansions++;
+                final int root = find(parent, i);
+                pending[root]--;
+                neighbours(xs[member], ys[member]);
+                for (int n = 0; n < neighbours.size(); n++) {
+                    final int neighbour = neighbours.get(n);
+                    if (!core[neighbour]) {
+                        continue;
+                    }
+                    if (searchStamp[neighbour] != searchRun) {
+                        searchStamp[neighbour] = searchRun;
+                        searchOf[neighbour] = i;
+                        queues[i].add(neighbour);
+                        pending[root]++;
+                    } else {
+                        final int otherRoot = find(parent, searchOf[neighbour]);
+                        if (otherRoot != root) {
+                            // Searches met: merge (the expanding search counts as unfinished until checked below)
+                            if (pending[otherRoot] > 0) {
+                                unfinished--;
+                            }
+                            parent[otherRoot] = root;
+                            pending[root] += pending[otherRoot];
+                            components--;
+                        }
+                    }
+                }
+                if (pending[root] == 0) {
+                    unfinished--;
+                }
+            }
+        }
+        if (components <= 1) {
+            return;
+        }
+
+        if (!relabel) {
+            for (int i = 0; i < searches; i++) {
+                if (find(parent, i) == i) {
+                    parts.add(queues[i].get(0));
+                }
+            }
+            return;
+        }
+
+        // Assign new labels to exhausted (i.e., detached) parts; an unfinished part keeps its label
+        boolean keep = unfinished == 0;
+        final int[] labelOfRoot = searchLabels;
+        Arrays.fill(labelOfRoot, 0, searches, -1);
+        for (int i = 0; i < searches; i++) {
+            final int root = find(parent, i);
+            if (pending[root] > 0) {
+                continue;
+            }
+            if (labelOfRoot[root] < 0) {
+                if (keep) {
+                    // All parts are exhausted: first part keeps the label
+                    keep = false;
+                    labelOfRoot[root] = Integer.MAX_VALUE;
+                } else {
+                    labelOfRoot[root] = newLabel();
+                }
+            }
+            if (labelOfRoot[root] == Integer.MAX_VALUE) {
+                continue;
+            }
+            for (int q = 0; q < queues[i].size(); q++) {
+                final int member = queues[i].get(q);
+                labels[member] = labelOfRoot[root];
+                // Border points of relabelled parts need to be reassigned
+                neighbours(xs[member], ys[member]);
+                for (int n = 0; n < neighbours.size(); n++) {
+                    if (!core[neighbours.get(n)]) {
+                        touch(neighbours.get(n));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Assembles clusters from labels: clusters are ordered by their first core point in
+     * input order, members are listed in input order.
+     */
+    private List<int[]> clusters(final long[] pointIds, final int size, final boolean[] corePoints) {
+        if (slotOfInput.length < size) {
+            slotOfInput = new int[size];
+        }
+        final int[] clusterOfRoot = clusterOfLabel;
+        clusterRoots.clear();
+        int clusterCount = 0;
+        for (int i = 0; i < size; i++) {
+            final int slot = slotOfId.get(pointIds[i], -1);
+            slotOfInput[i] = slot;
+            if (corePoints != null) {
+                corePoints[i] = core[slot];
+            }
+            if (core[slot]) {
+                final int root = findLabel(labels[slot]);
+                if (clusterOfRoot[root] < 0) {
+                    clusterOfRoot[root] = clusterCount;
+                    pooled(clusterMembers, clusterCount++);
+                    clusterRoots.add(root);
+                }
+            }
+        }
+        final List<IntList> members = clusterMembers;
+        for (int i = 0; i < size; i++) {
+            final int slot = slotOfInput[i];
+            if (core[slot]) {
+                members.get(clusterOfRoot[findLabel(labels[slot])]).add(i);
+            } else {
+                // Border points may neighbour several core points of the same cluster
+                distinctLabels.clear();
+                for (int label: borderLabels[slot]) {
+                    final int cluster = clusterOfRoot[findLabel(label)];
+                    if (!contains(distinctLabels, cluster)) {
+                        distinctLabels.add(cluster);
+                        members.get(cluster).add(i);
+                    }
+                }
+            }
+        }
+        final List<int[]> clusters = new ArrayList<>(clusterCount);
+        for (int c = 0; c < clusterCount; c++) {
+            clusters.add(members.get(c).toArray());
+            clusterOfRoot[clusterRoots.get(c)] = -1;
+        }
+        return clusters;
+    }
+
+    /**
+     * Discards all state; all points of the current run are treated as added.
+     */
+    private void reset(final int expectedSize) {
+        index = new DynamicGridIndex(maxDistance, topology, expectedSize);
+        slotOfId.clear();
+        freeSlots.clear();
+        removedSlots.clear();
+        slots = 0;
+        nextLabel = 0;
+        Arrays.fill(alive, false);
+        built = true;
+    }
+
+    private int allocate() {
+        if (!freeSlots.isEmpty()) {
+            return freeSlots.removeLast();
+        }
+        if (slots == ids.length) {
+            final int capacity = Math.max(16, ids.length << 1);
+            ids = Arrays.copyOf(ids, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            alive = Arrays.copyOf(alive, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            core = Arrays.copyOf(core, capacity);
+            labels = Arrays.copyOf(labels, capacity);
+            borderLabels = Arrays.copyOf(borderLabels, capacity);
+            inputIndex = Arrays.copyOf(inputIndex, capacity);
+            seen = Arrays.copyOf(seen, capacity);
+            touched = Arrays.copyOf(touched, capacity);
+            lost = Arrays.copyOf(lost, capacity);
+            lostParent = Arrays.copyOf(lostParent, capacity);
+            searchStamp = Arrays.copyOf(searchStamp, capacity);
+            searchOf = Arrays.copyOf(searchOf, capacity);
+            groupOf = Arrays.copyOf(groupOf, capacity);
+        }
+        return slots++;
+    }
+
+    /**
+     * Marks slot as having a changed neighbourhood in the current run.
+     */
+    private void touch(final int slot) {
+        if (touched[slot] != run) {
+            touched[slot] = run;
+            touchedSlots.add(slot);
+        }
+    }
+
+    /**
+     * Marks slot as lost core point in the current run.
+     */
+    private void markLost(final int slot) {
+        lost[slot] = run;
+        lostParent[slot] = slot;
+    }
+
+    private int findLost(final int slot) {
+        return find(lostParent, slot);
+    }
+
+    private void unionLost(final int first, final int second) {
+        final int firstRoot = findLost(first);
+        final int secondRoot = findLost(second);
+        if (firstRoot != secondRoot) {
+            lostParent[secondRoot] = firstRoot;
+        }
+    }
+
+    private int newLabel() {
+        if (nextLabel == labelParent.length) {
+            labelParent = Arrays.copyOf(labelParent, Math.max(MIN_LABEL_CAPACITY, labelParent.length << 1));
+            clusterOfLabel = Arrays.copyOf(clusterOfLabel, labelParent.length);
+        }
+        labelParent[nextLabel] = nextLabel;
+        clusterOfLabel[nextLabel] = -1;
+        return nextLabel++;
+    }
+
+    private int findLabel(final int label) {
+        return find(labelParent, label);
+    }
+
+    private void unionLabels(final int first, final int second) {
+        final int firstRoot = findLabel(first);
+        final int secondRoot = findLabel(second);
+        if (firstRoot != secondRoot) {
+            labelParent[Math.max(firstRoot, secondRoot)] = Math.min(firstRoot, secondRoot);
+        }
+    }
+
+    private static int find(final int[] parent, int element) {
+        while (parent[element] != element) {
+            // Path halving
+            parent[element] = parent[parent[element]];
+            element = parent[element];
+        }
+        return element;
+    }
+
+    /**
+     * Determines all indexed slots within the maximum distance of the given location.
+     */
+    private void neighbours(final double x, final double y) {
+        neighbours.clear();
+        final int cellCount = index.neighbourCells(x, y, cells);
+        for (int c = 0; c < cellCount; c++) {
+            for (int slot = index.first(cells[c]); slot >= 0; slot = index.next(slot)) {
+                if (threshold.within(topology, x, y, xs[slot], ys[slot])) {
+                    neighbours.add(slot);
+                }
+            }
+        }
+    }
+
+    private static boolean contains(final IntList list, final int value) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
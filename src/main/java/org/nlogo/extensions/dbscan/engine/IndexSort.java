@@ -0,0 +1,74 @@
+package org.nlogo.extensions.dbscan.engine;
+
+/**
+ * Sorts point indices by associated primitive values without boxing
+ * (stable bottom-up merge sort).
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public final class IndexSort {
+
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    private IndexSort() {}
+
+    /**
+     * Returns the indices 0 to size - 1 ordered by ascending value. Indices of
+     * equal values remain in ascending order.
+     *
+     * @param values Values to sort by
+     * @param size Number of values
+     * @return Ordered indices
+     */
+    public static int[] byValue(final double[] values, final int size) {
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+
+        // Sort small runs by insertion
+        for (int from = 0; from < size; from += INSERTION_SORT_THRESHOLD) {
+            final int to = Math.min(size, from + INSERTION_SORT_THRESHOLD);
+            for (int i = from + 1; i < to; i++) {
+                final int index = order[i];
+                final double value = values[index];
+                int j = i - 1;
+                while (j >= from && values[order[j]] > value) {
+                    order[j + 1] = order[j];
+                    j--;
+                }
+                order[j + 1] = index;
+            }
+        }
+
+        // Merge runs
+        int[] buffer = new int[size];
+        for (int width = INSERTION_SORT_THRESHOLD; width < size; width <<= 1) {
+            for (int from = 0; from < size; from += width << 1) {
+                final int middle = Math.min(size, from + width);
+                final int to = Math.min(size, from + (width << 1));
+                int left = from;
+                int right = middle;
+                int target = from;
+                while (left < middle && right < to) {
+                    buffer[target++] = values[order[right]] < values[order[left]] ? order[right++] : order[left++];
+                }
+                while (left < middle) {
+                    buffer[target++] = order[left++];
+                }
+                while (right < to) {
+                    buffer[target++] = order[right++];
+                }
+            }
+            final int[] swap = order;
+            order = buffer;
+            buffer = swap;
+        }
+        return order;
+    }
+
+}
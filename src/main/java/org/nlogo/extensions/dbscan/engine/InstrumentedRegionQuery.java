@@ -0,0 +1,87 @@
+package org.nlogo.extensions.dbscan.engine;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Region query that counts the neighbourhood lookups of the region query it decorates and
+ * optionally measures the time spent in them. Counting is cheap enough to be always enabled,
+ * whereas timing each lookup adds noticeably to short lookups and is hence only performed
+ * if requested. Counters are thread-safe (see {@link ParallelDBSCAN}).
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public final class InstrumentedRegionQuery implements RegionQuery {
+
+    private final RegionQuery query;
+    private final boolean timed;
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    /**
+     * Instantiates instrumented region query.
+     *
+     * @param query Decorated region query
+     * @param timed Indicates whether the time spent in lookups is to be measured
+     */
+    public InstrumentedRegionQuery(final RegionQuery query, final boolean timed) {
+        this.query = query;
+        this.timed = timed;
+    }
+
+    @Override
+    public int size() {
+        return query.size();
+    }
+
+    @Override
+    public void neighbours(final int point, final IntList neighbours) {
+        lookups.increment();
+        if (!timed) {
+            query.neighbours(point, neighbours);
+            return;
+        }
+        final long start = System.nanoTime();
+        query.neighbours(point, neighbours);
+        nanos.add(System.nanoTime() - start);
+    }
+
+    @Override
+    public long distanceEvaluations() {
+        return query.distanceEvaluations();
+    }
+
+    /**
+     * Resets the counters and timings (e.g., before the decorated query is reused for another clustering).
+     */
+    public void reset() {
+        lookups.reset();
+        nanos.reset();
+    }
+
+    /**
+     * Returns the number of neighbourhood lookups performed so far.
+     *
+     * @return Number of lookups
+     */
+    public long lookups() {
+        return lookups.sum();
+    }
+
+    public boolean isTimed() {
+        return timed;
+    }
+
+    /**
+     * Returns the time spent in neighbourhood lookups so far (summed across threads).
+     *
+     * @return Time in nanoseconds, or -1 if lookups are not timed
+     */
+    public long nanos() {
+        return timed ? nanos.sum() : -1;
+    }
+
+}
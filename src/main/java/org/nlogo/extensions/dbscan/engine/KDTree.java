@@ -0,0 +1,124 @@
+package org.nlogo.extensions.dbscan.engine;
+
+/**
+ * Static k-d tree over points with multiple numeric dimensions (stored row-wise, see
+ * {@link VectorMetric}). The tree is implicit: points are permuted such that each node
+ * is the median of its index range with respect to the node's split dimension (the
+ * dimension of largest spread), smaller values located before and larger values after it.
+ * Queries are read-only and can hence be run concurrently.
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public final class KDTree {
+
+    /**
+     * Ranges of at most this number of points are scanned linearly.
+     */
+    private static final int LEAF_SIZE = 8;
+
+    private final double[] data;
+    private final int dimensions;
+    private final int[] points;
+    private final int[] splitDimension;
+
+    /**
+     * Builds tree over the given points.
+     *
+     * @param data Point coordinates (row-wise)
+     * @param dimensions Number of dimensions per point
+     * @param size Number of points
+     */
+    public KDTree(final double[] data, final int dimensions, final int size) {
+        this.data = data;
+        this.dimensions = dimensions;
+        this.points = new int[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = i;
+        }
+        this.splitDimension = new int[size];
+        build(0, size);
+    }
+
+    /**
+     * Appends the indices of all points within the maximum distance of the given point
+     * (including the point itself) to the given list.
+     *
+     * @param point Index of queried point
+     * @param maxDistance Maximum distance
+     * @param metric Distance metric
+     * @param neighbours List the neighbour indices are appended to
+     * @return Number of distance evaluations
+     */
+    public int neighbours(final int point, final double maxDistance, final VectorMetric metric,
+            final IntList neighbours) {
+        return search(0, points.length, point, maxDistance, metric, neighbours);
+    }
+
+    private int search(int from, int to, final int point, final double maxDistance, final VectorMetric metric,
+            final IntList neighbours) {
+        int evaluations = 0;
+        while (to - from > LEAF_SIZE) {
+            final int median = (from + to) >>> 1;
+            final int candidate = points[median];
+            final int dimension = splitDimension[median];
+            final double difference = data[point * dimensions + dimension] - data[candidate * dimensions + dimension];
+            if (metric.distance(data, dimensions, point, candidate) <= maxDistance) {
+                neighbours.add(candidate);
+            }
+            evaluations++;
+            // Any metric distance is at least the difference in the split dimension
+            if (difference <= maxDistance) {
+                if (-difference <= maxDistance) {
+                    evaluations += search(median + 1, to, point, maxDistance, metric, neighbours);
+                }
+                to = median;
+            } else {
+                from = median + 1;
+            }
+        }
+        evaluations += to - from;
+        for (int i = from; i < to; i++) {
+            final int candidate = points[i];
+            if (metric.distance(data, dimensions, point, candidate) <= maxDistance) {
+                neighbours.add(candidate);
+            }
+        }
+        return evaluations;
+    }
+
+    private void build(final int from, final int to) {
+        if (to - from <= LEAF_SIZE) {
+            return;
+        }
+        final int dimension = widestDimension(from, to);
+        final int median = (from + to) >>> 1;
+        Selection.select(points, from, to, median, point -> data[point * dimensions + dimension]);
+        splitDimension[median] = dimension;
+        build(from, median);
+        build(median + 1, to);
+    }
+
+    private int widestDimension(final int from, final int to) {
+        int widest = 0;
+        double widestSpread = -1;
+        for (int k = 0; k < dimensions; k++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = from; i < to; i++) {
+                final double value = data[points[i] * dimensions + k];
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            if (max - min > widestSpread) {
+                widestSpread = max - min;
+                widest = k;
+            }
+        }
+        return widest;
+    }
+
+}
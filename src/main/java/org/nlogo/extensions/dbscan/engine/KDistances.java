@@ -0,0 +1,75 @@
+package org.nlogo.extensions.dbscan.engine;
+
+import java.util.Arrays;
+
+/**
+ * Distances of points to their k-th nearest neighbours (k-distances), which guide the choice
+ * of the maximum distance for DBSCAN (Ester et al., 1996): points whose k-distance does not
+ * exceed the maximum distance are core points for a minimum number of k + 1 points (as
+ * neighbourhoods include the point itself). Nearest neighbours are determined via a
+ * {@link LocationTree}, hence the computation requires O(n log n) time for n points.
+ * Distances correspond to the ones of {@link WorldTopology#distance(double, double, double, double)}.
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public final class KDistances {
+
+    private KDistances() {}
+
+    /**
+     * Determines the sorted k-distances of the given points.
+     *
+     * @param xs x coordinates of points
+     * @param ys y coordinates of points
+     * @param size Number of points (entries in coordinate arrays)
+     * @param k Rank of neighbour (excluding the point itself, 1 to size - 1)
+     * @param topology World topology
+     * @return Distance of each point to its k-th nearest neighbour (in ascending order)
+     */
+    public static double[] of(final double[] xs, final double[] ys, final int size, final int k,
+            final WorldTopology topology) {
+        final LocationTree tree = new LocationTree(xs, ys, size, topology);
+        final double[] nearest = new double[k];
+        final double[] distances = new double[size];
+        for (int point = 0; point < size; point++) {
+            tree.nearestSquaredDistances(point, k, nearest);
+            // Square root of squared distance equals the StrictMath-based distance (see DistanceThreshold)
+            distances[point] = Math.sqrt(nearest[k - 1]);
+        }
+        Arrays.sort(distances);
+        return distances;
+    }
+
+    /**
+     * Determines the knee of the given sorted k-distances, i.e., the distance beyond which
+     * k-distances start to increase steeply (points turn from dense regions to noise). The knee
+     * is the point of the curve farthest below the straight line between its first and last
+     * point, with both axes normalised to [0, 1] (Satopaa et al., 2011).
+     *
+     * @param distances k-distances in ascending order (at least one)
+     * @return k-distance at the knee
+     */
+    public static double knee(final double[] distances) {
+        final int last = distances.length - 1;
+        final double range = distances[last] - distances[0];
+        if (last == 0 || range <= 0) {
+            return distances[last];
+        }
+        int knee = last;
+        double largestGap = 0;
+        for (int i = 0; i <= last; i++) {
+            final double x = (double) i / last;
+            final double y = (distances[i] - distances[0]) / range;
+            if (x - y > largestGap) {
+                largestGap = x - y;
+                knee = i;
+            }
+        }
+        return distances[knee];
+    }
+
+}
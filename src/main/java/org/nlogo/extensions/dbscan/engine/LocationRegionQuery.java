@@ -0,0 +1,138 @@
+package org.nlogo.extensions.dbscan.engine;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Region query for point locations backed by a {@link GridIndex}. Only points
+ * located in the cells surrounding the queried point's cell are compared using
+ * the topology-specific distance calculation (see {@link DistanceThreshold}).
+ * Operates exclusively on primitive coordinate arrays (snapshot of agent locations),
+ * which are copied in cell order so that the points of a cell are compared in
+ * sequence.
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public final class LocationRegionQuery implements RegionQuery {
+
+    // Scratch space receiving the cells surrounding a queried point, one per thread (see ParallelDBSCAN)
+    private static final ThreadLocal<int[]> CELLS = ThreadLocal.withInitial(() -> new int[GridIndex.MAX_NEIGHBOUR_CELLS]);
+
+    private double[] cellXs = new double[0];
+    private double[] cellYs = new double[0];
+    private double[] xs;
+    private double[] ys;
+    private int size;
+    private final GridIndex index = new GridIndex();
+    private WorldTopology topology;
+    private DistanceThreshold threshold;
+    // Added to once per lookup (thread-safe for parallel clustering)
+    private final LongAdder evaluations = new LongAdder();
+
+    /**
+     * Instantiates region query.
+     *
+     * @param xs x coordinates of points
+     * @param ys y coordinates of points
+     * @param size Number of points (entries in coordinate arrays)
+     * @param maxDistance Maximum distance between neighbouring points
+     * @param topology World topology
+     */
+    public LocationRegionQuery(final double[] xs, final double[] ys, final int size,
+            final double maxDistance, final WorldTopology topology) {
+        this(xs, ys, size, maxDistance, topology, false);
+    }
+
+    /**
+     * Instantiates region query.
+     *
+     * @param xs x coordinates of points
+     * @param ys y coordinates of points
+     * @param size Number of points (entries in coordinate arrays)
+     * @param maxDistance Maximum distance between neighbouring points
+     * @param topology World topology
+     * @param strictMath Indicates whether distances are to be compared using StrictMath (see {@link DistanceThreshold})
+     */
+    public LocationRegionQuery(final double[] xs, final double[] ys, final int size,
+            final double maxDistance, final WorldTopology topology, final boolean strictMath) {
+        update(xs, ys, size, maxDistance, topology, strictMath);
+    }
+
+    /**
+     * Instantiates region query without points, to be set using
+     * {@link #update(double[], double[], int, double, WorldTopology, boolean)}.
+     */
+    public LocationRegionQuery() {
+        this.xs = cellXs;
+        this.ys = cellYs;
+        this.topology = WorldTopology.box();
+    }
+
+    /**
+     * Replaces the points of the region query and rebuilds its index. The arrays of the
+     * index and the cell-ordered coordinate copies are reused as long as they are large
+     * enough, so that repeatedly querying populations of similar size allocates little.
+     *
+     * @param xs x coordinates of points
+     * @param ys y coordinates of points
+     * @param size Number of points (entries in coordinate arrays)
+     * @param maxDistance Maximum distance between neighbouring points
+     * @param topology World topology
+     * @param strictMath Indicates whether distances are to be compared using StrictMath (see {@link DistanceThreshold})
+     */
+    public void update(final double[] xs, final double[] ys, final int size,
+            final double maxDistance, final WorldTopology topology, final boolean strictMath) {
+        this.xs = xs;
+        this.ys = ys;
+        this.size = size;
+        this.index.rebuild(xs, ys, size, maxDistance, topology);
+        this.topology = topology;
+        this.evaluations.reset();
+        if (threshold == null || threshold.maxDistance() != maxDistance || threshold.isStrict() != strictMath) {
+            this.threshold = new DistanceThreshold(maxDistance, strictMath);
+        }
+        if (cellXs.length < size) {
+            this.cellXs = new double[size];
+            this.cellYs = new double[size];
+        }
+        for (int position = 0; position < size; position++) {
+            final int point = index.pointAt(position);
+            cellXs[position] = xs[point];
+            cellYs[position] = ys[point];
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void neighbours(final int point, final IntList neighbours) {
+        final int[] cells = CELLS.get();
+        final int cellCount = index.neighbourCells(point, cells);
+        final double x = xs[point];
+        final double y = ys[point];
+        int candidates = 0;
+        for (int c = 0; c < cellCount; c++) {
+            final int start = index.cellStart(cells[c]);
+            final int end = index.cellEnd(cells[c]);
+            for (int position = start; position < end; position++) {
+                if (threshold.within(topology, x, y, cellXs[position], cellYs[position])) {
+                    neighbours.add(index.pointAt(position));
+                }
+            }
+            candidates += end - start;
+        }
+        evaluations.add(candidates);
+    }
+
+    @Override
+    public long distanceEvaluations() {
+        return evaluations.sum();
+    }
+
+}
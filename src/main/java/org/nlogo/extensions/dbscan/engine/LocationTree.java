@@ -0,0 +1,197 @@
+package org.nlogo.extensions.dbscan.engine;
+
+import java.util.Arrays;
+
+/**
+ * Static 2-d tree over point locations with explicit nodes holding the bounding box of
+ * their points. Lower bounds of distances between a location and a node's points consider
+ * the wrapping of the world (torus, cylinders), which allows nearest neighbour searches
+ * without a maximum distance (as opposed to {@link GridIndex}). All distances are squared.
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+final class LocationTree {
+
+    /**
+     * Nodes of at most this number of points are not split.
+     */
+    private static final int LEAF_SIZE = 16;
+
+    final double[] xs;
+    final double[] ys;
+    final WorldTopology topology;
+    /** Point indices in tree order (the points of each node are stored contiguously). */
+    final int[] points;
+    /** Range of points of each node (from inclusive, to exclusive). */
+    final int[] from;
+    final int[] to;
+    /** Child nodes (-1 for leaves). */
+    final int[] left;
+    final int[] right;
+    final double[] minX;
+    final double[] maxX;
+    final double[] minY;
+    final double[] maxY;
+    /** Lowest point index of each node. */
+    final int[] lowestPoint;
+    private int nodeCount = 0;
+
+    /**
+     * Builds tree over the given point locations.
+     *
+     * @param xs x coordinates of points
+     * @param ys y coordinates of points
+     * @param size Number of points (entries in coordinate arrays)
+     * @param topology World topology
+     */
+    LocationTree(final double[] xs, final double[] ys, final int size, final WorldTopology topology) {
+        this.xs = xs;
+        this.ys = ys;
+        this.topology = topology;
+        this.points = new int[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = i;
+        }
+        // Split nodes hold more than LEAF_SIZE points, hence leaves at least LEAF_SIZE / 2
+        final int capacity = 2 * (size / (LEAF_SIZE / 2)) + 1;
+        this.from = new int[capacity];
+        this.to = new int[capacity];
+        this.left = new int[capacity];
+        this.right = new int[capacity];
+        this.minX = new double[capacity];
+        this.maxX = new double[capacity];
+        this.minY = new double[capacity];
+        this.maxY = new double[capacity];
+        this.lowestPoint = new int[capacity];
+        build(0, size);
+    }
+
+    int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Root node (node 0), children are stored after their parents.
+     */
+    static int root() {
+        return 0;
+    }
+
+    /**
+     * Calculates the smallest squared distance between the given location and any location
+     * within the bounding box of the given node. As box bounds are point coordinates, the
+     * bound does not exceed the squared distance of any of the node's points (see
+     * {@link WorldTopology#squaredDistance(double, double, double, double)}).
+     *
+     * @param node Node
+     * @param x x coordinate of location
+     * @param y y coordinate of location
+     * @return Lower bound of squared distances
+     */
+    double squaredDistanceToNode(final int node, final double x, final double y) {
+        final double dx = axisDistance(x, minX[node], maxX[node], topology.wrapsX(), topology.width());
+        final double dy = axisDistance(y, minY[node], maxY[node], topology.wrapsY(), topology.height());
+        return dx * dx + dy * dy;
+    }
+
+    private static double axisDistance(final double value, final double min, final double max,
+            final boolean wrap, final double extent) {
+        if (value >= min && value <= max) {
+            return 0;
+        }
+        final double toMin = Math.abs(value - min);
+        final double toMax = Math.abs(value - max);
+        final double direct = Math.min(toMin, toMax);
+        // Around the world: towards the bound farther away
+        return wrap ? Math.max(0, Math.min(direct, extent - Math.max(toMin, toMax))) : direct;
+    }
+
+    /**
+     * Determines the squared distances to the nearest neighbours of the given point
+     * (excluding the point itself, but including other points at the same location).
+     *
+     * @param point Index of point
+     * @param count Number of neighbours
+     * @param distances Array receiving the squared distances in ascending order
+     *                  (at least count entries); unfound neighbours are positive infinity
+     */
+    void nearestSquaredDistances(final int point, final int count, final double[] distances) {
+        Arrays.fill(distances, 0, count, Double.POSITIVE_INFINITY);
+        nearest(root(), point, count, distances);
+    }
+
+    private void nearest(final int node, final int point, final int count, final double[] distances) {
+        final double x = xs[point];
+        final double y = ys[point];
+        if (left[node] < 0) {
+            for (int i = from[node]; i < to[node]; i++) {
+                final int candidate = points[i];
+                if (candidate == point) {
+                    continue;
+                }
+                final double distance = topology.squaredDistance(x, y, xs[candidate], ys[candidate]);
+                if (distance < distances[count - 1]) {
+                    int slot = count - 1;
+                    while (slot > 0 && distances[slot - 1] > distance) {
+                        distances[slot] = distances[slot - 1];
+                        slot--;
+                    }
+                    distances[slot] = distance;
+                }
+            }
+            return;
+        }
+        // Visit closer child first
+        final double toLeft = squaredDistanceToNode(left[node], x, y);
+        final double toRight = squaredDistanceToNode(right[node], x, y);
+        final int first = toLeft <= toRight ? left[node] : right[node];
+        final int second = first == left[node] ? right[node] : left[node];
+        if (Math.min(toLeft, toRight) < distances[count - 1]) {
+            nearest(first, point, count, distances);
+        }
+        if (Math.max(toLeft, toRight) < distances[count - 1]) {
+            nearest(second, point, count, distances);
+        }
+    }
+
+    private int build(final int start, final int end) {
+        final int node = nodeCount++;
+        from[node] = start;
+        to[node] = end;
+        double lowX = Double.POSITIVE_INFINITY;
+        double highX = Double.NEGATIVE_INFINITY;
+        double lowY = Double.POSITIVE_INFINITY;
+        double highY = Double.NEGATIVE_INFINITY;
+        int lowest = Integer.MAX_VALUE;
+        for (int i = start; i < end; i++) {
+            lowest = Math.min(lowest, points[i]);
+            lowX = Math.min(lowX, xs[points[i]]);
+            highX = Math.max(highX, xs[points[i]]);
+            lowY = Math.min(lowY, ys[points[i]]);
+            highY = Math.max(highY, ys[points[i]]);
+        }
+        minX[node] = lowX;
+        maxX[node] = highX;
+        minY[node] = lowY;
+        maxY[node] = highY;
+        lowestPoint[node] = lowest;
+        // Nodes of points at the same location are split as well (at the median index, as all values are equal),
+        // so that many agents on the same spot do not end up in a single leaf scanned by every search
+        if (end - start <= LEAF_SIZE) {
+            left[node] = -1;
+            right[node] = -1;
+            return node;
+        }
+        final double[] values = highX - lowX >= highY - lowY ? xs : ys;
+        final int median = (start + end) >>> 1;
+        Selection.select(points, start, end, median, point -> values[point]);
+        left[node] = build(start, median);
+        right[node] = build(median, end);
+        return node;
+    }
+
+}
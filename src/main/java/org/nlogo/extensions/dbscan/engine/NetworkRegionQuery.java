@@ -0,0 +1,104 @@
+package org.nlogo.extensions.dbscan.engine;
+
+import java.util.Arrays;
+
+/**
+ * Region query for nodes of a network, where the distance between two nodes is the number of
+ * links on the shortest path between them (hops), with links traversed in either direction.
+ * Links are stored once as compressed adjacency arrays (CSR: the neighbours of node i are
+ * held in targets[offsets[i]] to targets[offsets[i + 1] - 1]), and each neighbourhood is
+ * determined by a breadth-first search bounded by the maximum number of hops. Visited nodes
+ * are marked with a per-search stamp, so that searches neither allocate nor reset arrays.
+ *
+ * As searches share the stamp array, lookups must not be performed concurrently.
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public final class NetworkRegionQuery implements RegionQuery {
+
+    private final int size;
+    private final int maxHops;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] stamps;
+    private int stamp = 0;
+    private long evaluations = 0;
+
+    /**
+     * Instantiates region query for the given links.
+     *
+     * @param ends1 Index of first end of each link
+     * @param ends2 Index of second end of each link
+     * @param links Number of links (entries in end arrays)
+     * @param size Number of nodes
+     * @param maxHops Maximum number of hops between neighbouring nodes
+     */
+    public NetworkRegionQuery(final int[] ends1, final int[] ends2, final int links, final int size,
+            final int maxHops) {
+        this.size = size;
+        this.maxHops = maxHops;
+        this.stamps = new int[size];
+
+        // Count degrees, then fill adjacency arrays from the (prefix-summed) offsets
+        this.offsets = new int[size + 1];
+        for (int link = 0; link < links; link++) {
+            offsets[ends1[link] + 1]++;
+            offsets[ends2[link] + 1]++;
+        }
+        for (int node = 0; node < size; node++) {
+            offsets[node + 1] += offsets[node];
+        }
+        this.targets = new int[offsets[size]];
+        final int[] fill = new int[size];
+        for (int link = 0; link < links; link++) {
+            final int end1 = ends1[link];
+            final int end2 = ends2[link];
+            targets[offsets[end1] + fill[end1]++] = end2;
+            targets[offsets[end2] + fill[end2]++] = end1;
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void neighbours(final int point, final IntList neighbours) {
+        if (++stamp == 0) {
+            // Stamps have wrapped around; previous marks must not be mistaken for current ones
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+
+        // The neighbour list serves as queue: nodes of each hop are appended after those of the previous hop
+        int levelStart = neighbours.size();
+        stamps[point] = stamp;
+        neighbours.add(point);
+        for (int hop = 0; hop < maxHops && levelStart < neighbours.size(); hop++) {
+            final int levelEnd = neighbours.size();
+            for (int i = levelStart; i < levelEnd; i++) {
+                final int node = neighbours.get(i);
+                for (int t = offsets[node]; t < offsets[node + 1]; t++) {
+                    final int target = targets[t];
+                    if (stamps[target] != stamp) {
+                        stamps[target] = stamp;
+                        neighbours.add(target);
+                    }
+                }
+                evaluations += offsets[node + 1] - offsets[node];
+            }
+            levelStart = levelEnd;
+        }
+    }
+
+    @Override
+    public long distanceEvaluations() {
+        return evaluations;
+    }
+
+}
@@ -0,0 +1,368 @@
+package org.nlogo.extensions.dbscan.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * OPTICS cluster ordering of point locations (Ankerst et al., 1999), computed once for a
+ * generating maximum distance, from which DBSCAN clusterings for any maximum distance up to
+ * the generating one can be extracted in linear time.
+ *
+ * In addition to the ordering, reachability and core distances, the nearest neighbours of
+ * each point (up to the minimum number of elements) are retained. A point that is not a core
+ * point for the extraction distance has fewer neighbours within that distance than the minimum
+ * number of elements, all of which are hence among the retained ones. This allows assigning
+ * border points to all clusters they neighbour, so that extracted clusters are identical to
+ * the ones produced by {@link DBSCANEngine} with a {@link LocationRegionQuery} (clusters ordered
+ * by their first core point in input order, members listed in input order).
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public final class OPTICSOrdering {
+
+    private static final double UNDEFINED = Double.POSITIVE_INFINITY;
+
+    private final int size;
+    private final int minNumberOfElements;
+    private final double maxDistance;
+    private final int[] order;
+    private final double[] reachability;
+    private final double[] coreDistance;
+    // Nearest neighbours (excluding the point itself) in order of distance, minNumberOfElements - 1 slots per point
+    private final int[] nearest;
+    private final double[] nearestDistance;
+    private final int[] nearestCount;
+
+    private OPTICSOrdering(final int size, final int minNumberOfElements, final double maxDistance) {
+        this.size = size;
+        this.minNumberOfElements = minNumberOfElements;
+        this.maxDistance = maxDistance;
+        this.order = new int[size];
+        this.reachability = new double[size];
+        this.coreDistance = new double[size];
+        this.nearest = new int[size * (minNumberOfElements - 1)];
+        this.nearestDistance = new double[nearest.length];
+        this.nearestCount = new int[size];
+    }
+
+    /**
+     * Computes the cluster ordering of the given point locations.
+     *
+     * @param xs x coordinates of points
+     * @param ys y coordinates of points
+     * @param size Number of points (entries in coordinate arrays)
+     * @param maxDistance Generating maximum distance between neighbouring points
+     * @param minNumberOfElements Minimum number of points in a neighbourhood to constitute a core point (at least 2)
+     * @param topology World topology
+     * @return Cluster ordering
+     */
+    public static OPTICSOrdering of(final double[] xs, final double[] ys, final int size,
+            final double maxDistance, final int minNumberOfElements, final WorldTopology topology) {
+
+        final OPTICSOrdering ordering = new OPTICSOrdering(size, minNumberOfElements, maxDistance);
+        final LocationRegionQuery query = new LocationRegionQuery(xs, ys, size, maxDistance, topology);
+        final boolean[] processed = new boolean[size];
+        Arrays.fill(ordering.reachability, UNDEFINED);
+        final SeedHeap seeds = new SeedHeap(ordering.reachability, size);
+        final IntList neighbours = new IntList();
+        double[] distances = new double[16];
+        int position = 0;
+
+        for (int start = 0; start < size; start++) {
+            if (processed[start]) {
+                continue;
+            }
+            int point = start;
+            while (point >= 0) {
+                processed[point] = true;
+                ordering.order[position++] = point;
+
+                // Determine neighbours with distances; the square root of the squared distance equals the
+                // StrictMath-based distance (see DistanceThreshold)
+                neighbours.clear();
+                query.neighbours(point, neighbours);
+                if (distances.length < neighbours.size()) {
+                    distances = new double[Math.max(neighbours.size(), distances.length << 1)];
+                }
+                for (int i = 0; i < neighbours.size(); i++) {
+                    final int neighbour = neighbours.get(i);
+                    distances[i] = Math.sqrt(topology.squaredDistance(xs[point], ys[point], xs[neighbour], ys[neighbour]));
+                }
+                ordering.retainNearest(point, neighbours, distances);
+
+                // Update reachability of unprocessed neighbours of core points
+                final double core = ordering.coreDistance[point];
+                if (core != UNDEFINED) {
+                    for (int i = 0; i < neighbours.size(); i++) {
+                        final int neighbour = neighbours.get(i);
+                        if (!processed[neighbour]) {
+                            final double reach = Math.max(core, distances[i]);
+                            if (reach < ordering.reachability[neighbour]) {
+                                ordering.reachability[neighbour] = reach;
+                                seeds.update(neighbour);
+                            }
+                        }
+                    }
+                }
+                point = seeds.poll();
+            }
+        }
+        return ordering;
+    }
+
+    /**
+     * Retains the nearest neighbours (other than the point itself) of the given point and
+     * determines its core distance.
+     */
+    private void retainNearest(final int point, final IntList neighbours, final double[] distances) {
+        final int capacity = minNumberOfElements - 1;
+        final int offset = point * capacity;
+        int count = 0;
+        for (int i = 0; i < neighbours.size(); i++) {
+            final int neighbour = neighbours.get(i);
+            if (neighbour == point) {
+                continue;
+            }
+            final double distance = distances[i];
+            // Insertion into sorted bounded list (ties ordered by index for determinism)
+            int slot = count;
+            while (slot > 0 && precedes(distance, neighbour, nearestDistance[offset + slot - 1], nearest[offset + slot - 1])) {
+                slot--;
+            }
+            if (slot >= capacity) {
+                continue;
+            }
+            final int last = Math.min(count, capacity - 1);
+            for (int j = last; j > slot; j--) {
+                nearest[offset + j] = nearest[offset + j - 1];
+                nearestDistance[offset + j] = nearestDistance[offset + j - 1];
+            }
+            nearest[offset + slot] = neighbour;
+            nearestDistance[offset + slot] = distance;
+            count = Math.min(count + 1, capacity);
+        }
+        nearestCount[point] = count;
+        // The point itself counts towards its neighbourhood
+        coreDistance[point] = count == capacity ? nearestDistance[offset + capacity - 1] : UNDEFINED;
+    }
+
+    private static boolean precedes(final double distance, final int index, final double otherDistance,
+            final int otherIndex) {
+        return distance < otherDistance || (distance == otherDistance && index < otherIndex);
+    }
+
+    /**
+     * Extracts the DBSCAN clustering for the given maximum distance.
+     *
+     * @param extractionDistance Maximum distance between neighbouring points (at most the generating distance)
+     * @param core Array receiving the core point flags (at least size entries), or null
+     * @return List of clusters, each holding the indices of its members
+     */
+    public List<int[]> extract(final double extractionDistance, final boolean[] core) {
+        final boolean[] isCore = core != null ? core : new boolean[size];
+        for (int point = 0; point < size; point++) {
+            isCore[point] = coreDistance[point] <= extractionDistance;
+        }
+
+        // Core points: a core point that is not reachable within the distance starts a new cluster
+        final int[] label = new int[size];
+        Arrays.fill(label, -1);
+        int clusterCount = 0;
+        for (int position = 0; position < size; position++) {
+            final int point = order[position];
+            if (!isCore[point]) {
+                continue;
+            }
+            if (reachability[point] > extractionDistance) {
+                clusterCount++;
+            }
+            label[point] = clusterCount - 1;
+        }
+
+        // Number clusters by their first core point in input order
+        final int[] rank = new int[clusterCount];
+        Arrays.fill(rank, -1);
+        int ranked = 0;
+        for (int point = 0; point < size; point++) {
+            if (isCore[point] && rank[label[point]] < 0) {
+                rank[label[point]] = ranked++;
+            }
+        }
+
+        // Collect members in input order; border points join all clusters of neighbouring core points
+        final IntList[] members = new IntList[clusterCount];
+        for (int c = 0; c < clusterCount; c++) {
+            members[c] = new IntList();
+        }
+        final IntList clustersOfPoint = new IntList();
+        final int capacity = minNumberOfElements - 1;
+        for (int point = 0; point < size; point++) {
+            if (isCore[point]) {
+                members[rank[label[point]]].add(point);
+                continue;
+            }
+            clustersOfPoint.clear();
+            final int offset = point * capacity;
+            for (int i = 0; i < nearestCount[point] && nearestDistance[offset + i] <= extractionDistance; i++) {
+                final int neighbour = nearest[offset + i];
+                if (isCore[neighbour]) {
+                    final int cluster = rank[label[neighbour]];
+                    if (!contains(clustersOfPoint, cluster)) {
+                        clustersOfPoint.add(cluster);
+                        members[cluster].add(point);
+                    }
+                }
+            }
+        }
+
+        final List<int[]> clusters = new ArrayList<>(clusterCount);
+        for (IntList cluster: members) {
+            clusters.add(cluster.toArray());
+        }
+        return clusters;
+    }
+
+    /**
+     * Returns the points in cluster order.
+     *
+     * @return Point indices
+     */
+    public int[] order() {
+        return order;
+    }
+
+    /**
+     * Returns the reachability distance of the given point.
+     *
+     * @param point Point index
+     * @return Reachability distance, or positive infinity if undefined
+     */
+    public double reachability(final int point) {
+        return reachability[point];
+    }
+
+    /**
+     * Returns the core distance of the given point.
+     *
+     * @param point Point index
+     * @return Core distance, or positive infinity if undefined (no core point for the generating distance)
+     */
+    public double coreDistance(final int point) {
+        return coreDistance[point];
+    }
+
+    public double maxDistance() {
+        return maxDistance;
+    }
+
+    public int minNumberOfElements() {
+        return minNumberOfElements;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static boolean contains(final IntList list, final int value) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Binary min-heap of points keyed by reachability (ties ordered by index) that supports
+     * decreasing the key of contained points.
+     */
+    private static final class SeedHeap {
+
+        private final double[] keys;
+        private final int[] heap;
+        private final int[] positionOf;
+        private int count = 0;
+
+        SeedHeap(final double[] keys, final int size) {
+            this.keys = keys;
+            this.heap = new int[size];
+            this.positionOf = new int[size];
+            Arrays.fill(positionOf, -1);
+        }
+
+        /**
+         * Inserts the point or restores the heap order after its key has decreased.
+         */
+        void update(final int point) {
+            int position = positionOf[point];
+            if (position < 0) {
+                position = count++;
+                heap[position] = point;
+                positionOf[point] = position;
+            }
+            siftUp(position);
+        }
+
+        /**
+         * Removes the point with the smallest key.
+         *
+         * @return Point index, or -1 if empty
+         */
+        int poll() {
+            if (count == 0) {
+                return -1;
+            }
+            final int top = heap[0];
+            positionOf[top] = -1;
+            count--;
+            if (count > 0) {
+                heap[0] = heap[count];
+                positionOf[heap[0]] = 0;
+                siftDown(0);
+            }
+            return top;
+        }
+
+        private void siftUp(int position) {
+            final int point = heap[position];
+            while (position > 0) {
+                final int parent = (position - 1) >>> 1;
+                if (!precedes(keys[point], point, keys[heap[parent]], heap[parent])) {
+                    break;
+                }
+                heap[position] = heap[parent];
+                positionOf[heap[position]] = position;
+                position = parent;
+            }
+            heap[position] = point;
+            positionOf[point] = position;
+        }
+
+        private void siftDown(int position) {
+            final int point = heap[position];
+            while (true) {
+                int child = 2 * position + 1;
+                if (child >= count) {
+                    break;
+                }
+                if (child + 1 < count && precedes(keys[heap[child + 1]], heap[child + 1], keys[heap[child]], heap[child])) {
+                    child++;
+                }
+                if (!precedes(keys[heap[child]], heap[child], keys[point], point)) {
+                    break;
+                }
+                heap[position] = heap[child];
+                positionOf[heap[position]] = position;
+                position = child;
+            }
+            heap[position] = point;
+            positionOf[point] = position;
+        }
+    }
+
+}
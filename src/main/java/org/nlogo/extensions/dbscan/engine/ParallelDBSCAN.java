@@ -0,0 +1,249 @@
+package org.nlogo.extensions.dbscan.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Parallel DBSCAN implementation operating on a thread-safe {@link RegionQuery}
+ * (e.g., over a read-only coordinate snapshot). Region queries are distributed
+ * across a fork-join pool in three phases:
+ *
+ * 1) Core point detection (neighbour counts),
+ * 2) Merging of neighbouring core points using a concurrent union-find structure,
+ * 3) Assignment of border points to all clusters of neighbouring core points.
+ *
+ * Union-find roots are always the smallest index of a set, so that the result is
+ * deterministic and identical to the one produced by {@link DBSCANEngine}: clusters
+ * are ordered by their first core point in input order, cluster members are listed
+ * in input order.
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public final class ParallelDBSCAN {
+
+    /**
+     * Minimum number of points processed by a single task.
+     */
+    private static final int MIN_POINTS_PER_TASK = 256;
+
+    private static final int[] NO_CLUSTERS = new int[0];
+
+    private ParallelDBSCAN() {}
+
+    /**
+     * Performs the clustering of all points accessible via the given region query.
+     *
+     * @param query Thread-safe neighbourhood lookup for points to be clustered
+     * @param minNumberOfElements Minimum number of points in a neighbourhood to constitute a core point
+     * @param pool Fork-join pool executing the region queries
+     * @return List of clusters, each holding the indices of its members
+     */
+    public static List<int[]> cluster(final RegionQuery query, final int minNumberOfElements,
+            final ForkJoinPool pool) {
+        return cluster(query, minNumberOfElements, pool, null);
+    }
+
+    /**
+     * Performs the clustering of all points accessible via the given region query,
+     * recording which points are core points.
+     *
+     * @param query Thread-safe neighbourhood lookup for points to be clustered
+     * @param minNumberOfElements Minimum number of points in a neighbourhood to constitute a core point
+     * @param pool Fork-join pool executing the region queries
+     * @param corePoints Array receiving the core point flags (at least size entries), or null
+     * @return List of clusters, each holding the indices of its members
+     */
+    public static List<int[]> cluster(final RegionQuery query, final int minNumberOfElements,
+            final ForkJoinPool pool, final boolean[] corePoints) {
+
+        final int size = query.size();
+        final int grain = grain(size, pool);
+
+        // Phase 1: core point detection
+        final boolean[] core = corePoints != null ? corePoints : new boolean[size];
+        forEach(pool, size, grain, (from, to) -> {
+            final IntList neighbours = new IntList();
+            for (int point = from; point < to; point++) {
+                neighbours.clear();
+                query.neighbours(point, neighbours);
+                core[point] = neighbours.size() >= minNumberOfElements;
+            }
+        });
+
+        // Phase 2: merge neighbouring core points
+        final AtomicIntegerArray parent = new AtomicIntegerArray(size);
+        for (int point = 0; point < size; point++) {
+            parent.set(point, point);
+        }
+        forEach(pool, size, grain, (from, to) -> {
+            final IntList neighbours = new IntList();
+            for (int point = from; point < to; point++) {
+                if (!core[point]) {
+                    continue;
+                }
+                neighbours.clear();
+                query.neighbours(point, neighbours);
+                for (int i = 0; i < neighbours.size(); i++) {
+                    final int neighbour = neighbours.get(i);
+                    if (neighbour > point && core[neighbour]) {
+                        union(parent, point, neighbour);
+                    }
+                }
+            }
+        });
+
+        // Phase 3: determine the distinct clusters (roots) of border points
+        final int[][] borderRoots = new int[size][];
+        forEach(pool, size, grain, (from, to) -> {
+            final IntList neighbours = new IntList();
+            final IntList roots = new IntList();
+            for (int point = from; point < to; point++) {
+                if (core[point]) {
+                    continue;
+                }
+                neighbours.clear();
+                query.neighbours(point, neighbours);
+                roots.clear();
+                for (int i = 0; i < neighbours.size(); i++) {
+                    final int neighbour = neighbours.get(i);
+                    if (core[neighbour]) {
+                        final int root = find(parent, neighbour);
+                        if (!contains(roots, root)) {
+                            roots.add(root);
+                        }
+                    }
+                }
+                borderRoots[point] = roots.isEmpty() ? NO_CLUSTERS : roots.toArray();
+            }
+        });
+
+        // Number clusters in order of their roots (= first core point) and collect members in input order
+        final int[] clusterOfRoot = new int[size];
+        final List<IntList> members = new ArrayList<>();
+        for (int point = 0; point < size; point++) {
+            if (core[point] && find(parent, point) == point) {
+                clusterOfRoot[point] = members.size();
+                members.add(new IntList());
+            }
+        }
+        for (int point = 0; point < size; point++) {
+            if (core[point]) {
+                members.get(clusterOfRoot[find(parent, point)]).add(point);
+            } else {
+                for (int root: borderRoots[point]) {
+                    members.get(clusterOfRoot[root]).add(point);
+                }
+            }
+        }
+
+        final List<int[]> clusters = new ArrayList<>(members.size());
+        for (IntList cluster: members) {
+            clusters.add(cluster.toArray());
+        }
+        return clusters;
+    }
+
+    /**
+     * Determines the number of points processed by a single task.
+     *
+     * @param size Number of points
+     * @param pool Pool executing the tasks
+     * @return Number of points per task
+     */
+    static int grain(final int size, final ForkJoinPool pool) {
+        return Math.max(MIN_POINTS_PER_TASK, size / (pool.getParallelism() * 4));
+    }
+
+    /**
+     * Processes the range [0, size) in parallel chunks of at most grain points and
+     * waits for completion.
+     *
+     * @param pool Pool executing the tasks
+     * @param size Number of points
+     * @param grain Maximum number of points per task
+     * @param action Action processing a chunk
+     */
+    static void forEach(final ForkJoinPool pool, final int size, final int grain, final RangeAction action) {
+        pool.invoke(new RangeTask(0, size, grain, action));
+    }
+
+    /**
+     * Action processing a range of point indices.
+     */
+    @FunctionalInterface
+    interface RangeAction {
+        void run(int from, int to);
+    }
+
+    private static final class RangeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int grain;
+        private final RangeAction action;
+
+        RangeTask(final int from, final int to, final int grain, final RangeAction action) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                action.run(from, to);
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, middle, grain, action), new RangeTask(middle, to, grain, action));
+        }
+    }
+
+    private static int find(final AtomicIntegerArray parent, int element) {
+        int next = parent.get(element);
+        while (next != element) {
+            final int grandParent = parent.get(next);
+            // Path halving; failures are benign as roots only ever decrease
+            parent.compareAndSet(element, next, grandParent);
+            element = next;
+            next = grandParent;
+        }
+        return element;
+    }
+
+    private static void union(final AtomicIntegerArray parent, final int first, final int second) {
+        while (true) {
+            final int firstRoot = find(parent, first);
+            final int secondRoot = find(parent, second);
+            if (firstRoot == secondRoot) {
+                return;
+            }
+            // Always attach larger root to smaller one, so that roots are the smallest set members
+            final int lower = Math.min(firstRoot, secondRoot);
+            final int higher = Math.max(firstRoot, secondRoot);
+            if (parent.compareAndSet(higher, higher, lower)) {
+                return;
+            }
+        }
+    }
+
+    private static boolean contains(final IntList list, final int value) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,369 @@
+package org.nlogo.extensions.dbscan.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * DBSCAN implementation for patch locations, which are located on the integer lattice
+ * of patch coordinates. Patches are placed on a dense grid holding the index of the patch
+ * at each lattice point (-1 for lattice points of patches not to be clustered). The
+ * neighbourhood of a patch is given by a stencil of lattice offsets within the maximum
+ * distance, which is computed once per clustering and stored as the half width of the disk
+ * for each row offset. Neighbourhoods are hence scanned as contiguous row segments of the
+ * grid without any distance calculations, and neighbourhood sizes are determined from
+ * per-row prefix sums of patch counts.
+ *
+ * Wrapping of the world (torus, cylinders) is built into the stencil: on wrapped axes, the
+ * grid covers the world's extent, stencil offsets are limited to the shortest offset to each
+ * row (column) around the world, and row segments crossing the world's edge are split in two.
+ * No distance calculations (nor wrapping) are hence required per pair of patches.
+ *
+ * Results are identical to those of {@link DBSCANEngine} with a {@link LocationRegionQuery}
+ * (the distance between lattice points is exactly determined by the squared integer offsets).
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public final class PatchLatticeDBSCAN {
+
+    /**
+     * Maximum ratio of lattice points covered by the grid per clustered patch. Beyond, patches
+     * are too sparse for scanning the lattice to pay off (the grid index compares existing
+     * patches only).
+     */
+    private static final int MAX_LATTICE_POINTS_PER_PATCH = 9;
+
+    /**
+     * Largest number of offsets covered by the stencil's bounding square for which the lattice
+     * is scanned at lower densities (see {@link #MAX_LATTICE_POINTS_PER_PATCH_SMALL_STENCIL}).
+     */
+    private static final int SMALL_STENCIL = 25;
+
+    /**
+     * Maximum ratio of lattice points covered by the grid per clustered patch for small stencils,
+     * whose neighbourhood scans are cheap enough to outweigh a sparser grid (which is still
+     * allocated and summed in full, hence bounded as well).
+     */
+    private static final int MAX_LATTICE_POINTS_PER_PATCH_SMALL_STENCIL = 36;
+
+    private final boolean wrapX;
+    private final boolean wrapY;
+    private final int columns;
+    private final int rows;
+    /** Row offsets of the stencil (ascending), and column offsets to the left and right for each. */
+    private final int[] rowOffset;
+    private final int[] left;
+    private final int[] right;
+    /** Stencil row of row offset 0. */
+    private final int centre;
+    private final int[] grid;
+    private final int[] rowPrefix;
+    private final int[] column;
+    private final int[] row;
+
+    private PatchLatticeDBSCAN(final double[] xs, final double[] ys, final int size, final double maxDistance,
+            final WorldTopology topology) {
+        this.wrapX = topology.wrapsX();
+        this.wrapY = topology.wrapsY();
+        final int[] extentX = extent(xs, size, wrapX, topology.minX(), topology.width());
+        final int[] extentY = extent(ys, size, wrapY, topology.minY(), topology.height());
+        this.columns = extentX[1];
+        this.rows = extentY[1];
+
+        // Stencil rows; on wrapped axes, each row (column) is reached by its shortest offset only
+        final int radius = (int) Math.min(Math.floor(maxDistance), Integer.MAX_VALUE);
+        final int above = Math.min(radius, wrapY ? rows / 2 : rows - 1);
+        final int below = Math.min(radius, wrapY ? (rows - 1) / 2 : rows - 1);
+        final int[] halfWidth = halfWidths(maxDistance, Math.min(radius, wrapX ? columns / 2 : columns - 1),
+                Math.max(above, below));
+        this.rowOffset = new int[above + below + 1];
+        this.left = new int[rowOffset.length];
+        this.right = new int[rowOffset.length];
+        this.centre = below;
+        for (int k = 0; k < rowOffset.length; k++) {
+            final int dy = k - below;
+            final int width = halfWidth[Math.abs(dy)];
+            rowOffset[k] = dy;
+            left[k] = wrapX ? Math.min(width, (columns - 1) / 2) : width;
+            right[k] = width;
+        }
+
+        this.grid = new int[columns * rows];
+        Arrays.fill(grid, -1);
+        this.column = new int[size];
+        this.row = new int[size];
+        this.rowPrefix = new int[(columns + 1) * rows];
+        for (int i = 0; i < size; i++) {
+            column[i] = (int) xs[i] - extentX[0];
+            row[i] = (int) ys[i] - extentY[0];
+            grid[row[i] * columns + column[i]] = i;
+            rowPrefix[row[i] * (columns + 1) + column[i] + 1]++;
+        }
+        for (int r = 0; r < rows; r++) {
+            final int offset = r * (columns + 1);
+            for (int c = 0; c < columns; c++) {
+                rowPrefix[offset + c + 1] += rowPrefix[offset + c];
+            }
+        }
+    }
+
+    /**
+     * Determines the origin and number of lattice points along an axis: the world's extent
+     * for wrapped axes, the extent of the patches otherwise.
+     *
+     * @return Origin and number of lattice points
+     */
+    private static int[] extent(final double[] values, final int size, final boolean wrap,
+            final double worldMin, final double worldExtent) {
+        if (wrap) {
+            // World bounds are located half a patch beyond the outermost patch coordinates
+            return new int[] {(int) Math.round(worldMin + 0.5), (int) Math.round(worldExtent)};
+        }
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            min = Math.min(min, (int) values[i]);
+            max = Math.max(max, (int) values[i]);
+        }
+        return new int[] {min, max - min + 1};
+    }
+
+    /**
+     * Indicates whether the lattice-based clustering is suitable for the given patches,
+     * i.e., whether they are dense enough within the lattice (less so for small maximum
+     * distances) for scanning lattice neighbourhoods to be cheaper than comparing patches.
+     * Few patches in a large world are hence clustered by comparing patches.
+     *
+     * @param xs x coordinates (pxcor) of patches
+     * @param ys y coordinates (pycor) of patches
+     * @param size Number of patches
+     * @param maxDistance Maximum distance between neighbouring patches
+     * @param topology World topology
+     * @return true if lattice-based clustering is suitable
+     */
+    public static boolean isSuitable(final double[] xs, final double[] ys, final int size, final double maxDistance,
+            final WorldTopology topology) {
+        final int columns = extent(xs, size, topology.wrapsX(), topology.minX(), topology.width())[1];
+        final int rows = extent(ys, size, topology.wrapsY(), topology.minY(), topology.height())[1];
+        final double latticePoints = (double) columns * rows;
+        final double diameter = 2 * Math.min(Math.floor(maxDistance), Math.max(columns, rows)) + 1;
+        final int maxLatticePointsPerPatch = diameter * diameter <= SMALL_STENCIL
+                ? MAX_LATTICE_POINTS_PER_PATCH_SMALL_STENCIL : MAX_LATTICE_POINTS_PER_PATCH;
+        return latticePoints <= (double) maxLatticePointsPerPatch * size;
+    }
+
+    /**
+     * Performs the clustering of the given patch locations.
+     *
+     * @param xs x coordinates (pxcor) of patches
+     * @param ys y coordinates (pycor) of patches
+     * @param size Number of patches (entries in coordinate arrays)
+     * @param maxDistance Maximum distance between neighbouring patches
+     * @param minNumberOfElements Minimum number of patches in a neighbourhood to constitute a core point
+     * @param topology World topology
+     * @param core Array receiving the core point flags (at least size entries), or null
+     * @return List of clusters, each holding the indices of its members
+     */
+    public static List<int[]> cluster(final double[] xs, final double[] ys, final int size,
+            final double maxDistance, final int minNumberOfElements, final WorldTopology topology,
+            final boolean[] core) {
+        return new PatchLatticeDBSCAN(xs, ys, size, maxDistance, topology).cluster(size, minNumberOfElements, core);
+    }
+
+    private List<int[]> cluster(final int size, final int minNumberOfElements, final boolean[] core) {
+        final boolean[] isCore = core != null ? core : new boolean[size];
+        final int[] ranges = new int[4];
+        for (int point = 0; point < size; point++) {
+            isCore[point] = count(point, ranges) >= minNumberOfElements;
+        }
+
+        // Connected components of core points: each pair of core points is considered once
+        // (offsets of following rows and to the right within the same row)
+        final int[] parent = new int[size];
+        for (int point = 0; point < size; point++) {
+            parent[point] = point;
+        }
+        for (int point = 0; point < size; point++) {
+            if (!isCore[point]) {
+                continue;
+            }
+            for (int k = centre; k < rowOffset.length; k++) {
+                final int rangeCount = ranges(point, k, k == centre, ranges);
+                for (int r = 0; r < rangeCount; r += 2) {
+                    for (int cell = ranges[r]; cell <= ranges[r + 1]; cell++) {
+                        final int neighbour = grid[cell];
+                        if (neighbour >= 0 && isCore[neighbour]) {
+                            union(parent, point, neighbour);
+                        }
+                    }
+                }
+            }
+        }
+
+        // Number clusters by their first core point in input order
+        final int[] label = new int[size];
+        Arrays.fill(label, -1);
+        int clusterCount = 0;
+        for (int point = 0; point < size; point++) {
+            if (isCore[point]) {
+                final int root = find(parent, point);
+                if (label[root] < 0) {
+                    label[root] = clusterCount++;
+                }
+                label[point] = label[root];
+            }
+        }
+
+        // Collect members in input order; border points join all clusters of neighbouring core points
+        final IntList[] members = new IntList[clusterCount];
+        for (int c = 0; c < clusterCount; c++) {
+            members[c] = new IntList();
+        }
+        final IntList clustersOfPoint = new IntList();
+        for (int point = 0; point < size; point++) {
+            if (isCore[point]) {
+                members[label[point]].add(point);
+                continue;
+            }
+            clustersOfPoint.clear();
+            for (int k = 0; k < rowOffset.length; k++) {
+                final int rangeCount = ranges(point, k, false, ranges);
+                for (int r = 0; r < rangeCount; r += 2) {
+                    for (int cell = ranges[r]; cell <= ranges[r + 1]; cell++) {
+                        final int neighbour = grid[cell];
+                        if (neighbour >= 0 && isCore[neighbour] && !contains(clustersOfPoint, label[neighbour])) {
+                            clustersOfPoint.add(label[neighbour]);
+                        }
+                    }
+                }
+            }
+            for (int i = 0; i < clustersOfPoint.size(); i++) {
+                members[clustersOfPoint.get(i)].add(point);
+            }
+        }
+
+        final List<int[]> clusters = new ArrayList<>(clusterCount);
+        for (IntList cluster: members) {
+            clusters.add(cluster.toArray());
+        }
+        return clusters;
+    }
+
+    /**
+     * Counts the patches within the maximum distance of the given patch (including itself).
+     */
+    private int count(final int point, final int[] ranges) {
+        int count = 0;
+        for (int k = 0; k < rowOffset.length; k++) {
+            final int rangeCount = ranges(point, k, false, ranges);
+            for (int r = 0; r < rangeCount; r += 2) {
+                // Cell indices to row prefix indices: one additional entry per row
+                final int y = ranges[r] / columns;
+                count += rowPrefix[ranges[r + 1] + y + 1] - rowPrefix[ranges[r] + y];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Determines the grid cells of the given stencil row around the given patch as (up to two)
+     * ranges of cells, as a row segment may cross the world's edge on a wrapped axis.
+     *
+     * @param point Index of patch
+     * @param k Stencil row
+     * @param forward Indicates whether only cells to the right of the patch are to be considered
+     * @param ranges Array receiving first and last cell (inclusive) of each range
+     * @return Number of entries written to array (0, 2 or 4)
+     */
+    private int ranges(final int point, final int k, final boolean forward, final int[] ranges) {
+        int y = row[point] + rowOffset[k];
+        if (y < 0 || y >= rows) {
+            if (!wrapY) {
+                return 0;
+            }
+            y = y < 0 ? y + rows : y - rows;
+        }
+        final int offset = y * columns;
+        final int x = column[point];
+        int from = forward ? x + 1 : x - left[k];
+        int to = x + right[k];
+        if (from > to) {
+            return 0;
+        }
+        if (!wrapX) {
+            ranges[0] = offset + Math.max(0, from);
+            ranges[1] = offset + Math.min(columns - 1, to);
+            return 2;
+        }
+        if (from < 0) {
+            ranges[0] = offset + from + columns;
+            ranges[1] = offset + columns - 1;
+            ranges[2] = offset;
+            ranges[3] = offset + to;
+            return 4;
+        }
+        if (to >= columns) {
+            ranges[0] = offset + from;
+            ranges[1] = offset + columns - 1;
+            ranges[2] = offset;
+            ranges[3] = offset + to - columns;
+            return 4;
+        }
+        ranges[0] = offset + from;
+        ranges[1] = offset + to;
+        return 2;
+    }
+
+    /**
+     * Determines the half width of the disk of lattice offsets within the maximum distance for
+     * each row offset. Offsets are within the maximum distance if the (correctly rounded) square
+     * root of their squared length does not exceed it, as for the location distance metrics.
+     *
+     * @param maxDistance Maximum distance between neighbouring patches
+     * @param maxHalfWidth Largest relevant half width (e.g., extent of lattice)
+     * @param maxRowOffset Largest relevant row offset (at most the maximum distance)
+     * @return Half width (largest column offset) for row offsets 0 to maxRowOffset
+     */
+    static int[] halfWidths(final double maxDistance, final int maxHalfWidth, final int maxRowOffset) {
+        final int[] halfWidth = new int[maxRowOffset + 1];
+        int width = maxHalfWidth;
+        for (int dy = 0; dy <= maxRowOffset; dy++) {
+            // Half width does not increase with the row offset
+            while (width > 0 && Math.sqrt((double) width * width + (double) dy * dy) > maxDistance) {
+                width--;
+            }
+            halfWidth[dy] = width;
+        }
+        return halfWidth;
+    }
+
+    private static int find(final int[] parent, int element) {
+        while (parent[element] != element) {
+            parent[element] = parent[parent[element]];
+            element = parent[element];
+        }
+        return element;
+    }
+
+    private static void union(final int[] parent, final int first, final int second) {
+        final int rootFirst = find(parent, first);
+        final int rootSecond = find(parent, second);
+        if (rootFirst != rootSecond) {
+            parent[Math.max(rootFirst, rootSecond)] = Math.min(rootFirst, rootSecond);
+        }
+    }
+
+    private static boolean contains(final IntList list, final int value) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
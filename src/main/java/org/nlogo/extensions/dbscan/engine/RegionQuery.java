@@ -0,0 +1,42 @@
+package org.nlogo.extensions.dbscan.engine;
+
+/**
+ * Neighbourhood lookup on indexed points used by {@link DBSCANEngine}.
+ * Points are identified by their position (0 to size - 1) in the
+ * clustering input.
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public interface RegionQuery {
+
+    /**
+     * Returns the number of points accessible via this query.
+     *
+     * @return Number of points
+     */
+    int size();
+
+    /**
+     * Appends the indices of all points within the maximum distance of the
+     * given point (including the point itself) to the given list.
+     *
+     * @param point Index of point whose neighbourhood is requested
+     * @param neighbours List the neighbour indices are appended to
+     */
+    void neighbours(int point, IntList neighbours);
+
+    /**
+     * Returns the number of distance evaluations performed by the neighbourhood lookups
+     * of this query so far.
+     *
+     * @return Number of distance evaluations, or -1 if not counted
+     */
+    default long distanceEvaluations() {
+        return -1;
+    }
+
+}
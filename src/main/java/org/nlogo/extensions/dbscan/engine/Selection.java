@@ -0,0 +1,77 @@
+package org.nlogo.extensions.dbscan.engine;
+
+/**
+ * Selection of the k-th smallest point of a range of a point permutation (quickselect), as
+ * used to determine the medians when building the spatial trees ({@link KDTree},
+ * {@link LocationTree}). Uses three-way partitioning to cope with many equal values (e.g.,
+ * agents on the same patch).
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+final class Selection {
+
+    /**
+     * Value points are ordered by (e.g., a coordinate).
+     */
+    @FunctionalInterface
+    interface Key {
+
+        double of(int point);
+
+    }
+
+    private Selection() {}
+
+    /**
+     * Partially sorts the given range of points such that the k-th position holds the
+     * point it would hold if sorted by the given key, with points with smaller (larger)
+     * values before (after) it.
+     *
+     * @param points Point permutation
+     * @param from Start of range (inclusive)
+     * @param to End of range (exclusive)
+     * @param k Position to be selected (within range)
+     * @param key Value of each point
+     */
+    static void select(final int[] points, int from, int to, final int k, final Key key) {
+        while (to - from > 1) {
+            final double pivot = medianOfThree(key.of(points[from]), key.of(points[(from + to) >>> 1]),
+                    key.of(points[to - 1]));
+            int less = from;
+            int greater = to;
+            int i = from;
+            while (i < greater) {
+                final double value = key.of(points[i]);
+                if (value < pivot) {
+                    swap(points, less++, i++);
+                } else if (value > pivot) {
+                    swap(points, i, --greater);
+                } else {
+                    i++;
+                }
+            }
+            if (k < less) {
+                to = less;
+            } else if (k >= greater) {
+                from = greater;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static void swap(final int[] points, final int first, final int second) {
+        final int point = points[first];
+        points[first] = points[second];
+        points[second] = point;
+    }
+
+    private static double medianOfThree(final double a, final double b, final double c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+}
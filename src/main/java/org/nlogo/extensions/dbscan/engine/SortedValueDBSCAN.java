@@ -0,0 +1,190 @@
+package org.nlogo.extensions.dbscan.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * DBSCAN implementation for one-dimensional (scalar) values. Once values are sorted,
+ * the neighbourhood of each point is a contiguous window of the sorted order, so that
+ * neighbour counts are determined using two pointers, and clusters correspond to runs
+ * of core points whose consecutive values lie within the maximum distance. Runs in
+ * O(n log n) (sorting) instead of the O(n^2) of generic region queries.
+ *
+ * Cluster membership corresponds to the one produced by {@link DBSCANEngine} (and the
+ * DBSCANClusterer of the underlying DBSCAN library); clusters are ordered by their first
+ * core point in input order, cluster members are listed in input order.
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public final class SortedValueDBSCAN {
+
+    private SortedValueDBSCAN() {}
+
+    /**
+     * Performs the clustering of the given values.
+     *
+     * @param values Values of points
+     * @param size Number of points (entries in value array)
+     * @param maxDistance Maximum value difference between neighbouring points
+     * @param minNumberOfElements Minimum number of points in a neighbourhood to constitute a core point
+     * @return List of clusters, each holding the indices of its members
+     */
+    public static List<int[]> cluster(final double[] values, final int size,
+            final double maxDistance, final int minNumberOfElements) {
+        return cluster(values, size, maxDistance, minNumberOfElements, null);
+    }
+
+    /**
+     * Performs the clustering of the given values, determining neighbourhood windows
+     * in parallel chunks if a pool is provided. The result is identical to the
+     * sequential one.
+     *
+     * @param values Values of points
+     * @param size Number of points (entries in value array)
+     * @param maxDistance Maximum value difference between neighbouring points
+     * @param minNumberOfElements Minimum number of points in a neighbourhood to constitute a core point
+     * @param pool Fork-join pool for parallel computation of windows, or null for sequential computation
+     * @return List of clusters, each holding the indices of its members
+     */
+    public static List<int[]> cluster(final double[] values, final int size,
+            final double maxDistance, final int minNumberOfElements, final ForkJoinPool pool) {
+        return cluster(values, size, maxDistance, minNumberOfElements, pool, null);
+    }
+
+    /**
+     * Performs the clustering of the given values (see above), recording which points are core points.
+     *
+     * @param values Values of points
+     * @param size Number of points (entries in value array)
+     * @param maxDistance Maximum value difference between neighbouring points
+     * @param minNumberOfElements Minimum number of points in a neighbourhood to constitute a core point
+     * @param pool Fork-join pool for parallel computation of windows, or null for sequential computation
+     * @param core Array receiving the core point flags (initially false, at least size entries), or null
+     * @return List of clusters, each holding the indices of its members
+     */
+    public static List<int[]> cluster(final double[] values, final int size,
+            final double maxDistance, final int minNumberOfElements, final ForkJoinPool pool,
+            final boolean[] core) {
+
+        final int[] order = IndexSort.byValue(values, size);
+
+        // Determine neighbourhood windows [first, last] in sorted order
+        final int[] first = new int[size];
+        final int[] last = new int[size];
+        if (pool == null) {
+            windows(values, order, size, maxDistance, 0, size, first, last);
+        } else {
+            ParallelDBSCAN.forEach(pool, size, ParallelDBSCAN.grain(size, pool),
+                    (from, to) -> windows(values, order, size, maxDistance, from, to, first, last));
+        }
+
+        // Collect runs of core points; members of a run are the union of the core points' windows
+        final List<int[]> clusters = new ArrayList<>();
+        final IntList minCoreIndices = new IntList();
+        int previousCore = -1;
+        int runFirst = -1;
+        int runLast = -1;
+        int runMinIndex = Integer.MAX_VALUE;
+        for (int position = 0; position < size; position++) {
+            if (last[position] - first[position] + 1 < minNumberOfElements) {
+                continue;
+            }
+            if (core != null) {
+                core[order[position]] = true;
+            }
+            if (previousCore >= 0
+                    && Math.abs(values[order[position]] - values[order[previousCore]]) > maxDistance) {
+                clusters.add(members(order, runFirst, runLast));
+                minCoreIndices.add(runMinIndex);
+                runFirst = -1;
+            }
+            if (runFirst < 0) {
+                runFirst = first[position];
+                runMinIndex = Integer.MAX_VALUE;
+            }
+            runLast = last[position];
+            runMinIndex = Math.min(runMinIndex, order[position]);
+            previousCore = position;
+        }
+        if (runFirst >= 0) {
+            clusters.add(members(order, runFirst, runLast));
+            minCoreIndices.add(runMinIndex);
+        }
+
+        // Order clusters by first core point in input order
+        final Integer[] clusterOrder = new Integer[clusters.size()];
+        for (int i = 0; i < clusterOrder.length; i++) {
+            clusterOrder[i] = i;
+        }
+        Arrays.sort(clusterOrder, Comparator.comparingInt(minCoreIndices::get));
+        final List<int[]> result = new ArrayList<>(clusters.size());
+        for (int i = 0; i < clusterOrder.length; i++) {
+            result.add(clusters.get(clusterOrder[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Determines the neighbourhood windows of the sorted positions [from, to) using two
+     * pointers, starting from window bounds of the first position found by binary search.
+     */
+    private static void windows(final double[] values, final int[] order, final int size,
+            final double maxDistance, final int from, final int to, final int[] first, final int[] last) {
+        if (from >= to) {
+            return;
+        }
+        final double start = values[order[from]];
+        // First position within distance (distances decrease up to the start position)
+        int low = 0;
+        int high = from;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (Math.abs(start - values[order[middle]]) > maxDistance) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        int lower = low;
+        // Last position within distance (distances increase beyond the start position)
+        low = from;
+        high = size - 1;
+        while (low < high) {
+            final int middle = (low + high + 1) >>> 1;
+            if (Math.abs(values[order[middle]] - start) <= maxDistance) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        int upper = low;
+        for (int position = from; position < to; position++) {
+            final double value = values[order[position]];
+            while (Math.abs(value - values[order[lower]]) > maxDistance) {
+                lower++;
+            }
+            if (upper < position) {
+                upper = position;
+            }
+            while (upper + 1 < size && Math.abs(values[order[upper + 1]] - value) <= maxDistance) {
+                upper++;
+            }
+            first[position] = lower;
+            last[position] = upper;
+        }
+    }
+
+    private static int[] members(final int[] order, final int from, final int to) {
+        final int[] members = Arrays.copyOfRange(order, from, to + 1);
+        Arrays.sort(members);
+        return members;
+    }
+
+}
@@ -0,0 +1,101 @@
+package org.nlogo.extensions.dbscan.engine;
+
+/**
+ * Distance metrics for points with multiple numeric dimensions (e.g., several agent
+ * variables). Points are stored row-wise in a contiguous array, i.e., dimension k
+ * of point i is located at index i * dimensions + k.
+ *
+ * All metrics are Minkowski (Lp) distances, so that the distance between two points
+ * is never smaller than their difference in any single dimension (as required for
+ * pruning in {@link KDTree}).
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public enum VectorMetric {
+
+    EUCLIDEAN("euclidean") {
+        @Override
+        public double distance(final double[] data, final int dimensions, final int first, final int second) {
+            final int a = first * dimensions;
+            final int b = second * dimensions;
+            double sum = 0;
+            for (int k = 0; k < dimensions; k++) {
+                final double difference = data[a + k] - data[b + k];
+                sum += difference * difference;
+            }
+            return Math.sqrt(sum);
+        }
+    },
+
+    MANHATTAN("manhattan") {
+        @Override
+        public double distance(final double[] data, final int dimensions, final int first, final int second) {
+            final int a = first * dimensions;
+            final int b = second * dimensions;
+            double sum = 0;
+            for (int k = 0; k < dimensions; k++) {
+                sum += Math.abs(data[a + k] - data[b + k]);
+            }
+            return sum;
+        }
+    },
+
+    CHEBYSHEV("chebyshev") {
+        @Override
+        public double distance(final double[] data, final int dimensions, final int first, final int second) {
+            final int a = first * dimensions;
+            final int b = second * dimensions;
+            double max = 0;
+            for (int k = 0; k < dimensions; k++) {
+                max = Math.max(max, Math.abs(data[a + k] - data[b + k]));
+            }
+            return max;
+        }
+    };
+
+    private final String name;
+
+    VectorMetric(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * Calculates the distance between two points.
+     *
+     * @param data Point coordinates (row-wise)
+     * @param dimensions Number of dimensions per point
+     * @param first Index of first point
+     * @param second Index of second point
+     * @return Distance
+     */
+    public abstract double distance(double[] data, int dimensions, int first, int second);
+
+    /**
+     * Returns the name of the metric as used in NetLogo code.
+     *
+     * @return Metric name
+     */
+    public String metricName() {
+        return name;
+    }
+
+    /**
+     * Resolves metric by name (case-insensitive).
+     *
+     * @param name Metric name
+     * @return Metric, or null if unknown
+     */
+    public static VectorMetric of(final String name) {
+        for (VectorMetric metric: values()) {
+            if (metric.name.equalsIgnoreCase(name)) {
+                return metric;
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,76 @@
+package org.nlogo.extensions.dbscan.engine;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Region query for points with multiple numeric dimensions (e.g., several agent
+ * variables) stored row-wise in a contiguous array. Neighbourhoods are looked up
+ * via a {@link KDTree} for up to {@link #MAX_INDEXED_DIMENSIONS} dimensions; beyond,
+ * pruning is rarely effective and all points are compared.
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public final class VectorRegionQuery implements RegionQuery {
+
+    /**
+     * Maximum number of dimensions for which points are indexed.
+     */
+    public static final int MAX_INDEXED_DIMENSIONS = 16;
+
+    private final double[] data;
+    private final int dimensions;
+    private final int size;
+    private final double maxDistance;
+    private final VectorMetric metric;
+    private final KDTree index;
+    // Added to once per lookup (thread-safe for parallel clustering)
+    private final LongAdder evaluations = new LongAdder();
+
+    /**
+     * Instantiates region query.
+     *
+     * @param data Point coordinates (row-wise)
+     * @param dimensions Number of dimensions per point
+     * @param size Number of points
+     * @param maxDistance Maximum distance between neighbouring points
+     * @param metric Distance metric
+     */
+    public VectorRegionQuery(final double[] data, final int dimensions, final int size,
+            final double maxDistance, final VectorMetric metric) {
+        this.data = data;
+        this.dimensions = dimensions;
+        this.size = size;
+        this.maxDistance = maxDistance;
+        this.metric = metric;
+        this.index = dimensions <= MAX_INDEXED_DIMENSIONS ? new KDTree(data, dimensions, size) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void neighbours(final int point, final IntList neighbours) {
+        if (index != null) {
+            evaluations.add(index.neighbours(point, maxDistance, metric, neighbours));
+            return;
+        }
+        for (int candidate = 0; candidate < size; candidate++) {
+            if (metric.distance(data, dimensions, point, candidate) <= maxDistance) {
+                neighbours.add(candidate);
+            }
+        }
+        evaluations.add(size);
+    }
+
+    @Override
+    public long distanceEvaluations() {
+        return evaluations.sum();
+    }
+
+}
@@ -0,0 +1,141 @@
+package org.nlogo.extensions.dbscan.engine;
+
+import java.util.Objects;
+
+import org.nlogo.core.WorldDimensions;
+
+/**
+ * Describes the extent and wrapping behaviour of the NetLogo world
+ * (torus, vertical cylinder, horizontal cylinder, box) as required
+ * by the spatial index.
+ *
+ * Website: https://github.com/chrfrantz/NetLogo-Extension-DBSCAN
+ *
+ * @author <a href="mailto:cf@christopherfrantz.org>Christopher Frantz</a>
+ * @version 0.5 (06.08.2025)
+ *
+ */
+public final class WorldTopology {
+
+    private static final WorldTopology BOX = new WorldTopology(false, false, 0, 0, 0, 0);
+
+    private final boolean wrapX;
+    private final boolean wrapY;
+    private final double minX;
+    private final double minY;
+    private final double width;
+    private final double height;
+
+    private WorldTopology(final boolean wrapX, final boolean wrapY,
+            final double minX, final double minY, final double width, final double height) {
+        this.wrapX = wrapX;
+        this.wrapY = wrapY;
+        this.minX = minX;
+        this.minY = minY;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Derives the topology from the given world dimensions.
+     *
+     * @param dim World dimensions
+     * @return Topology corresponding to the world's wrapping settings
+     */
+    public static WorldTopology of(final WorldDimensions dim) {
+        return new WorldTopology(dim.wrappingAllowedInX(), dim.wrappingAllowedInY(),
+                dim.minPxcor() - 0.5, dim.minPycor() - 0.5, dim.width(), dim.height());
+    }
+
+    /**
+     * Returns topology without wrapping in either direction.
+     *
+     * @return Box topology
+     */
+    public static WorldTopology box() {
+        return BOX;
+    }
+
+    /**
+     * Calculates the distance between two locations considering wrapping. The calculation
+     * corresponds to the one of the agent location distance metrics (e.g.,
+     * DistanceMetricNetLogoAgentLocationTorus).
+     *
+     * @param x1 x coordinate of first location
+     * @param y1 y coordinate of first location
+     * @param x2 x coordinate of second location
+     * @param y2 y coordinate of second location
+     * @return Distance between locations
+     */
+    public double distance(final double x1, final double y1, final double x2, final double y2) {
+        final double dx = wrapX ? StrictMath.min(StrictMath.abs(x1 - x2), width - StrictMath.abs(x1 - x2)) : x1 - x2;
+        final double dy = wrapY ? StrictMath.min(StrictMath.abs(y1 - y2), height - StrictMath.abs(y1 - y2)) : y1 - y2;
+        return StrictMath.sqrt(StrictMath.pow(dx, 2) + StrictMath.pow(dy, 2));
+    }
+
+    /**
+     * Calculates the squared distance between two locations considering wrapping
+     * (see {@link DistanceThreshold}).
+     *
+     * @param x1 x coordinate of first location
+     * @param y1 y coordinate of first location
+     * @param x2 x coordinate of second location
+     * @param y2 y coordinate of second location
+     * @return Squared distance between locations
+     */
+    public double squaredDistance(final double x1, final double y1, final double x2, final double y2) {
+        double dx = Math.abs(x1 - x2);
+        double dy = Math.abs(y1 - y2);
+        if (wrapX) {
+            dx = Math.min(dx, width - dx);
+        }
+        if (wrapY) {
+            dy = Math.min(dy, height - dy);
+        }
+        return dx * dx + dy * dy;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof WorldTopology)) {
+            return false;
+        }
+        final WorldTopology topology = (WorldTopology) other;
+        return wrapX == topology.wrapX && wrapY == topology.wrapY
+                && Double.compare(minX, topology.minX) == 0 && Double.compare(minY, topology.minY) == 0
+                && Double.compare(width, topology.width) == 0 && Double.compare(height, topology.height) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(wrapX, wrapY, minX, minY, width, height);
+    }
+
+    public boolean wrapsX() {
+        return wrapX;
+    }
+
+    public boolean wrapsY() {
+        return wrapY;
+    }
+
+    public double minX() {
+        return minX;
+    }
+
+    public double minY() {
+        return minY;
+    }
+
+    public double width() {
+        return width;
+    }
+
+    public double height() {
+        return height;
+    }
+
+}
@@ -6,6 +6,9 @@ import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Random;
 
 import org.christopherfrantz.dbscan.DBSCANClusterer;
@@ -20,6 +23,7 @@ import org.nlogo.api.FileIO;
 import org.nlogo.core.LogoList;
 import org.nlogo.core.WorldDimensions;
 import org.nlogo.api.LogoListBuilder;
+import org.nlogo.extensions.dbscan.metrics.DistanceMetricNetLogoAgentLocationTorus;
 import org.nlogo.extensions.dbscan.metrics.DistanceMetricNetLogoAgentVariable;
 import org.nlogo.extensions.dbscan.metrics.DistanceMetricNetLogoPatchVariable;
 import org.nlogo.headless.HeadlessWorkspace;
@@ -476,6 +480,882 @@ public class TestNetLogoDBSCAN {
 
     }
 
+    @Test
+    public void testClusteringOfTurtlesByLocationMatchesDbscanLibraryHeadless() {
+
+        HeadlessWorkspace workspace = HeadlessWorkspace.newInstance();
+        try {
+          // Load model
+          workspace.open(TESTMODEL_TORUS, false);
+          // Parameterise agent number
+          workspace.command("pre-setup");
+          // Setting up entities
+          workspace.command("setup");
+          // Run grid-based clustering via extension
+          workspace.command("set clusters dbscan:cluster-by-location agents 3 3");
+          LogoList clusters = (LogoList) workspace.report("clusters");
+
+          // Run reference clustering of DBSCAN library on the same agents
+          World world = workspace.world();
+          Collection<org.nlogo.api.Agent> input = new ArrayList<>();
+          for (org.nlogo.api.Agent agent: world.getBreed("AGENTS").agents()) {
+              input.add(agent);
+          }
+          DBSCANClusterer<org.nlogo.api.Agent> clusterer = new DBSCANClusterer<>(input, 3, 3,
+                  new DistanceMetricNetLogoAgentLocationTorus(world.worldWidth(), world.worldHeight()));
+          ArrayList<ArrayList<org.nlogo.api.Agent>> reference = clusterer.performClustering();
+
+          assertEquals("Number of clusters expected", reference.size(), clusters.size());
+          for (int i = 0; i < reference.size(); i++) {
+              LogoList cluster = (LogoList) clusters.get(i);
+              ArrayList<Object> members = new ArrayList<>();
+              for (int j = 0; j < cluster.size(); j++) {
+                  members.add(cluster.get(j));
+              }
+              assertEquals("Members of cluster " + i + " expected", 
+                      sortedIds(reference.get(i)), sortedIds(members));
+          }
+          workspace.dispose();
+        } catch(Exception ex) {
+          fail("Clustering was not successful (but should have been). Exception: " + ex.getMessage());
+        }
+
+    }
+
+    @Test
+    public void testParallelClusteringMatchesSequentialClusteringHeadless() {
+
+        HeadlessWorkspace workspace = HeadlessWorkspace.newInstance();
+        try {
+          // Load model
+          workspace.open(TESTMODEL_TORUS, false);
+          // Parameterise agent number
+          workspace.command("pre-setup");
+          // Setting up entities
+          workspace.command("setup");
+          // Run sequential clustering
+          Object sequentialByLocation = workspace.report("dbscan:cluster-by-location agents 3 3");
+          Object sequentialByVariable = workspace.report("dbscan:cluster-by-variable agents \"wealth\" 3 1");
+          // Run parallel clustering
+          workspace.command("dbscan:set-parallelism 4");
+          assertEquals("Clusters by location expected to match sequential clustering", 
+                  sequentialByLocation, workspace.report("dbscan:cluster-by-location agents 3 3"));
+          assertEquals("Clusters by variable expected to match sequential clustering", 
+                  sequentialByVariable, workspace.report("dbscan:cluster-by-variable agents \"wealth\" 3 1"));
+          workspace.dispose();
+        } catch(Exception ex) {
+          fail("Clustering was not successful (but should have been). Exception: " + ex.getMessage());
+        }
+
+    }
+
+    @Test
+    public void testParallelClusteringOfLargePopulationMatchesSequentialClusteringHeadless() {
+
+        HeadlessWorkspace workspace = HeadlessWorkspace.newInstance();
+        try {
+          // Load model
+          workspace.open(TESTMODEL_TORUS, false);
+          // Parameterise agent number (large enough for the population to be split across several tasks)
+          workspace.command("set num-agents 5000");
+          // Setting up entities
+          workspace.command("setup");
+          // Run sequential clustering
+          Object sequentialByLocation = workspace.report("dbscan:cluster-by-location agents 4 0.4");
+          Object sequentialByVariable = workspace.report("dbscan:cluster-by-variable agents \"wealth\" 3 0");
+          assertEquals("Clustering by location expected to produce several clusters", Boolean.TRUE,
+                  workspace.report("length dbscan:cluster-by-location agents 4 0.4 > 1"));
+          // Run parallel clustering
+          workspace.command("dbscan:set-parallelism 4");
+          assertEquals("Clusters by location expected to match sequential clustering",
+                  sequentialByLocation, workspace.report("dbscan:cluster-by-location agents 4 0.4"));
+          assertEquals("Clusters by variable expected to match sequential clustering",
+                  sequentialByVariable, workspace.report("dbscan:cluster-by-variable agents \"wealth\" 3 0"));
+          workspace.dispose();
+        } catch(Exception ex) {
+          fail("Clustering was not successful (but should have been). Exception: " + ex.getMessage());
+        }
+
+    }
+
+    @Test
+    public void testLabellingOfTurtlesByLocationMatchesClusteringByLocationHeadless() {
+
+        HeadlessWorkspace workspace = HeadlessWorkspace.newInstance();
+        try {
+          // Load model
+          workspace.open(TESTMODEL_TORUS, false);
+          // Parameterise agent number
+          workspace.command("pre-setup");
+          // Setting up entities
+          workspace.command("setup");
+          // Run clustering and labelling (into built-in label variable)
+          workspace.command("set clusters dbscan:cluster-by-location agents 3 3");
+          workspace.command("dbscan:label-by-location agents 3 3 \"label\"");
+          LogoList clusters = (LogoList) workspace.report("clusters");
+
+          // Agents are expected to be labelled with the first cluster they belong to, noise with -1
+          Map<Long, Double> expected = new HashMap<>();
+          for (int i = clusters.size() - 1; i >= 0; i--) {
+              LogoList cluster = (LogoList) clusters.get(i);
+              for (int j = 0; j < cluster.size(); j++) {
+                  expected.put(((Turtle) cluster.get(j)).id(), (double) i);
+              }
+          }
+          for (org.nlogo.api.Agent agent: workspace.world().getBreed("AGENTS").agents()) {
+              assertEquals("Label of agent " + agent.id() + " expected", expected.getOrDefault(agent.id(), -1.0), 
+                      workspace.report("[label] of turtle " + agent.id()));
+          }
+          workspace.dispose();
+        } catch(Exception ex) {
+          fail("Labelling was not successful (but should have been). Exception: " + ex.getMessage());
+        }
+
+    }
+
+    @Test
+    public void testLabellingOfPatchesByVariableInExistingNetLogoModelHeadlessUnknownLabelVariable() {
+
+        HeadlessWorkspace workspace =
+            HeadlessWorkspace.newInstance() ;
+        try {
+          // Load model
+          workspace.open(TESTMODEL_TORUS, false);
+          // Setting up patch values
+          workspace.command("ask patches [ set resource random 100 ]");
+          // Run labelling into non-existent patch variable
+          workspace.command("dbscan:label-by-variable patches \"resource\" 3 3 \"cluster-id\"");
+          fail("Labelling should not succeed with unknown variable.");
+          workspace.dispose();
+        } catch(Exception ex) {
+          assertEquals("Unknown label variable", 
+                  "Extension exception: Patch variable CLUSTER-ID could not be found.", 
+                  ex.getMessage());
+        }
+
+    }
+
+    @Test
+    public void testNoiseAndCorePointsOfLastClusteringHeadless() {
+
+        HeadlessWorkspace workspace = HeadlessWorkspace.newInstance();
+        try {
+          // Load model
+          workspace.open(TESTMODEL_TORUS, false);
+          // Parameterise agent number
+          workspace.command("pre-setup");
+          // Setting up entities
+          workspace.command("setup");
+          // Run clustering
+          workspace.command("set clusters dbscan:cluster-by-location agents 3 3");
+          // Noise and clustered agents are expected to cover all agents
+          assertEquals("Noise agents expected to complement clustered agents", workspace.report("count agents"), 
+                  workspace.report("length dbscan:last-noise + length remove-duplicates reduce sentence clusters"));
+          assertEquals("Core counts expected to match core points", Boolean.TRUE, 
+                  workspace.report("dbscan:last-core-counts = map length dbscan:last-core-points"));
+          // Core points (noise) are expected to have at least (fewer than) 3 agents within distance 3
+          assertEquals("Core points expected to have dense neighbourhoods", Boolean.TRUE, 
+                  workspace.report("all? (turtle-set dbscan:last-core-points) [ count agents in-radius 3 >= 3 ]"));
+          assertEquals("Noise expected to have sparse neighbourhoods", Boolean.TRUE, 
+                  workspace.report("all? (turtle-set dbscan:last-noise) [ count agents in-radius 3 < 3 ]"));
+          workspace.dispose();
+        } catch(Exception ex) {
+          fail("Clustering was not successful (but should have been). Exception: " + ex.getMessage());
+        }
+
+    }
+
+    @Test
+    public void testNoiseOfLastClusteringInExistingNetLogoModelHeadlessNoPreviousClustering() {
+
+        HeadlessWorkspace workspace =
+            HeadlessWorkspace.newInstance() ;
+        try {
+          // Load model
+          workspace.open(TESTMODEL_TORUS, false);
+          // Request noise without prior clustering
+          workspace.report("dbscan:last-noise");
+          fail("Noise should not be accessible without prior clustering.");
+          workspace.dispose();
+        } catch(Exception ex) {
+          assertEquals("No previous clustering", 
+                  "Extension exception: No clustering has been performed (since the last clear-all).", 
+                  ex.getMessage());
+        }
+
+    }
+
+    @Test
+    public void testClustersExtractedFromOrderingMatchClusteringByLocationHeadless() {
+
+        HeadlessWorkspace workspace = HeadlessWorkspace.newInstance();
+        try {
+          // Load model
+          workspace.open(TESTMODEL_TORUS, false);
+          // Parameterise agent number
+          workspace.command("pre-setup");
+          // Setting up entities
+          workspace.command("setup");
+          // Compute ordering once for largest maximum distance
+          workspace.command("set clusters dbscan:optics agents 3 5");
+          // Clusters extracted for smaller (and the same) maximum distances are expected to match DBSCAN clusters
+          for (String distance: new String[] {"0.5", "1", "2.5", "5"}) {
+            assertEquals("Extracted clusters expected to match clustering by location for distance " + distance, Boolean.TRUE,
+                    workspace.report("dbscan:extract-clusters clusters " + distance +
+                            " = dbscan:cluster-by-location agents 3 " + distance));
+          }
+          workspace.dispose();
+        } catch(Exception ex) {
+          fail("Clustering was not successful (but should have been). Exception: " + ex.getMessage());
+        }
+
+    }
+
+    @Test
+    public void testClustersExtractedFromOrderingHeadlessExceedingMaxDistance() {
+
+        HeadlessWorkspace workspace = HeadlessWorkspace.newInstance();
+        try {
+          // Load model
+          workspace.open(TESTMODEL_TORUS, false);
+          // Parameterise agent number
+          workspace.command("pre-setup");
+          // Setting up entities
+          workspace.command("setup");
+          // Extract clusters for larger maximum distance than the ordering has been computed for
+          workspace.report("dbscan:extract-clusters dbscan:optics agents 3 2 3");
+          fail("Clusters should not be extracted for maximum distances exceeding the one of the ordering.");
+          workspace.dispose();
+        } catch(Exception ex) {
+          assertEquals("Maximum distance exceeding ordering", 
+                  "Extension exception: Maximum distance 3.0 exceeds the maximum distance the cluster ordering has been computed for (2.0).", 
+                  ex.getMessage());
+        }
+
+    }
+
+    @Test
+    public void testClusteringWithSessionAcrossTicksMatchesClusteringByLocationHeadless() {
+
+        HeadlessWorkspace workspace = HeadlessWorkspace.newInstance();
+        try {
+          // Load model
+          workspace.open(TESTMODEL_TORUS, false);
+          // Parameterise agent number
+          workspace.command("pre-setup");
+          // Setting up entities
+          workspace.command("setup");
+          // Create session once and reuse it while agents move, die and are created (population shrinks and grows)
+          workspace.command("set clusters dbscan:make-session 3 2");
+          for (int tick = 0; tick < 5; tick++) {
+            assertEquals("Session clusters expected to match clustering by location in tick " + tick, Boolean.TRUE,
+                    workspace.report("dbscan:cluster clusters agents = dbscan:cluster-by-location agents 3 2"));
+            workspace.command("ask agents [ rt random 360 fd 1 ]");
+            workspace.command(tick % 2 == 0 ? "ask n-of 30 agents [ die ]" : "create-agents 60 [ setxy random-xcor random-ycor ]");
+          }
+          workspace.dispose();
+        } catch(Exception ex) {
+          fail("Clustering was not successful (but should have been). Exception: " + ex.getMessage());
+        }
+
+    }
+
+    @Test
+    public void testStatsOfLastClusteringHeadless() {
+
+        HeadlessWorkspace workspace = HeadlessWorkspace.newInstance();
+        try {
+          // Load model
+          workspace.open(TESTMODEL_TORUS, false);
+          // Parameterise agent number
+          workspace.command("pre-setup");
+          // Setting up entities
+          workspace.command("setup");
+          // Time neighbourhood lookups separately
+          workspace.command("dbscan:set-profiling true");
+          workspace.command("set clusters dbscan:cluster-by-location agents 3 2");
+          // Every agent's neighbourhood is looked up once during sequential clustering
+          assertEquals("Region queries expected to match number of agents", Boolean.TRUE,
+                  workspace.report("item 1 (first filter [s -> first s = \"region-queries\"] dbscan:last-stats) = count agents"));
+          assertEquals("Clusters expected to match number of reported clusters", Boolean.TRUE,
+                  workspace.report("item 1 (first filter [s -> first s = \"clusters\"] dbscan:last-stats) = length clusters"));
+          assertEquals("Region query time expected to be measured", Boolean.TRUE,
+                  workspace.report("item 1 (first filter [s -> first s = \"region-query-ms\"] dbscan:last-stats) >= 0"));
+          workspace.dispose();
+        } catch(Exception ex) {
+          fail("Clustering was not successful (but should have been). Exception: " + ex.getMessage());
+        }
+
+    }
+
+    @Test
+    public void testClusteringOfGroupsByLocationMatchesSeparateClusteringHeadless() {
+
+        HeadlessWorkspace workspace = HeadlessWorkspace.newInstance();
+        try {
+          // Load model
+          workspace.open(TESTMODEL_TORUS, false);
+          // Parameterise agent number
+          workspace.command("pre-setup");
+          // Setting up entities
+          workspace.command("setup");
+          // Groups given as list of agentsets are clustered as if clustered separately
+          assertEquals("Clusters of agentsets expected to match separate clustering by location", Boolean.TRUE,
+                  workspace.report("dbscan:cluster-groups-by-location (list agents with [wealth < 35] agents with [wealth >= 35]) 3 2"
+                          + " = (list (dbscan:cluster-by-location agents with [wealth < 35] 3 2)"
+                          + " (dbscan:cluster-by-location agents with [wealth >= 35] 3 2))"));
+          // Groups determined by variable are reported along with the variable value (in parallel)
+          workspace.command("dbscan:set-parallelism 2");
+          workspace.command("ask agents [ set color ifelse-value (wealth < 35) [red] [blue] ]");
+          assertEquals("Clusters of groups expected to match separate clustering by location", Boolean.TRUE,
+                  workspace.report("(dbscan:cluster-groups-by-location agents 3 2 \"color\")"
+                          + " = map [c -> (list c dbscan:cluster-by-location agents with [color = c] 3 2)]"
+                          + " remove-duplicates [color] of sort agents"));
+          workspace.dispose();
+        } catch(Exception ex) {
+          fail("Clustering was not successful (but should have been). Exception: " + ex.getMessage());
+        }
+
+    }
+
+    @Test
+    public void testKDistancesDetermineCorePointsHeadless() {
+
+        HeadlessWorkspace workspace = HeadlessWorkspace.newInstance();
+        try {
+          // Load model
+          workspace.open(TESTMODEL_TORUS, false);
+          // Parameterise agent number
+          workspace.command("pre-setup");
+          // Setting up entities
+          workspace.command("setup");
+          // Agents at the same location (e.g., created on a patch and not yet moved)
+          workspace.command("create-agents 60 [ setxy 4 4 ]");
+          // Sorted distances to the 2nd nearest neighbour of each agent
+          workspace.command("set clusters dbscan:k-distances agents 2");
+          assertEquals("One k-distance per agent expected", Boolean.TRUE,
+                  workspace.report("length clusters = count agents and clusters = sort clusters"));
+          assertEquals("Agents at the same location expected to have k-distance 0", Boolean.TRUE,
+                  workspace.report("length filter [k -> k = 0] clusters >= 60"));
+          // Agents whose 2-distance does not exceed the maximum distance are core points for 3 minimum members
+          for (String rank: new String[] {"20", "85", "150"}) {
+            workspace.command("let c dbscan:cluster-by-location agents 3 item " + rank + " clusters");
+            assertEquals("Core points expected to match k-distances for rank " + rank, Boolean.TRUE,
+                    workspace.report("sum dbscan:last-core-counts = length filter [k -> k <= item " + rank +
+                            " clusters] clusters"));
+          }
+          // Suggested maximum distance is one of the k-distances
+          assertEquals("Suggested maximum distance expected among k-distances", Boolean.TRUE,
+                  workspace.report("member? dbscan:suggest-eps agents 2 clusters"));
+          workspace.dispose();
+        } catch(Exception ex) {
+          fail("Clustering was not successful (but should have been). Exception: " + ex.getMessage());
+        }
+
+    }
+
+    @Test
+    public void testClustersAsAgentSetsHeadless() {
+
+        HeadlessWorkspace workspace = HeadlessWorkspace.newInstance();
+        try {
+          // Load model
+          workspace.open(TESTMODEL_TORUS, false);
+          // Parameterise agent number
+          workspace.command("pre-setup");
+          // Setting up entities
+          workspace.command("setup");
+          // Clusters reported as agentsets hold the same agents as clusters reported as lists
+          workspace.command("set clusters dbscan:cluster-by-location-as-agentsets agents 3 2");
+          assertEquals("Clusters by location expected to be agentsets", Boolean.TRUE,
+                  workspace.report("not empty? clusters and not member? false map is-agentset? clusters"));
+          assertEquals("Clusters by location expected to match lists of agents", Boolean.TRUE,
+                  workspace.report("map sort clusters = map sort dbscan:cluster-by-location agents 3 2"));
+          assertEquals("Clusters of patches by variable expected to match lists of patches", Boolean.TRUE,
+                  workspace.report("map sort dbscan:cluster-by-variable-as-agentsets patches \"resource\" 3 3"
+                          + " = map sort dbscan:cluster-by-variable patches \"resource\" 3 3"));
+          workspace.dispose();
+        } catch(Exception ex) {
+          fail("Clustering was not successful (but should have been). Exception: " + ex.getMessage());
+        }
+
+    }
+
+    @Test
+    public void testResultLookupsMatchClustersHeadless() {
+
+        HeadlessWorkspace workspace = HeadlessWorkspace.newInstance();
+        try {
+          // Load model
+          workspace.open(TESTMODEL_TORUS, false);
+          // Parameterise agent number
+          workspace.command("pre-setup");
+          // Setting up entities
+          workspace.command("setup");
+          // Retain clusters and result of clustering
+          workspace.command("set clusters dbscan:cluster-by-location agents 3 2");
+          workspace.command("set result dbscan:last-result");
+          assertEquals("Number of clusters of result expected to match clusters", Boolean.TRUE,
+                  workspace.report("dbscan:cluster-count result = length clusters"));
+          assertEquals("Cluster sizes of result expected to match clusters", Boolean.TRUE,
+                  workspace.report("map [c -> dbscan:cluster-size result c] range length clusters = map length clusters"));
+          assertEquals("Members of result expected to match clusters", Boolean.TRUE,
+                  workspace.report("map [c -> sort dbscan:members result c] range length clusters = map sort clusters"));
+          // Agents are expected to be assigned to a cluster containing them, and noise to -1
+          assertEquals("Cluster of agents expected to contain them", Boolean.TRUE,
+                  workspace.report("all? agents [ ifelse-value (dbscan:cluster-of result self = -1)"
+                          + " [ not member? self reduce sentence fput [] clusters ]"
+                          + " [ member? self item (dbscan:cluster-of result self) clusters ] ]"));
+          // Members of results combining groups of turtles and patches are expected to be of the members' kind
+          workspace.command("set clusters dbscan:cluster-groups-by-location (list agents patches) 3 2");
+          workspace.command("set result dbscan:last-result");
+          assertEquals("Members of combined result expected to be turtles and patches respectively", Boolean.TRUE,
+                  workspace.report("is-turtle-set? dbscan:members result 0"
+                          + " and is-patch-set? dbscan:members result (dbscan:cluster-count result - 1)"));
+          workspace.dispose();
+        } catch(Exception ex) {
+          fail("Clustering was not successful (but should have been). Exception: " + ex.getMessage());
+        }
+
+    }
+
+    @Test
+    public void testTrackingKeepsClusterIdentifiersHeadless() {
+
+        HeadlessWorkspace workspace = HeadlessWorkspace.newInstance();
+        try {
+          // Load model
+          workspace.open(TESTMODEL_TORUS, false);
+          // Parameterise agent number
+          workspace.command("pre-setup");
+          // Setting up entities
+          workspace.command("setup");
+          // Retain tracker and identifiers of tracked clusters
+          workspace.command("set tracker dbscan:make-tracker");
+          workspace.command("set clusters dbscan:cluster-by-location agents 3 2");
+          workspace.command("set tracked-ids dbscan:track tracker");
+          // Clusters of the first tracking are expected to be born
+          assertEquals("Clusters of first tracking expected to be numbered in order", Boolean.TRUE,
+                  workspace.report("tracked-ids = range length clusters"));
+          assertEquals("Clusters of first tracking expected to be born", Boolean.TRUE,
+                  workspace.report("map first dbscan:tracker-events tracker = n-values length clusters [\"birth\"]"));
+          // Clustering unchanged agents is expected to retain identifiers without events
+          workspace.command("set clusters dbscan:cluster-by-location agents 3 2");
+          assertEquals("Identifiers of unchanged clusters expected to be retained", Boolean.TRUE,
+                  workspace.report("dbscan:track tracker = tracked-ids"));
+          assertEquals("Unchanged clusters expected not to cause events", Boolean.TRUE,
+                  workspace.report("empty? dbscan:tracker-events tracker"));
+          // Removing the agents of the first cluster is expected to cause its death
+          workspace.command("ask turtle-set first clusters [ die ]");
+          workspace.command("set clusters dbscan:cluster-by-location agents 3 2");
+          workspace.command("set tracked-ids dbscan:track tracker");
+          assertEquals("Cluster without remaining agents expected to die", Boolean.TRUE,
+                  workspace.report("member? [\"death\" 0] dbscan:tracker-events tracker and not member? 0 tracked-ids"));
+          workspace.dispose();
+        } catch(Exception ex) {
+          fail("Clustering was not successful (but should have been). Exception: " + ex.getMessage());
+        }
+
+    }
+
+    @Test
+    public void testTrackingClustersSharingBorderAgentHeadless() {
+
+        HeadlessWorkspace workspace = HeadlessWorkspace.newInstance();
+        try {
+          // Load model
+          workspace.open(TESTMODEL_TORUS, false);
+          // Parameterise agent number
+          workspace.command("pre-setup");
+          // Setting up entities
+          workspace.command("setup");
+          // Two lines of four agents, joined by a border agent (turtle 4) within reach of one agent of each line
+          workspace.command("ask agents with [who < 4] [ setxy (-1 - who * 0.3) 0 ]");
+          workspace.command("ask turtle 4 [ setxy 0 0 ]");
+          workspace.command("ask agents with [who > 4 and who < 9] [ setxy (1 + (who - 5) * 0.3) 0 ]");
+          workspace.command("ask agents with [who >= 9] [ setxy random-xcor (5 + random-float 5) ]");
+          workspace.command("set tracker dbscan:make-tracker");
+          workspace.command("set clusters dbscan:cluster-by-location agents 4 1.05");
+          workspace.command("set tracked-ids dbscan:track tracker");
+          assertEquals("Border agent expected to belong to both lines' clusters", Boolean.TRUE,
+                  workspace.report("length filter [c -> member? turtle 4 c] clusters = 2"));
+          // Clustering unchanged agents is expected to retain identifiers without events (e.g., merges or splits)
+          workspace.command("set clusters dbscan:cluster-by-location agents 4 1.05");
+          assertEquals("Identifiers of unchanged clusters expected to be retained", Boolean.TRUE,
+                  workspace.report("dbscan:track tracker = tracked-ids"));
+          assertEquals("Unchanged clusters sharing border agent expected not to cause events", Boolean.TRUE,
+                  workspace.report("empty? dbscan:tracker-events tracker"));
+          workspace.dispose();
+        } catch(Exception ex) {
+          fail("Clustering was not successful (but should have been). Exception: " + ex.getMessage());
+        }
+
+    }
+
+    @Test
+    public void testClusterSummariesMatchClustersHeadless() {
+
+        HeadlessWorkspace workspace = HeadlessWorkspace.newInstance();
+        try {
+          // Load model
+          workspace.open(TESTMODEL_BOX, false);
+          // Parameterise agent number
+          workspace.command("pre-setup");
+          // Setting up entities
+          workspace.command("setup");
+          // Summarise clusters including wealth
+          workspace.command("set clusters dbscan:cluster-by-location agents 3 2");
+          workspace.command("set summaries (dbscan:cluster-summaries \"wealth\")");
+          assertEquals("Summary sizes expected to match clusters", Boolean.TRUE,
+                  workspace.report("map first summaries = map length clusters"));
+          // Without wrapping, centroids and wealth means are expected to be arithmetic means of the members
+          assertEquals("Centroids expected to match mean locations", Boolean.TRUE,
+                  workspace.report("reduce and fput true (map [[s c] -> abs (item 1 s - mean map [a -> [xcor] of a] c) < 1e-9"
+                          + " and abs (item 2 s - mean map [a -> [ycor] of a] c) < 1e-9] summaries clusters)"));
+          assertEquals("Extents expected to match member locations", Boolean.TRUE,
+                  workspace.report("reduce and fput true (map [[s c] -> item 3 s = min map [a -> [xcor] of a] c"
+                          + " and item 6 s = max map [a -> [ycor] of a] c] summaries clusters)"));
+          assertEquals("Wealth means expected to match member wealth", Boolean.TRUE,
+                  workspace.report("reduce and fput true (map [[s c] -> abs (item 7 s - mean map [a -> [wealth] of a] c) < 1e-9]"
+                          + " summaries clusters)"));
+          // Results combining groups of turtles and patches are expected to be summarised per member
+          workspace.command("set clusters dbscan:cluster-groups-by-location (list agents patches) 3 2");
+          assertEquals("Summary sizes of combined result expected to match clusters", Boolean.TRUE,
+                  workspace.report("map first dbscan:cluster-summaries = map length clusters"));
+          workspace.dispose();
+        } catch(Exception ex) {
+          fail("Clustering was not successful (but should have been). Exception: " + ex.getMessage());
+        }
+
+    }
+
+    @Test
+    public void testClusteringByNetworkHeadless() {
+
+        HeadlessWorkspace workspace = HeadlessWorkspace.newInstance();
+        try {
+          // Load model
+          workspace.open(TESTMODEL_TORUS, false);
+          // Parameterise agent number
+          workspace.command("pre-setup");
+          // Setting up entities
+          workspace.command("setup");
+          // Link agents into two chains of 10 agents each (all other agents are unlinked)
+          workspace.command("ask agents with [who < 9 or (who >= 10 and who < 19)] [ create-link-with agent (who + 1) ]");
+          // Agents within two hops of each other are neighbours, so that all chain members are core points
+          workspace.command("set clusters dbscan:cluster-by-network agents links 3 2");
+          assertEquals("Chains expected to form two clusters", Boolean.TRUE,
+                  workspace.report("sort-by [[a b] -> first a < first b] map [c -> sort [who] of turtle-set c] clusters = (list range 10 n-values 10 [i -> i + 10])"));
+          assertEquals("Unlinked agents expected to be noise", Boolean.TRUE,
+                  workspace.report("length dbscan:last-noise = count agents - 20"));
+          // Without hops beyond the agent itself, no agent is expected to be a core point
+          workspace.command("set clusters dbscan:cluster-by-network agents links 2 0");
+          assertEquals("No clusters expected for zero hops", Boolean.TRUE, workspace.report("empty? clusters"));
+          workspace.dispose();
+        } catch(Exception ex) {
+          fail("Clustering was not successful (but should have been). Exception: " + ex.getMessage());
+        }
+
+    }
+
+    @Test
+    public void testClusterSummariesAcrossWorldEdgeHeadless() {
+
+        HeadlessWorkspace workspace = HeadlessWorkspace.newInstance();
+        try {
+          // Load model
+          workspace.open(TESTMODEL_TORUS, false);
+          // Parameterise agent number
+          workspace.command("pre-setup");
+          // Setting up entities
+          workspace.command("setup");
+          // Place 10 agents on both sides of the vertical world edge, all other agents in the middle of the world
+          workspace.command("ask agents with [who < 10] [ setxy (ifelse-value (who mod 2 = 0) [16.3] [-16.3]) (who * 0.1) ]");
+          workspace.command("ask agents with [who >= 10] [ setxy (random-float 10 - 5) random-ycor ]");
+          workspace.command("set clusters dbscan:cluster-by-location agents 3 1");
+          workspace.command("set summaries dbscan:cluster-summaries");
+          workspace.command("set result item (first filter [i -> member? turtle 0 item i clusters] range length clusters) summaries");
+          // The centroid is expected at the edge (rather than in the middle of the world), with the extent crossing it
+          assertEquals("Cluster across edge expected to hold the agents placed there", Boolean.TRUE,
+                  workspace.report("first result = 10"));
+          assertEquals("Centroid of cluster across edge expected at the edge", Boolean.TRUE,
+                  workspace.report("abs item 1 result > 16 and abs (item 2 result - 0.45) < 1e-9"));
+          assertEquals("Extent of cluster across edge expected to cross the edge", Boolean.TRUE,
+                  workspace.report("abs (item 3 result - 16.3) < 1e-9 and abs (item 4 result + 16.3) < 1e-9"));
+          // Summaries are expected to describe the locations agents have been clustered by
+          workspace.command("ask agents [ fd 3 ]");
+          assertEquals("Summaries expected to be based on locations at the time of clustering", Boolean.TRUE,
+                  workspace.report("dbscan:cluster-summaries = summaries"));
+          workspace.dispose();
+        } catch(Exception ex) {
+          fail("Clustering was not successful (but should have been). Exception: " + ex.getMessage());
+        }
+
+    }
+
+    @Test
+    public void testHierarchicalClusteringOfDenseGroupsHeadless() {
+
+        HeadlessWorkspace workspace = HeadlessWorkspace.newInstance();
+        try {
+          // Load model
+          workspace.open(TESTMODEL_TORUS, false);
+          // Parameterise agent number
+          workspace.command("pre-setup");
+          // Setting up entities
+          workspace.command("setup");
+          // Arrange two dense groups of 25 agents (lattices with spacing 0.1) among uniformly distributed agents
+          workspace.command("ask agents with [who < 25] [ setxy (-10 + (who mod 5) * 0.1) (-10 + int (who / 5) * 0.1) ]");
+          workspace.command("ask agents with [who >= 25 and who < 50] [ setxy (10 + (who mod 5) * 0.1) (10 + int ((who - 25) / 5) * 0.1) ]");
+          // Run clustering
+          workspace.command("set clusters dbscan:cluster-hierarchical agents 5");
+          // Agents are expected to belong to at most one cluster
+          assertEquals("Agents expected to belong to at most one cluster", Boolean.TRUE,
+                  workspace.report("length reduce sentence clusters = length remove-duplicates reduce sentence clusters"));
+          // Each group is expected to be contained in a cluster, different from the one of the other group
+          assertEquals("First group expected to form part of a cluster", Boolean.TRUE,
+                  workspace.report("all? agents with [who < 25] [ member? self first filter [c -> member? turtle 0 c] clusters ]"));
+          assertEquals("Second group expected to form part of a cluster", Boolean.TRUE,
+                  workspace.report("all? agents with [who >= 25 and who < 50] [ member? self first filter [c -> member? turtle 25 c] clusters ]"));
+          assertEquals("Groups expected to form part of different clusters", Boolean.FALSE,
+                  workspace.report("member? turtle 25 first filter [c -> member? turtle 0 c] clusters"));
+          workspace.dispose();
+        } catch(Exception ex) {
+          fail("Clustering was not successful (but should have been). Exception: " + ex.getMessage());
+        }
+
+    }
+
+    @Test
+    public void testClusteringOfPatchesByLocationOnLatticeHeadless() {
+
+        HeadlessWorkspace workspace = HeadlessWorkspace.newInstance();
+        try {
+          // Load model
+          workspace.open(TESTMODEL_BOX, false);
+          // Select about a third of the patches
+          workspace.command("random-seed 4711");
+          workspace.command("ask patches [ set resource random 3 ]");
+          workspace.command("set clusters patches with [ resource = 0 ]");
+          // Lattice-based clustering of patches is expected to match the clusters extracted from an
+          // ordering (which compares patch locations by distance)
+          for (String distance: new String[] {"1", "1.5", "2", "3.5"}) {
+            assertEquals("Patch clusters expected to match extracted clusters for distance " + distance, Boolean.TRUE,
+                    workspace.report("dbscan:cluster-by-location clusters 4 " + distance +
+                            " = dbscan:extract-clusters (dbscan:optics clusters 4 " + distance + ") " + distance));
+          }
+          workspace.dispose();
+        } catch(Exception ex) {
+          fail("Clustering was not successful (but should have been). Exception: " + ex.getMessage());
+        }
+
+    }
+
+    @Test
+    public void testClusteringOfPatchesByLocationAcrossWorldEdgesHeadless() {
+
+        HeadlessWorkspace workspace = HeadlessWorkspace.newInstance();
+        try {
+          // Load model (torus)
+          workspace.open(TESTMODEL_TORUS, false);
+          // Patches in the leftmost and rightmost columns are neighbours when wrapping
+          workspace.command("set clusters dbscan:cluster-by-location patches with [ pxcor = min-pxcor or pxcor = max-pxcor ] 3 1");
+          assertEquals("Edge columns expected to form a single cluster", 1.0, workspace.report("length clusters"));
+          assertEquals("Cluster expected to comprise both edge columns", 66.0, workspace.report("length first clusters"));
+          workspace.dispose();
+
+          // Load model (box)
+          workspace = HeadlessWorkspace.newInstance();
+          workspace.open(TESTMODEL_BOX, false);
+          // Without wrapping, edge columns form separate clusters
+          workspace.command("set clusters dbscan:cluster-by-location patches with [ pxcor = min-pxcor or pxcor = max-pxcor ] 3 1");
+          assertEquals("Edge columns expected to form separate clusters", 2.0, workspace.report("length clusters"));
+          workspace.dispose();
+        } catch(Exception ex) {
+          fail("Clustering was not successful (but should have been). Exception: " + ex.getMessage());
+        }
+
+    }
+
+    @Test
+    public void testStrictMathClusteringMatchesDefaultClusteringHeadless() {
+
+        HeadlessWorkspace workspace = HeadlessWorkspace.newInstance();
+        try {
+          // Load model
+          workspace.open(TESTMODEL_TORUS, false);
+          // Parameterise agent number
+          workspace.command("pre-setup");
+          // Setting up entities
+          workspace.command("setup");
+          // Run clustering using squared distance comparisons (default); a maximum distance of 1 results in
+          // many distances on the threshold for agents on patch centres
+          workspace.command("ask agents [ move-to patch-here ]");
+          Object byLocation = workspace.report("dbscan:cluster-by-location agents 3 1");
+          // Run clustering using StrictMath distances
+          workspace.command("dbscan:set-strict-math true");
+          assertEquals("Clusters by location expected to match strict math clustering", 
+                  byLocation, workspace.report("dbscan:cluster-by-location agents 3 1"));
+          workspace.dispose();
+        } catch(Exception ex) {
+          fail("Clustering was not successful (but should have been). Exception: " + ex.getMessage());
+        }
+
+    }
+
+    @Test
+    public void testIncrementalClusteringOfTurtlesByLocationMatchesDbscanLibraryHeadless() {
+
+        HeadlessWorkspace workspace = HeadlessWorkspace.newInstance();
+        try {
+          // Load model
+          workspace.open(TESTMODEL_TORUS, false);
+          // Parameterise agent number
+          workspace.command("pre-setup");
+          // Setting up entities
+          workspace.command("setup");
+          workspace.command("dbscan:set-incremental true");
+          for (int tick = 0; tick < 5; tick++) {
+              // Move some agents, remove one
+              workspace.command("ask n-of 10 agents [ fd 1 ]");
+              workspace.command("ask one-of agents [ die ]");
+              // Run incremental clustering via extension
+              workspace.command("set clusters dbscan:cluster-by-location agents 3 3");
+              LogoList clusters = (LogoList) workspace.report("clusters");
+
+              // Run reference clustering of DBSCAN library on the same agents
+              World world = workspace.world();
+              Collection<org.nlogo.api.Agent> input = new ArrayList<>();
+              for (org.nlogo.api.Agent agent: world.getBreed("AGENTS").agents()) {
+                  input.add(agent);
+              }
+              DBSCANClusterer<org.nlogo.api.Agent> clusterer = new DBSCANClusterer<>(input, 3, 3,
+                      new DistanceMetricNetLogoAgentLocationTorus(world.worldWidth(), world.worldHeight()));
+              ArrayList<ArrayList<org.nlogo.api.Agent>> reference = clusterer.performClustering();
+
+              assertEquals("Number of clusters expected", reference.size(), clusters.size());
+              for (int i = 0; i < reference.size(); i++) {
+                  LogoList cluster = (LogoList) clusters.get(i);
+                  ArrayList<Object> members = new ArrayList<>();
+                  for (int j = 0; j < cluster.size(); j++) {
+                      members.add(cluster.get(j));
+                  }
+                  assertEquals("Members of cluster " + i + " expected", 
+                          sortedIds(reference.get(i)), sortedIds(members));
+              }
+          }
+          workspace.dispose();
+        } catch(Exception ex) {
+          fail("Clustering was not successful (but should have been). Exception: " + ex.getMessage());
+        }
+
+    }
+
+    @Test
+    public void testIncrementalClusteringSplitsClusterAtRemovedBridgeHeadless() {
+
+        HeadlessWorkspace workspace = HeadlessWorkspace.newInstance();
+        try {
+          // Load model
+          workspace.open(TESTMODEL_TORUS, false);
+          // Parameterise agent number
+          workspace.command("pre-setup");
+          // Setting up entities
+          workspace.command("setup");
+          // Two lines of six agents, bridged by a core agent (turtle 12) within reach of one agent of each line
+          workspace.command("ask agents with [who < 6] [ setxy (-0.8 - who * 0.5) 0 ]");
+          workspace.command("ask agents with [who >= 6 and who < 12] [ setxy (0.8 + (who - 6) * 0.5) 0 ]");
+          workspace.command("ask turtle 12 [ setxy 0 0 ]");
+          workspace.command("ask agents with [who > 12] [ setxy random-xcor (5 + random-float 5) ]");
+          workspace.command("dbscan:set-incremental true");
+          workspace.command("set clusters dbscan:cluster-by-location agents 3 0.9");
+          assertEquals("Bridged lines expected to form one cluster", Boolean.TRUE,
+                  workspace.report("member? turtle 11 first filter [c -> member? turtle 0 c] clusters"));
+          // Removing the bridge is expected to split the cluster into the two lines
+          workspace.command("ask turtle 12 [ die ]");
+          workspace.command("set clusters dbscan:cluster-by-location agents 3 0.9");
+          assertEquals("Lines expected to form separate clusters once bridge is removed", Boolean.TRUE,
+                  workspace.report("sort [who] of turtle-set first filter [c -> member? turtle 0 c] clusters = range 6"
+                          + " and sort [who] of turtle-set first filter [c -> member? turtle 6 c] clusters = range 6 12"));
+          // Clusters are expected to match the ones of a full clustering
+          workspace.command("dbscan:set-incremental false");
+          assertEquals("Clusters after split expected to match full clustering", Boolean.TRUE,
+                  workspace.report("clusters = dbscan:cluster-by-location agents 3 0.9"));
+          workspace.dispose();
+        } catch(Exception ex) {
+          fail("Clustering was not successful (but should have been). Exception: " + ex.getMessage());
+        }
+
+    }
+
+    @Test
+    public void testClusteringOfTurtlesByMultipleVariablesMatchesClusteringByLocationHeadless() {
+
+        HeadlessWorkspace workspace = HeadlessWorkspace.newInstance();
+        try {
+          // Load model (box topology corresponds to Euclidean distance of coordinates)
+          workspace.open(TESTMODEL_BOX, false);
+          // Parameterise agent number
+          workspace.command("pre-setup");
+          // Setting up entities
+          workspace.command("setup");
+          // Run clustering on coordinate variables
+          Object byVariables = workspace.report("dbscan:cluster-by-variables agents [\"xcor\" \"ycor\"] 3 3");
+          assertEquals("Clusters by coordinate variables expected to match clusters by location", 
+                  workspace.report("dbscan:cluster-by-location agents 3 3"), byVariables);
+          assertEquals("Euclidean metric expected as default", byVariables, 
+                  workspace.report("(dbscan:cluster-by-variables agents [\"xcor\" \"ycor\"] 3 3 \"euclidean\")"));
+          workspace.dispose();
+        } catch(Exception ex) {
+          fail("Clustering was not successful (but should have been). Exception: " + ex.getMessage());
+        }
+
+    }
+
+    @Test
+    public void testClusteringOfTurtlesByMultipleVariablesInExistingNetLogoModelHeadlessUnknownMetric() {
+
+        HeadlessWorkspace workspace =
+            HeadlessWorkspace.newInstance() ;
+        try {
+          // Load model
+          workspace.open(TESTMODEL_TORUS, false);
+          // Parameterise agent number
+          workspace.command("pre-setup");
+          // Setting up entities
+          workspace.command("setup");
+          // Run clustering with unsupported metric
+          workspace.command("set clusters (dbscan:cluster-by-variables agents [\"wealth\" \"xcor\"] 3 3 \"cosine\")");
+          fail("Clustering should not succeed with unknown metric.");
+          workspace.dispose();
+        } catch(Exception ex) {
+          assertEquals("Unknown metric", 
+                  "Extension exception: Unknown distance metric cosine (supported metrics: euclidean, manhattan, chebyshev).", 
+                  ex.getMessage());
+        }
+
+    }
+
+    @Test
+    public void testClusteringInExistingNetLogoModelHeadlessInvalidParallelism() {
+
+        HeadlessWorkspace workspace =
+            HeadlessWorkspace.newInstance() ;
+        try {
+          // Load model
+          workspace.open(TESTMODEL_TORUS, false);
+          // Set invalid number of threads
+          workspace.command("dbscan:set-parallelism 0");
+          workspace.dispose();
+          fail("Execution should not reach here.");
+        } catch(Exception ex) {
+            assertEquals("Invalid parallelism", 
+                  "Extension exception: Parallelism must be between 1 and 32767.", 
+                  ex.getMessage());
+        }
+
+    }
+
     @Test
     public void testClusteringOfTurtlesByLocationInExistingNetLogoModelHeadlessMissingInput() {
 
@@ -672,6 +1552,52 @@ public class TestNetLogoDBSCAN {
 
     }
 
+    @Test
+    public void testClusteringOfTurtlesByBreedVariablesInExistingNetLogoModelHeadlessUnbreededAgentSet() {
+
+        HeadlessWorkspace workspace = HeadlessWorkspace.newInstance();
+        try {
+          // Load model
+          workspace.open(TESTMODEL_TORUS, false);
+          // Parameterise agent number
+          workspace.command("pre-setup");
+          // Setting up entities
+          workspace.command("setup");
+          // Run clustering on all turtles (breed variable resolved via breed of each turtle)
+          workspace.command("set clusters dbscan:cluster-by-variable turtles \"wealth\" 3 1");
+          assertEquals("Number of clusters expected", 4.0, workspace.report("length clusters"));
+          workspace.dispose();
+        } catch(Exception ex) {
+          fail("Clustering was not successful (but should have been). Exception: " + ex.getMessage());
+        }
+
+    }
+
+    @Test
+    public void testClusteringOfTurtlesByVariablesInExistingNetLogoModelHeadlessNonNumericValue() {
+
+        HeadlessWorkspace workspace =
+            HeadlessWorkspace.newInstance() ;
+        try {
+          // Load model
+          workspace.open(TESTMODEL_TORUS, false);
+          // Parametrise agent numbers
+          workspace.command("pre-setup");
+          // Initialise agents
+          workspace.command("setup");
+          // Assign non-numeric cluster variable value to single agent
+          workspace.command("ask agt 0 [ set wealth \"rich\" ]");
+          // Run clustering
+          workspace.command("set clusters dbscan:cluster-by-variable agents \"wealth\" 3 1");
+          workspace.dispose();
+          fail("Execution should not reach here.");
+        } catch(Exception ex) {
+          assertTrue("Non-numeric variable value is rejected: " + ex.getMessage(), 
+                  ex.getMessage().contains("does not hold a numeric value (value: rich)"));
+        }
+
+    }
+
     @Test
     public void testClusteringOfTurtlesByVariablesInExistingNetLogoModelHeadlessMissingInput() {
 
@@ -820,5 +1746,17 @@ public class TestNetLogoDBSCAN {
         }
 
     }
-    
+
+    /**
+     * Returns the sorted ids of the given agents to compare cluster membership independent of order.
+     */
+    private static ArrayList<Long> sortedIds(final Iterable<?> agents) {
+        ArrayList<Long> ids = new ArrayList<>();
+        for (Object agent: agents) {
+            ids.add(((org.nlogo.api.Agent) agent).id());
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
 }